@@ -1,19 +1,28 @@
 package me.wbars.jdb;
 
 import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.QueryParser;
 import me.wbars.jdb.db.QueryResult;
-import me.wbars.jdb.table.Table;
+import me.wbars.jdb.db.ResultCursor;
+import me.wbars.jdb.db.Storage;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.stream.Stream;
 
 public class Main {
-    public static void main(String[] args) {
-        DatabaseService service = new DatabaseService();
+    public static void main(String[] args) throws IOException {
+        try (Storage storage = args.length > 0 ? Storage.open(Paths.get(args[0])) : new Storage()) {
+            run(new DatabaseService(new QueryParser(), storage));
+        }
+    }
+
+    private static void run(DatabaseService service) {
         Scanner scanner = new Scanner(System.in);
         PrintStream out = System.out;
-        while (true) {
+        while (scanner.hasNextLine()) {
             String s = scanner.nextLine();
             if (s.equals("exit")) return;
 
@@ -24,8 +33,8 @@ public class Main {
                     out.println(result.getMessage());
                     continue;
                 }
-                if (result.getTable() == null) continue;
-                printTable(out, result.getTable());
+                if (result.getCursor() == null) continue;
+                printRows(out, result.getCursor());
             } catch (Exception e) {
                 out.println("There was an exception: " + e.getMessage());
                 e.printStackTrace();
@@ -33,12 +42,12 @@ public class Main {
         }
     }
 
-    private static void printTable(PrintStream out, Table table) {
-        out.println("Table: " + table.getName());
-        String header = concatValues(table.getColumns().stream().map(r -> r.first));
+    private static void printRows(PrintStream out, ResultCursor cursor) {
+        out.println("Table: " + cursor.getTableName());
+        String header = concatValues(cursor.getColumns().stream().map(r -> r.first));
         out.println(header);
         out.println(lineOfLength(header.length()));
-        table.getRows().forEach(row -> out.println(concatValues(row.stream())));
+        cursor.forEachRemaining(row -> out.println(concatValues(row.stream())));
     }
 
     private static String lineOfLength(int length) {
@@ -0,0 +1,239 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.utils.IntList;
+import me.wbars.jdb.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+public class BPlusTree<T extends Comparable<T>> {
+    public static final int DEFAULT_FAN_OUT = 64;
+    private static final int MIN_FAN_OUT = 3;
+
+    private final int fanOut;
+    private Node<T> root;
+    private int size;
+
+    public BPlusTree(int fanOut) {
+        this(fanOut, new Leaf<>(), 0);
+    }
+
+    private BPlusTree(int fanOut, Node<T> root, int size) {
+        if (fanOut < MIN_FAN_OUT) throw new IllegalArgumentException("Fan-out should be at least " + MIN_FAN_OUT);
+        this.fanOut = fanOut;
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <T extends Comparable<T>> BPlusTree<T> bulkLoad(List<Map.Entry<T, IntList>> sortedEntries, int fanOut) {
+        if (sortedEntries.isEmpty()) return new BPlusTree<>(fanOut);
+
+        List<Node<T>> level = new ArrayList<>();
+        List<T> levelMinKeys = new ArrayList<>();
+        Leaf<T> previous = null;
+        for (List<Map.Entry<T, IntList>> group : split(sortedEntries, fanOut)) {
+            Leaf<T> leaf = new Leaf<>();
+            group.forEach(e -> {
+                leaf.keys.add(e.getKey());
+                leaf.values.add(e.getValue());
+            });
+            if (previous != null) previous.next = leaf;
+            previous = leaf;
+            level.add(leaf);
+            levelMinKeys.add(leaf.keys.get(0));
+        }
+
+        while (level.size() > 1) {
+            List<Node<T>> parents = new ArrayList<>();
+            List<T> parentsMinKeys = new ArrayList<>();
+            List<List<Node<T>>> childrenGroups = split(level, fanOut);
+            List<List<T>> minKeysGroups = split(levelMinKeys, fanOut);
+            for (int i = 0; i < childrenGroups.size(); i++) {
+                Inner<T> parent = new Inner<>();
+                parent.children.addAll(childrenGroups.get(i));
+                parent.keys.addAll(minKeysGroups.get(i).subList(1, minKeysGroups.get(i).size()));
+                parents.add(parent);
+                parentsMinKeys.add(minKeysGroups.get(i).get(0));
+            }
+            level = parents;
+            levelMinKeys = parentsMinKeys;
+        }
+        return new BPlusTree<>(fanOut, level.get(0), sortedEntries.size());
+    }
+
+    private static <E> List<List<E>> split(List<E> items, int maxGroupSize) {
+        int groups = (items.size() + maxGroupSize - 1) / maxGroupSize;
+        List<List<E>> result = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            result.add(items.subList(i * items.size() / groups, (i + 1) * items.size() / groups));
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int height() {
+        int height = 1;
+        for (Node<T> node = root; node instanceof Inner; node = ((Inner<T>) node).children.get(0)) height++;
+        return height;
+    }
+
+    public IntList find(T key) {
+        Leaf<T> leaf = findLeaf(key);
+        int i = Collections.binarySearch(leaf.keys, key);
+        return i >= 0 ? leaf.values.get(i) : null;
+    }
+
+    public void insert(T key, int rowId) {
+        Pair<T, Node<T>> split = insert(root, key, rowId);
+        if (split == null) return;
+
+        Inner<T> newRoot = new Inner<>();
+        newRoot.children.add(root);
+        newRoot.keys.add(split.first);
+        newRoot.children.add(split.second);
+        root = newRoot;
+    }
+
+    private Pair<T, Node<T>> insert(Node<T> node, T key, int rowId) {
+        if (node instanceof Leaf) return insertIntoLeaf((Leaf<T>) node, key, rowId);
+
+        Inner<T> inner = (Inner<T>) node;
+        int childIndex = childIndex(inner, key);
+        Pair<T, Node<T>> split = insert(inner.children.get(childIndex), key, rowId);
+        if (split == null) return null;
+
+        inner.keys.add(childIndex, split.first);
+        inner.children.add(childIndex + 1, split.second);
+        if (inner.children.size() <= fanOut) return null;
+
+        int mid = inner.keys.size() >>> 1;
+        Inner<T> right = new Inner<>();
+        T separator = inner.keys.get(mid);
+        right.keys.addAll(inner.keys.subList(mid + 1, inner.keys.size()));
+        right.children.addAll(inner.children.subList(mid + 1, inner.children.size()));
+        inner.keys.subList(mid, inner.keys.size()).clear();
+        inner.children.subList(mid + 1, inner.children.size()).clear();
+        return new Pair<>(separator, right);
+    }
+
+    private Pair<T, Node<T>> insertIntoLeaf(Leaf<T> leaf, T key, int rowId) {
+        int i = Collections.binarySearch(leaf.keys, key);
+        if (i >= 0) {
+            leaf.values.get(i).addInt(rowId);
+            return null;
+        }
+
+        IntList rowIds = new IntList();
+        rowIds.addInt(rowId);
+        leaf.keys.add(-i - 1, key);
+        leaf.values.add(-i - 1, rowIds);
+        size++;
+        if (leaf.keys.size() <= fanOut) return null;
+
+        int mid = leaf.keys.size() >>> 1;
+        Leaf<T> right = new Leaf<>();
+        right.keys.addAll(leaf.keys.subList(mid, leaf.keys.size()));
+        right.values.addAll(leaf.values.subList(mid, leaf.values.size()));
+        leaf.keys.subList(mid, leaf.keys.size()).clear();
+        leaf.values.subList(mid, leaf.values.size()).clear();
+        right.next = leaf.next;
+        leaf.next = right;
+        return new Pair<>(right.keys.get(0), right);
+    }
+
+    public void scan(T from, boolean fromInclusive, T to, boolean toInclusive, Consumer<IntList> consumer) {
+        scanEntries(from, fromInclusive, to, toInclusive, (key, rowIds) -> consumer.accept(rowIds));
+    }
+
+    public void scanEntries(T from, boolean fromInclusive, T to, boolean toInclusive, BiConsumer<T, IntList> consumer) {
+        Leaf<T> leaf = from != null ? findLeaf(from) : firstLeaf();
+        int i = from != null ? lowerBound(leaf, from, fromInclusive) : 0;
+        for (; leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.keys.size(); i++) {
+                if (to != null) {
+                    int compare = leaf.keys.get(i).compareTo(to);
+                    if (compare > 0 || compare == 0 && !toInclusive) return;
+                }
+                consumer.accept(leaf.keys.get(i), leaf.values.get(i));
+            }
+        }
+    }
+
+    public void forEach(BiConsumer<T, IntList> consumer) {
+        for (Leaf<T> leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.keys.size(); i++) consumer.accept(leaf.keys.get(i), leaf.values.get(i));
+        }
+    }
+
+    public boolean walk(boolean descending, BiPredicate<T, IntList> consumer) {
+        if (descending) return walkDescending(root, consumer);
+        for (Leaf<T> leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.keys.size(); i++) {
+                if (!consumer.test(leaf.keys.get(i), leaf.values.get(i))) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean walkDescending(Node<T> node, BiPredicate<T, IntList> consumer) {
+        if (node instanceof Leaf) {
+            Leaf<T> leaf = (Leaf<T>) node;
+            for (int i = leaf.keys.size() - 1; i >= 0; i--) {
+                if (!consumer.test(leaf.keys.get(i), leaf.values.get(i))) return false;
+            }
+            return true;
+        }
+        List<Node<T>> children = ((Inner<T>) node).children;
+        for (int i = children.size() - 1; i >= 0; i--) {
+            if (!walkDescending(children.get(i), consumer)) return false;
+        }
+        return true;
+    }
+
+    private int lowerBound(Leaf<T> leaf, T key, boolean inclusive) {
+        int i = Collections.binarySearch(leaf.keys, key);
+        if (i < 0) return -i - 1;
+        return inclusive ? i : i + 1;
+    }
+
+    private Leaf<T> findLeaf(T key) {
+        Node<T> node = root;
+        while (node instanceof Inner) {
+            Inner<T> inner = (Inner<T>) node;
+            node = inner.children.get(childIndex(inner, key));
+        }
+        return (Leaf<T>) node;
+    }
+
+    private Leaf<T> firstLeaf() {
+        Node<T> node = root;
+        while (node instanceof Inner) node = ((Inner<T>) node).children.get(0);
+        return (Leaf<T>) node;
+    }
+
+    private int childIndex(Inner<T> inner, T key) {
+        int i = Collections.binarySearch(inner.keys, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static abstract class Node<T> {
+        final List<T> keys = new ArrayList<>();
+    }
+
+    private static class Leaf<T> extends Node<T> {
+        final List<IntList> values = new ArrayList<>();
+        Leaf<T> next;
+    }
+
+    private static class Inner<T> extends Node<T> {
+        final List<Node<T>> children = new ArrayList<>();
+    }
+}
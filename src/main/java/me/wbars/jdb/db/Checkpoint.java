@@ -0,0 +1,191 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.table.TableFiles;
+import me.wbars.jdb.utils.IntList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static me.wbars.jdb.db.LogRecords.readString;
+import static me.wbars.jdb.db.LogRecords.readStrings;
+import static me.wbars.jdb.db.LogRecords.writeString;
+import static me.wbars.jdb.db.LogRecords.writeStrings;
+
+final class Checkpoint {
+    private static final int MAGIC = 0x4A444243;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int COMPOSITE = 0x80;
+
+    final long lsn;
+    final int nextTableId;
+    final Map<String, Table> tables = new HashMap<>();
+    final Map<String, List<Index<? extends Comparable<?>>>> indexes = new HashMap<>();
+
+    private Checkpoint(long lsn, int nextTableId) {
+        this.lsn = lsn;
+        this.nextTableId = nextTableId;
+    }
+
+    static Writer writer(Path file, long lsn, int nextTableId, int tableCount) throws IOException {
+        Writer writer = new Writer(file);
+        writer.out.writeInt(MAGIC);
+        writer.out.writeLong(lsn);
+        writer.out.writeInt(nextTableId);
+        writer.out.writeInt(tableCount);
+        return writer;
+    }
+
+    static class Writer implements Closeable {
+        private final Path file;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+
+        private Writer(Path file) throws IOException {
+            this.file = file;
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        }
+
+        void writeTable(String tableName, Table table, List<Index<? extends Comparable<?>>> indexes) throws IOException {
+            writeString(out, tableName);
+            writeString(out, table.getDirectory().getFileName().toString());
+            out.writeInt(table.size());
+            out.writeInt(indexes.size());
+            for (Index<? extends Comparable<?>> index : indexes) writeIndex(out, index);
+        }
+
+        void commit() throws IOException {
+            out.flush();
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static <T extends Comparable<T>> void writeIndex(DataOutput out, Index<T> index) throws IOException {
+        writeString(out, index.getColumnName());
+        boolean composite = index instanceof CompositeIndex;
+        out.writeByte(index.getType().ordinal() | (composite ? COMPOSITE : 0));
+        if (composite) {
+            writeStrings(out, index.getColumns());
+            writeStrings(out, index.getIncludedColumns());
+        }
+        out.writeInt(index.keyCount());
+        try {
+            index.forEachEntry((key, rowIds) -> {
+                try {
+                    writeKey(out, key);
+                    out.writeInt(rowIds.size());
+                    for (int i = 0; i < rowIds.size(); i++) out.writeInt(rowIds.getInt(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeKey(DataOutput out, Object key) throws IOException {
+        if (key instanceof Integer) out.writeInt((Integer) key);
+        else if (key instanceof String) writeString(out, (String) key);
+        else {
+            CompositeKey composite = (CompositeKey) key;
+            for (int i = 0; i < composite.size(); i++) {
+                Object value = composite.get(i);
+                out.writeBoolean(value != null);
+                if (value != null) writeKey(out, value);
+            }
+        }
+    }
+
+    private static Object readKey(DataInput in, Column column) throws IOException {
+        return column.getType() == Type.INTEGER ? (Object) in.readInt() : readString(in);
+    }
+
+    static Checkpoint read(Path file, Path tablesDirectory, int indexFanOut) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a checkpoint file: " + file);
+            Checkpoint checkpoint = new Checkpoint(in.readLong(), in.readInt());
+            for (int i = in.readInt(); i > 0; i--) {
+                String tableName = readString(in);
+                Table table = TableFiles.open(tablesDirectory.resolve(readString(in)));
+                int rowCount = in.readInt();
+                checkpoint.tables.put(tableName, table);
+                for (int j = in.readInt(); j > 0; j--) {
+                    Index<? extends Comparable<?>> index = readIndex(in, table, indexFanOut);
+                    index.insertAll(rowCount, table.size());
+                    checkpoint.indexes.computeIfAbsent(tableName, s -> new ArrayList<>()).add(index);
+                }
+            }
+            return checkpoint;
+        }
+    }
+
+    private static Index<? extends Comparable<?>> readIndex(DataInput in, Table table, int indexFanOut) throws IOException {
+        String columnName = readString(in);
+        int flags = in.readByte() & 0xFF;
+        IndexType type = IndexType.values()[flags & ~COMPOSITE];
+        if ((flags & COMPOSITE) != 0) return readCompositeIndex(in, table, indexFanOut);
+
+        Column column = table.getColumn(columnName);
+        List<Map.Entry<Comparable<?>, IntList>> entries = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>((Comparable<?>) readKey(in, column), readRowIds(in)));
+        }
+        return Index.load(type, columnName, column, indexFanOut, entries);
+    }
+
+    private static CompositeIndex readCompositeIndex(DataInput in, Table table, int indexFanOut) throws IOException {
+        List<String> columns = readStrings(in);
+        List<String> included = readStrings(in);
+        List<Column> components = Index.components(columns, included, table);
+        List<Map.Entry<CompositeKey, IntList>> entries = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Object[] values = new Object[components.size()];
+            for (int j = 0; j < values.length; j++) {
+                if (in.readBoolean()) values[j] = readKey(in, components.get(j));
+            }
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(new CompositeKey(values), readRowIds(in)));
+        }
+        return CompositeIndex.load(columns, included, components, indexFanOut, entries);
+    }
+
+    private static IntList readRowIds(DataInput in) throws IOException {
+        int count = in.readInt();
+        IntList rowIds = new IntList(count);
+        for (int j = 0; j < count; j++) rowIds.addInt(in.readInt());
+        return rowIds;
+    }
+}
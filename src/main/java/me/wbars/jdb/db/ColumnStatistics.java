@@ -0,0 +1,141 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+import me.wbars.jdb.utils.HyperLogLog;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.IntStream.range;
+
+abstract class ColumnStatistics {
+    static final int BUCKETS = 16;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int RANGE_SELECTIVITY = 3;
+
+    private final Column column;
+    private final HyperLogLog distinct = new HyperLogLog();
+    private long nulls;
+    private long values;
+    private long[] counts = new long[0];
+    private long histogramValues;
+
+    ColumnStatistics(Column column) {
+        this.column = column;
+    }
+
+    static ColumnStatistics create(Column column) {
+        if (column instanceof IntegerColumn) return new IntegerStatistics((IntegerColumn) column);
+        return new StringStatistics((StringColumn) column);
+    }
+
+    abstract long hash(int row);
+
+    abstract void addBounds(int row);
+
+    abstract int bucket(int row);
+
+    abstract int sample(int rowCount, int step);
+
+    abstract void setBounds(int[] sampleIndexes);
+
+    abstract boolean accepts(Object value);
+
+    abstract int compareToMin(Object value);
+
+    abstract int compareToMax(Object value);
+
+    abstract int compareToBound(Object value, int bucket);
+
+    abstract double fraction(Object value, int bucket, boolean inclusive);
+
+    abstract String min();
+
+    abstract String max();
+
+    abstract String bound(int bucket);
+
+    void add(int row) {
+        if (column.isNull(row)) {
+            nulls++;
+            return;
+        }
+        values++;
+        distinct.add(hash(row));
+        addBounds(row);
+        if (values >= 2 * histogramValues) buildHistogram(row + 1, Math.max(1, (row + 1) / SAMPLE_SIZE));
+        else if (counts.length > 0) counts[bucket(row)]++;
+    }
+
+    void buildHistogram(int rowCount, int step) {
+        int sampleSize = sample(rowCount, step);
+        int buckets = Math.min(BUCKETS, sampleSize);
+        int[] sampleIndexes = new int[buckets];
+        counts = new long[buckets];
+        long scaled = 0;
+        for (int i = 0; i < buckets; i++) {
+            int from = (int) ((long) i * sampleSize / buckets);
+            int to = (int) ((long) (i + 1) * sampleSize / buckets);
+            sampleIndexes[i] = to - 1;
+            counts[i] = (to - from) * values / sampleSize;
+            scaled += counts[i];
+        }
+        if (buckets > 0) counts[buckets - 1] += values - scaled;
+        setBounds(sampleIndexes);
+        histogramValues = values;
+    }
+
+    long estimateRows(CompareSign sign, Object value) {
+        if (values == 0) return 0;
+        switch (sign) {
+            case EQ:
+                return equal(value);
+            case NE:
+                return values - equal(value);
+            case LT:
+                return below(value, false);
+            case LTE:
+                return below(value, true);
+            case GT:
+                return values - below(value, true);
+            default:
+                return values - below(value, false);
+        }
+    }
+
+    private long equal(Object value) {
+        if (compareToMin(value) < 0 || compareToMax(value) > 0) return 0;
+        return Math.max(1, values / Math.max(1, distinctCount()));
+    }
+
+    private long below(Object value, boolean inclusive) {
+        if (counts.length == 0) return values / RANGE_SELECTIVITY;
+
+        double rows = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int compared = compareToBound(value, i);
+            if (compared > 0 || compared == 0 && inclusive) {
+                rows += counts[i];
+                continue;
+            }
+            rows += counts[i] * fraction(value, i, inclusive);
+            break;
+        }
+        return Math.round(rows);
+    }
+
+    long distinctCount() {
+        return Math.min(distinct.cardinality(), values);
+    }
+
+    long nullCount() {
+        return nulls;
+    }
+
+    String histogram() {
+        return range(0, counts.length)
+                .mapToObj(i -> bound(i) + ":" + counts[i])
+                .collect(joining(" "));
+    }
+}
@@ -0,0 +1,218 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.utils.Bitmap;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import static java.util.stream.Collectors.toList;
+import static me.wbars.jdb.query.CompareSign.*;
+
+public class CompositeIndex extends Index<CompositeKey> {
+    private final List<String> columns;
+    private final List<String> included;
+    private final List<Column> components;
+    private final TreeIndex<CompositeKey> tree;
+
+    private CompositeIndex(List<String> columns, List<String> included, List<Column> components, IntFunction<CompositeKey> keys,
+                           TreeIndex<CompositeKey> tree) {
+        super(columns.get(0), components.get(0), keys);
+        this.columns = columns;
+        this.included = included;
+        this.components = components;
+        this.tree = tree;
+    }
+
+    static CompositeIndex build(List<String> columns, List<String> included, List<Column> components, int fanOut) {
+        IntFunction<CompositeKey> keys = keys(components);
+        return new CompositeIndex(columns, included, components, keys,
+                TreeIndex.build(columns.get(0), components.get(0), keys, fanOut));
+    }
+
+    static CompositeIndex load(List<String> columns, List<String> included, List<Column> components, int fanOut,
+                               List<Map.Entry<CompositeKey, IntList>> sortedEntries) {
+        IntFunction<CompositeKey> keys = keys(components);
+        return new CompositeIndex(columns, included, components, keys,
+                TreeIndex.load(columns.get(0), components.get(0), keys, fanOut, sortedEntries));
+    }
+
+    private static IntFunction<CompositeKey> keys(List<Column> components) {
+        Column[] columns = components.toArray(new Column[0]);
+        return row -> {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Column column = columns[i];
+                if (column.isNull(row)) continue;
+                values[i] = column instanceof IntegerColumn ? (Object) ((IntegerColumn) column).getInt(row) : column.get(row);
+            }
+            return new CompositeKey(values);
+        };
+    }
+
+    @Override
+    public IndexType getType() {
+        return IndexType.TREE;
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public List<String> getIncludedColumns() {
+        return included;
+    }
+
+    @Override
+    public boolean supports(CompareSign sign) {
+        return sign != NE;
+    }
+
+    @Override
+    public boolean supports(QueryPredicate<?> predicate) {
+        return false;
+    }
+
+    List<QueryPredicate<?>> match(List<QueryPredicate<?>> conjunction) {
+        List<QueryPredicate<?>> matched = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            List<QueryPredicate<?>> candidates = candidates(conjunction, i);
+            QueryPredicate<?> equal = find(candidates, EQ, EQ);
+            if (equal != null) {
+                matched.add(equal);
+                continue;
+            }
+            QueryPredicate<?> lower = find(candidates, GT, GTE);
+            QueryPredicate<?> upper = find(candidates, LT, LTE);
+            if (lower != null) matched.add(lower);
+            if (upper != null) matched.add(upper);
+            break;
+        }
+        return matched;
+    }
+
+    private List<QueryPredicate<?>> candidates(List<QueryPredicate<?>> conjunction, int column) {
+        Type type = components.get(column).getType();
+        return conjunction.stream()
+                .filter(p -> p.getColumn().equals(columns.get(column)))
+                .filter(p -> (p.getValueToCompare() instanceof Integer ? Type.INTEGER : Type.STRING) == type)
+                .collect(toList());
+    }
+
+    private static QueryPredicate<?> find(List<QueryPredicate<?>> candidates, CompareSign sign, CompareSign alternative) {
+        return candidates.stream()
+                .filter(p -> p.getSign() == sign || p.getSign() == alternative)
+                .findFirst().orElse(null);
+    }
+
+    @Override
+    public Bitmap scan(QueryPredicate<CompositeKey> predicate) {
+        return scan(Collections.<QueryPredicate<?>>singletonList(predicate));
+    }
+
+    @Override
+    public Bitmap scan(List<QueryPredicate<?>> matched) {
+        Bitmap result = new Bitmap();
+        scan(matched, (key, rowIds) -> rowIds.forEachInt(result::add));
+        return result;
+    }
+
+    private void scan(List<QueryPredicate<?>> matched, BiConsumer<CompositeKey, IntList> consumer) {
+        List<Object> prefix = new ArrayList<>();
+        QueryPredicate<?> lower = null;
+        QueryPredicate<?> upper = null;
+        for (QueryPredicate<?> predicate : matched) {
+            if (predicate.getSign() == EQ) prefix.add(predicate.getValueToCompare());
+            else if (predicate.getSign() == GT || predicate.getSign() == GTE) lower = predicate;
+            else upper = predicate;
+        }
+
+        CompositeKey from;
+        if (lower != null) from = bound(prefix, lower.getValueToCompare(), lower.getSign() == GT ? CompositeKey.HIGH : CompositeKey.LOW);
+        else if (upper != null) from = bound(prefix, null, CompositeKey.HIGH);
+        else from = new CompositeKey(prefix.toArray(), CompositeKey.LOW);
+        CompositeKey to = upper != null
+                ? bound(prefix, upper.getValueToCompare(), upper.getSign() == LT ? CompositeKey.LOW : CompositeKey.HIGH)
+                : new CompositeKey(prefix.toArray(), CompositeKey.HIGH);
+        tree.scan(from, to, consumer);
+    }
+
+    private static CompositeKey bound(List<Object> prefix, Object value, int tail) {
+        Object[] values = prefix.toArray(new Object[prefix.size() + 1]);
+        values[prefix.size()] = value;
+        return new CompositeKey(values, tail);
+    }
+
+    boolean covers(Collection<String> projection, List<QueryPredicate<?>> residual) {
+        if (!projection.stream().allMatch(this::isCovered)) return false;
+        return residual.stream().allMatch(p -> isCovered(p.getColumn())
+                && (p.getValueToCompare() instanceof Integer ? Type.INTEGER : Type.STRING) == components.get(position(p.getColumn())).getType());
+    }
+
+    private boolean isCovered(String column) {
+        return columns.contains(column) || included.contains(column);
+    }
+
+    private int position(String column) {
+        int position = columns.indexOf(column);
+        return position >= 0 ? position : columns.size() + included.indexOf(column);
+    }
+
+    @SuppressWarnings("unchecked")
+    List<List<String>> rows(List<QueryPredicate<?>> matched, List<QueryPredicate<?>> residual, List<String> projection, int watermark) {
+        int[] positions = projection.stream().mapToInt(this::position).toArray();
+        int[] residualPositions = residual.stream().mapToInt(p -> position(p.getColumn())).toArray();
+        List<List<String>> rows = new ArrayList<>();
+        scan(matched, (key, rowIds) -> {
+            for (int i = 0; i < residualPositions.length; i++) {
+                Object value = key.get(residualPositions[i]);
+                QueryPredicate<?> predicate = residual.get(i);
+                if (value == null || !predicate.getSign().test(((Comparable<Object>) value).compareTo(predicate.getValueToCompare())))
+                    return;
+            }
+            List<String> row = new ArrayList<>(positions.length);
+            for (int position : positions) row.add(key.get(position) != null ? key.get(position).toString() : null);
+            for (int i = 0; i < rowIds.size(); i++) {
+                if (rowIds.getInt(i) < watermark) rows.add(row);
+            }
+        });
+        return rows;
+    }
+
+    @Override
+    void insert(CompositeKey key, int rowId) {
+        tree.insert(key, rowId);
+    }
+
+    @Override
+    void insertAll(int fromRowId, int toRowId) {
+        tree.insertAll(fromRowId, toRowId);
+    }
+
+    @Override
+    long estimateRows(QueryPredicate<CompositeKey> predicate, int rowCount) {
+        return rowCount;
+    }
+
+    @Override
+    int keyCount() {
+        return tree.keyCount();
+    }
+
+    @Override
+    void forEachEntry(BiConsumer<CompositeKey, IntList> consumer) {
+        tree.forEachEntry(consumer);
+    }
+}
@@ -0,0 +1,64 @@
+package me.wbars.jdb.db;
+
+import java.util.Arrays;
+
+final class CompositeKey implements Comparable<CompositeKey> {
+    static final int LOW = -1;
+    static final int HIGH = 1;
+
+    private final Object[] values;
+    private final int tail;
+
+    CompositeKey(Object[] values) {
+        this(values, 0);
+    }
+
+    CompositeKey(Object[] values, int tail) {
+        this.values = values;
+        this.tail = tail;
+    }
+
+    Object get(int i) {
+        return values[i];
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compareTo(CompositeKey other) {
+        int length = Math.min(values.length, other.values.length);
+        for (int i = 0; i < length; i++) {
+            Object a = values[i];
+            Object b = other.values[i];
+            if (a == b) continue;
+            if (a == null) return -1;
+            if (b == null) return 1;
+            int compared = ((Comparable<Object>) a).compareTo(b);
+            if (compared != 0) return compared;
+        }
+        if (values.length == other.values.length) return Integer.compare(tail, other.tail);
+        if (values.length < other.values.length) return tail != 0 ? tail : -1;
+        return other.tail != 0 ? -other.tail : 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompositeKey that = (CompositeKey) o;
+        return tail == that.tail && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(values) + tail;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
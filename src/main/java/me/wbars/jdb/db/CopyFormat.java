@@ -0,0 +1,18 @@
+package me.wbars.jdb.db;
+
+import java.nio.file.Path;
+
+enum CopyFormat {
+    CSV((byte) ','), TSV((byte) '\t');
+
+    final byte delimiter;
+
+    CopyFormat(byte delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    static CopyFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".tsv") || name.endsWith(".tab") ? TSV : CSV;
+    }
+}
@@ -1,38 +1,90 @@
 package me.wbars.jdb.db;
 
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.JoinClause;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.Query;
 import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.SelectQuery;
+import me.wbars.jdb.scanner.Token;
 import me.wbars.jdb.scanner.Type;
 import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.utils.Pair;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import static java.lang.String.format;
-import static java.util.Collections.emptyList;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static me.wbars.jdb.db.QueryResult.fail;
 import static me.wbars.jdb.db.QueryResult.ok;
+import static me.wbars.jdb.db.QueryResult.streaming;
 import static me.wbars.jdb.table.Table.create;
 import static me.wbars.jdb.utils.CollectionsUtils.toMap;
 import static me.wbars.jdb.utils.CollectionsUtils.wrapInLists;
 
 public class DatabaseService {
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 256;
+    private static final List<ColumnData> DESCRIBE_COLUMNS = asList(
+            new ColumnData("column", Type.STRING), new ColumnData("type", Type.STRING), new ColumnData("rows", Type.INTEGER),
+            new ColumnData("nulls", Type.INTEGER), new ColumnData("distinct", Type.INTEGER), new ColumnData("min", Type.STRING),
+            new ColumnData("max", Type.STRING), new ColumnData("histogram", Type.STRING));
+    private static final List<ColumnData> EXPLAIN_COLUMNS = asList(
+            new ColumnData("node", Type.STRING), new ColumnData("access", Type.STRING), new ColumnData("estimated", Type.INTEGER));
+    private static final List<ColumnData> EXPLAIN_ANALYZE_COLUMNS = asList(
+            new ColumnData("node", Type.STRING), new ColumnData("access", Type.STRING), new ColumnData("estimated", Type.INTEGER),
+            new ColumnData("examined", Type.INTEGER), new ColumnData("emitted", Type.INTEGER), new ColumnData("time_ms", Type.STRING));
+
     private final QueryParser queryParser;
     private final Storage storage;
+    private final QueryCache queryCache;
 
     public DatabaseService() {
         this(new QueryParser(), new Storage());
     }
 
     public DatabaseService(QueryParser queryParser, Storage storage) {
+        this(queryParser, storage, DEFAULT_QUERY_CACHE_SIZE);
+    }
+
+    public DatabaseService(QueryParser queryParser, Storage storage, int queryCacheSize) {
         this.queryParser = queryParser;
         this.storage = storage;
+        this.queryCache = new QueryCache(queryCacheSize);
     }
 
     public QueryResult executeQuery(String queryString) {
-        return queryParser.parse(queryString).execute(this);
+        Pair<List<Token>, List<Object>> parameterized = QueryParser.parameterize(queryParser.scan(queryString));
+        return template(parameterized.first, queryString).bind(parameterized.second).execute(this);
+    }
+
+    public PreparedQuery prepare(String queryString) {
+        List<Token> tokens = queryParser.scan(queryString);
+        return new PreparedQuery(this, template(tokens, queryString), QueryParser.parametersCount(tokens));
+    }
+
+    private Query template(List<Token> tokens, String queryString) {
+        String key = QueryParser.normalize(tokens);
+        Query template = queryCache.get(key);
+        if (template == null) {
+            template = queryParser.parse(tokens, queryString);
+            queryCache.put(key, template);
+        }
+        return template;
+    }
+
+    int cachedQueriesCount() {
+        return queryCache.size();
     }
 
     public QueryResult executeShowTables() {
@@ -53,7 +105,13 @@ public class DatabaseService {
 
     public QueryResult executeDescribeTable(String tableName) {
         if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
-        return ok(create(tableName, storage.getTableColumns(tableName), emptyList()));
+        return ok(create(tableName, DESCRIBE_COLUMNS, storage.describeTable(tableName)));
+    }
+
+    public QueryResult analyzeTable(String tableName) {
+        if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
+        storage.analyzeTable(tableName);
+        return executeDescribeTable(tableName);
     }
 
     public QueryResult insert(String tableName, List<String> columns, List<String> rows) {
@@ -67,6 +125,57 @@ public class DatabaseService {
         return ok(null);
     }
 
+    public QueryResult insertBatch(String tableName, List<String> columns, Iterator<List<String>> rows) {
+        if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
+
+        Set<String> tableColumns = getColumnsNames(tableName);
+        if (!columns.stream().allMatch(tableColumns::contains)) return fail("Some of the columns does not exist");
+
+        try {
+            storage.insertRows(tableName, columns, rows);
+        } catch (IllegalArgumentException e) {
+            return fail(e.getMessage());
+        }
+        return ok(null);
+    }
+
+    public QueryResult copyFrom(String tableName, List<String> columns, Path file) {
+        if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
+
+        List<String> fields = columns.isEmpty() ? storage.getTableColumnsNames(tableName) : columns;
+        Set<String> tableColumns = getColumnsNames(tableName);
+        if (!fields.stream().allMatch(tableColumns::contains)) return fail("Some of the columns does not exist");
+
+        try {
+            return ok(copyResult(storage.importRows(tableName, fields, file)));
+        } catch (IOException e) {
+            return fail(format("Cannot read `%s`: %s", file, e));
+        } catch (IllegalArgumentException e) {
+            return fail(format("Cannot import `%s`: %s", file, e.getMessage()));
+        }
+    }
+
+    public QueryResult copyTo(SelectQuery query, Path file) {
+        String error = validate(query);
+        if (error != null) return fail(error);
+        if (query.getJoin() == null && !query.isAggregate()) {
+            String tableName = query.getTableName();
+            List<String> fields = query.getColumns().isEmpty() ? storage.getTableColumnsNames(tableName) : query.getColumns();
+            if (!getColumnsNames(tableName).containsAll(fields)) return fail("Some of the columns does not exist");
+            query = new SelectQuery(tableName, fields, query.getPredicate(), query.getOrderBy(), query.getLimit(), query.getOffset());
+        }
+
+        try {
+            return ok(copyResult(storage.exportRows(query, file)));
+        } catch (IOException e) {
+            return fail(format("Cannot write `%s`: %s", file, e));
+        }
+    }
+
+    private Table copyResult(long rowCount) {
+        return create("copy", singletonList(new ColumnData("rows", Type.INTEGER)), singletonList(singletonList(String.valueOf(rowCount))));
+    }
+
     private Set<String> getColumnsNames(String tableName) {
         return storage.getTableColumns(tableName).stream()
                 .map(p -> p.first)
@@ -74,20 +183,108 @@ public class DatabaseService {
     }
 
     public QueryResult select(String tableName, List<String> columns, QueryPredicate<? extends Comparable<?>> predicate) {
-        if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
-        return ok(create(tableName, getSelectedColumns(tableName, columns), storage.selectRows(tableName, columns, predicate)));
+        return select(new SelectQuery(tableName, columns, predicate));
     }
 
-    private List<ColumnData> getSelectedColumns(String tableName, List<String> columns) {
-        return storage.getTableColumns(tableName).stream()
-                .filter(r -> columns.contains(r.first))
-                .collect(toList());
+    public QueryResult select(SelectQuery query) {
+        String error = validate(query);
+        if (error != null) return fail(error);
+        return streaming(storage.openCursor(query));
+    }
+
+    private String validate(SelectQuery query) {
+        String tableName = query.getTableName();
+        if (query.getJoin() != null) return validateJoin(tableName, query.getJoin(), query.getColumns(), query.getPredicate(), query.getOrderBy());
+        if (!storage.tableExists(tableName)) return String.format("Table `%s` not exists", tableName);
+        Map<String, Type> types = new HashMap<>();
+        storage.getTableColumns(tableName).forEach(c -> types.put(c.first, c.second));
+        String error = validateValues(query.getPredicate(), types::get);
+        if (error != null) return error;
+        if (query.isAggregate()) return validateAggregate(types, query.getAggregates(), query.getGroupBy(), query.getOrderBy());
+        OrderBy orderBy = query.getOrderBy();
+        if (orderBy != null && !getColumnsNames(tableName).contains(orderBy.getColumn()))
+            return String.format("Column `%s` not exists", orderBy.getColumn());
+        return null;
+    }
+
+    private String validateJoin(String tableName, JoinClause join, List<String> columns,
+                                QueryPredicate<? extends Comparable<?>> predicate, OrderBy orderBy) {
+        if (!storage.tableExists(tableName)) return String.format("Table `%s` not exists", tableName);
+        if (!storage.tableExists(join.getTableName())) return String.format("Table `%s` not exists", join.getTableName());
+        if (tableName.equals(join.getTableName())) return "Self joins are not supported";
+
+        JoinColumns names = new JoinColumns(tableName, storage.getTableColumns(tableName),
+                join.getTableName(), storage.getTableColumns(join.getTableName()));
+        List<String> references = new ArrayList<>(columns);
+        references.add(join.getLeftColumn());
+        references.add(join.getRightColumn());
+        if (predicate != null) predicate.forEachColumn(references::add);
+        if (orderBy != null) references.add(orderBy.getColumn());
+        for (String reference : references) {
+            String error = names.error(reference);
+            if (error != null) return error;
+        }
+        if (names.isLeft(join.getLeftColumn()) == names.isLeft(join.getRightColumn()))
+            return "Join condition must compare columns of both tables";
+        if (names.type(join.getLeftColumn()) != names.type(join.getRightColumn()))
+            return String.format("Columns `%s` and `%s` have different types", join.getLeftColumn(), join.getRightColumn());
+        return validateValues(predicate, names::type);
+    }
+
+    private static String validateValues(QueryPredicate<? extends Comparable<?>> predicate, Function<String, Type> types) {
+        if (predicate == null) return null;
+        List<QueryPredicate<?>> leaves = new ArrayList<>();
+        predicate.forEachLeaf(leaves::add);
+        for (QueryPredicate<?> leaf : leaves) {
+            Type type = types.apply(leaf.getColumn());
+            Object value = leaf.getValueToCompare();
+            if (type != null && (type == Type.INTEGER) != (value instanceof Integer))
+                return String.format("Column `%s` of type %s cannot be compared with %s", leaf.getColumn(), type,
+                        value instanceof String ? "`" + value + "`" : value);
+        }
+        return null;
+    }
+
+    private static String validateAggregate(Map<String, Type> types, List<Aggregate> items, List<String> groupBy, OrderBy orderBy) {
+        for (String column : groupBy) {
+            if (!types.containsKey(column)) return String.format("Column `%s` not exists", column);
+        }
+        for (Aggregate item : items) {
+            if (item.getColumn() != null && !types.containsKey(item.getColumn()))
+                return String.format("Column `%s` not exists", item.getColumn());
+            if (item.getFunction() == Aggregate.Function.VALUE && !groupBy.contains(item.getColumn()))
+                return String.format("Column `%s` must appear in group by", item.getColumn());
+            if ((item.getFunction() == Aggregate.Function.SUM || item.getFunction() == Aggregate.Function.AVG)
+                    && types.get(item.getColumn()) != Type.INTEGER)
+                return String.format("%s requires an integer column", item);
+        }
+        if (orderBy != null && !groupBy.contains(orderBy.getColumn()))
+            return String.format("Column `%s` must appear in group by to order aggregates", orderBy.getColumn());
+        return null;
+    }
+
+    public QueryResult explain(SelectQuery query, boolean analyze) {
+        String error = validate(query);
+        if (error != null) return fail(error);
+        List<List<String>> plan = storage.explain(query, analyze);
+        return ok(create("explain", analyze ? EXPLAIN_ANALYZE_COLUMNS : EXPLAIN_COLUMNS, plan));
+    }
+
+    public QueryResult createIndex(String tableName, String column, IndexType type) {
+        if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
+        if (storage.indexExists(tableName, column, type)) return fail("Index exists");
+        storage.createIndex(tableName, column, type);
+        return ok(null);
     }
 
-    public QueryResult createIndex(String tableName, String column) {
+    public QueryResult createIndex(String tableName, List<String> columns, List<String> included, IndexType type) {
+        if (columns.size() == 1 && included.isEmpty()) return createIndex(tableName, columns.get(0), type);
         if (!storage.tableExists(tableName)) return fail(String.format("Table `%s` not exists", tableName));
-        if (storage.indexExists(tableName, column)) return fail("Index exists");
-        storage.createIndex(tableName, column);
+        Set<String> tableColumns = getColumnsNames(tableName);
+        if (!tableColumns.containsAll(columns) || !tableColumns.containsAll(included)) return fail("Some of the columns does not exist");
+        if (type == IndexType.HASH) return fail("Hash index can only be built on a single column");
+        if (storage.indexExists(tableName, columns, included, type)) return fail("Index exists");
+        storage.createIndex(tableName, columns, included, type);
         return ok(null);
     }
 }
@@ -0,0 +1,215 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.ParsedRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+final class DelimitedReader implements Iterator<List<String>>, Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final CopyFormat format;
+    private final boolean[] integers;
+    private final int[] targets;
+    private final int width;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] chunk = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] field = new byte[64];
+    private int fieldLength;
+    private boolean nullField;
+    private long lines;
+    private long recordLine;
+    private ParsedRow next;
+
+    private DelimitedReader(FileChannel channel, CopyFormat format, boolean[] integers, int[] targets, int width) {
+        this.channel = channel;
+        this.format = format;
+        this.integers = integers;
+        this.targets = targets;
+        this.width = width;
+    }
+
+    static DelimitedReader open(Path file, List<Type> types, int[] targets, int width) throws IOException {
+        boolean[] integers = new boolean[types.size()];
+        for (int i = 0; i < integers.length; i++) integers[i] = types.get(i) == Type.INTEGER;
+        return new DelimitedReader(FileChannel.open(file, READ), CopyFormat.of(file), integers, targets, width);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        List<String> row = next;
+        next = null;
+        return row;
+    }
+
+    private ParsedRow readRow() throws IOException {
+        recordLine = lines + 1;
+        int b = read();
+        if (b < 0) return null;
+
+        ParsedRow row = new ParsedRow(width);
+        int fields = 0;
+        while (true) {
+            b = format == CopyFormat.CSV ? readCsvField(b) : readTsvField(b);
+            if (fields < integers.length) setField(row, fields);
+            fields++;
+            if (b != format.delimiter) break;
+            b = read();
+        }
+        if (b == '\r' && (b = read()) >= 0 && b != '\n') throw error("Unexpected carriage return");
+        if (fields != integers.length)
+            throw error(String.format("Expected %d fields but found %d", integers.length, fields));
+        return row;
+    }
+
+    private int readCsvField(int b) throws IOException {
+        fieldLength = 0;
+        if (b != '"') {
+            while (b >= 0 && b != format.delimiter && b != '\n' && b != '\r') {
+                append(b);
+                appendRun((byte) 0);
+                b = read();
+            }
+            nullField = fieldLength == 0;
+            return b;
+        }
+
+        nullField = false;
+        while (true) {
+            b = read();
+            if (b < 0) throw error("Unterminated quoted field");
+            if (b == '"' && (b = read()) != '"') break;
+            append(b);
+        }
+        if (b >= 0 && b != format.delimiter && b != '\n' && b != '\r') throw error("Unexpected character after quoted field");
+        return b;
+    }
+
+    private int readTsvField(int b) throws IOException {
+        fieldLength = 0;
+        nullField = false;
+        while (b >= 0 && b != format.delimiter && b != '\n' && b != '\r') {
+            if (b != '\\') {
+                append(b);
+                appendRun((byte) '\\');
+            } else if ((b = read()) == 'N') nullField = true;
+            else append(unescape(b));
+            b = read();
+        }
+        if (nullField && fieldLength > 0) throw error("\\N must be the whole field");
+        return b;
+    }
+
+    private int unescape(int b) {
+        switch (b) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case -1:
+                throw error("Unterminated escape sequence");
+            default:
+                return b;
+        }
+    }
+
+    private void setField(ParsedRow row, int index) {
+        if (nullField) return;
+        if (integers[index]) row.setInt(targets[index], parseInteger());
+        else row.setString(targets[index], new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+    }
+
+    private int parseInteger() {
+        boolean negative = fieldLength > 1 && field[0] == '-';
+        int start = negative ? 1 : 0;
+        boolean valid = fieldLength > start && fieldLength - start <= 10;
+        long value = 0;
+        for (int i = start; valid && i < fieldLength; i++) {
+            int digit = field[i] - '0';
+            valid = digit >= 0 && digit <= 9;
+            value = value * 10 + digit;
+        }
+        if (!valid || (negative ? -value < Integer.MIN_VALUE : value > Integer.MAX_VALUE))
+            throw error(String.format("`%s` is not an integer", new String(field, 0, fieldLength, StandardCharsets.UTF_8)));
+        return (int) (negative ? -value : value);
+    }
+
+    private void append(int b) {
+        if (fieldLength == field.length) field = Arrays.copyOf(field, fieldLength << 1);
+        field[fieldLength++] = (byte) b;
+    }
+
+    private void appendRun(byte stop) {
+        int start = position;
+        while (position < limit) {
+            byte b = chunk[position];
+            if (b == format.delimiter || b == '\n' || b == '\r' || b == stop) break;
+            position++;
+        }
+        int count = position - start;
+        if (fieldLength + count > field.length) field = Arrays.copyOf(field, Math.max(field.length << 1, fieldLength + count));
+        System.arraycopy(chunk, start, field, fieldLength, count);
+        fieldLength += count;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        int b = chunk[position++] & 0xFF;
+        if (b == '\n') lines++;
+        return b;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) return false;
+
+        buffer.flip();
+        buffer.get(chunk, 0, read);
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("Line %d: %s", recordLine, message));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,145 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.TableRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+final class DelimitedWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final CopyFormat format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] chunk = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[11];
+    private int length;
+
+    private DelimitedWriter(FileChannel channel, CopyFormat format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    static DelimitedWriter open(Path file) throws IOException {
+        return new DelimitedWriter(FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING), CopyFormat.of(file));
+    }
+
+    private void writeRow(List<Column> columns, int row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) put(format.delimiter);
+            Column column = columns.get(i);
+            if (column.isNull(row)) writeNull();
+            else if (column instanceof IntegerColumn) writeInt(((IntegerColumn) column).getInt(row));
+            else writeString(column.get(row));
+        }
+        put((byte) '\n');
+    }
+
+    void writeRow(List<String> values) throws IOException {
+        if (values instanceof TableRow) {
+            TableRow row = (TableRow) values;
+            writeRow(row.getColumns(), row.getRowId());
+            return;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) put(format.delimiter);
+            String value = values.get(i);
+            if (value == null) writeNull();
+            else writeString(value);
+        }
+        put((byte) '\n');
+    }
+
+    private void writeNull() throws IOException {
+        if (format == CopyFormat.CSV) return;
+        put((byte) '\\');
+        put((byte) 'N');
+    }
+
+    private void writeInt(int value) throws IOException {
+        long remaining = value;
+        if (remaining < 0) {
+            put((byte) '-');
+            remaining = -remaining;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        put(digits, start, digits.length - start);
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (format == CopyFormat.TSV) {
+            for (byte b : bytes) writeTsvByte(b);
+        } else if (needsQuotes(bytes)) {
+            put((byte) '"');
+            for (byte b : bytes) {
+                if (b == '"') put(b);
+                put(b);
+            }
+            put((byte) '"');
+        } else put(bytes, 0, bytes.length);
+    }
+
+    private void writeTsvByte(byte b) throws IOException {
+        if (b == '\t' || b == '\n' || b == '\r' || b == '\\') {
+            put((byte) '\\');
+            b = b == '\t' ? (byte) 't' : b == '\n' ? (byte) 'n' : b == '\r' ? (byte) 'r' : b;
+        }
+        put(b);
+    }
+
+    private boolean needsQuotes(byte[] bytes) {
+        if (bytes.length == 0) return true;
+        for (byte b : bytes) {
+            if (b == format.delimiter || b == '"' || b == '\n' || b == '\r') return true;
+        }
+        return false;
+    }
+
+    private void put(byte b) throws IOException {
+        if (length == chunk.length) flush();
+        chunk[length++] = b;
+    }
+
+    private void put(byte[] bytes, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == chunk.length) flush();
+            int n = Math.min(count, chunk.length - length);
+            System.arraycopy(bytes, offset, chunk, length, n);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.clear();
+        buffer.put(chunk, 0, length).flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        length = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.VectorFilter;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.RecursiveTask;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+import static me.wbars.jdb.db.ParallelSeqScan.MORSEL_SIZE;
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+
+final class HashAggregate extends Plan {
+    final RowIdPlan input;
+    final HashAggregation aggregation;
+    final OrderBy orderBy;
+
+    HashAggregate(RowIdPlan input, HashAggregation aggregation, OrderBy orderBy, long estimate) {
+        super(estimate);
+        this.input = input;
+        this.aggregation = aggregation;
+        this.orderBy = orderBy;
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        return results(reader, watermark).iterator();
+    }
+
+    List<List<String>> results(IndexReader reader, int watermark) {
+        long start = System.nanoTime();
+        HashAggregation.State state;
+        if (input instanceof ParallelSeqScan) {
+            ParallelSeqScan parallel = (ParallelSeqScan) input;
+            int morsels = (watermark + MORSEL_SIZE - 1) / MORSEL_SIZE;
+            state = morsels > 0
+                    ? parallel.pool.invoke(new AggregateTask(parallel.scan.filter, aggregation, estimate, 0, morsels, watermark))
+                    : aggregation.newState(estimate);
+            input.examined = watermark;
+        } else if (input instanceof SeqScan) {
+            state = aggregate(((SeqScan) input).filter, aggregation.newState(estimate), 0, watermark);
+            input.examined = watermark;
+        } else {
+            state = aggregation.newState(estimate);
+            int[] rows = new int[BATCH_SIZE];
+            int size = 0;
+            for (PrimitiveIterator.OfInt rowIds = input.rowIds(reader, watermark); rowIds.hasNext(); ) {
+                rows[size++] = rowIds.nextInt();
+                if (size == BATCH_SIZE) {
+                    state.add(rows, size);
+                    size = 0;
+                }
+            }
+            state.add(rows, size);
+        }
+        input.emitted = state.rows();
+        List<List<String>> result = state.results(orderBy);
+        examined = state.rows();
+        emitted = result.size();
+        nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    @Override
+    String describe() {
+        String aggregates = aggregation.items.stream()
+                .filter(a -> a.getFunction() != Aggregate.Function.VALUE)
+                .map(Aggregate::toString)
+                .collect(joining(", "));
+        String described = aggregation.groupBy.isEmpty() ? aggregates : "group by " + IndexScan.quote(aggregation.groupBy) + ": " + aggregates;
+        return orderBy != null ? described + "; order by " + orderBy : described;
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return singletonList(input);
+    }
+
+    private static HashAggregation.State aggregate(VectorFilter filter, HashAggregation.State state, int from, int to) {
+        int[] rows = new int[BATCH_SIZE];
+        VectorFilter.Batch batch = filter != null ? filter.newBatch() : null;
+        for (int start = from; start < to; start += BATCH_SIZE) {
+            int length = Math.min(BATCH_SIZE, to - start);
+            if (filter == null) {
+                for (int i = 0; i < length; i++) rows[i] = start + i;
+                state.add(rows, length);
+                continue;
+            }
+            filter.filter(batch, start, length);
+            for (int i = 0; i < batch.size(); i++) rows[i] = batch.rowId(i);
+            state.add(rows, batch.size());
+        }
+        return state;
+    }
+
+    private static final class AggregateTask extends RecursiveTask<HashAggregation.State> {
+        private static final long serialVersionUID = 1L;
+
+        private final VectorFilter filter;
+        private final HashAggregation aggregation;
+        private final long expectedGroups;
+        private final int from;
+        private final int to;
+        private final int watermark;
+
+        AggregateTask(VectorFilter filter, HashAggregation aggregation, long expectedGroups, int from, int to, int watermark) {
+            this.filter = filter;
+            this.aggregation = aggregation;
+            this.expectedGroups = expectedGroups;
+            this.from = from;
+            this.to = to;
+            this.watermark = watermark;
+        }
+
+        @Override
+        protected HashAggregation.State compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                AggregateTask left = new AggregateTask(filter, aggregation, expectedGroups, from, middle, watermark);
+                AggregateTask right = new AggregateTask(filter, aggregation, expectedGroups, middle, to, watermark);
+                invokeAll(left, right);
+                return left.join().merge(right.join());
+            }
+            return aggregate(filter, aggregation.newState(expectedGroups), from * MORSEL_SIZE, Math.min(watermark, (from + 1) * MORSEL_SIZE));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.utils.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+import static me.wbars.jdb.utils.LongIntHashMap.ABSENT;
+
+final class HashAggregation {
+    private static final long NULL_KEY = 1L << 32;
+    private static final int MAX_INITIAL_GROUPS = 1 << 16;
+
+    final List<Aggregate> items;
+    final List<String> groupBy;
+    private final Column[] keys;
+    private final Column[] arguments;
+    private final int[] positions;
+
+    HashAggregation(Table table, List<Aggregate> items, List<String> groupBy) {
+        this.items = items;
+        this.groupBy = groupBy;
+        this.keys = groupBy.stream().map(table::getColumn).toArray(Column[]::new);
+        this.arguments = items.stream().map(a -> a.getColumn() != null ? table.getColumn(a.getColumn()) : null).toArray(Column[]::new);
+        this.positions = items.stream().mapToInt(a -> a.getFunction() == Aggregate.Function.VALUE ? groupBy.indexOf(a.getColumn()) : -1).toArray();
+    }
+
+    State newState(long expectedGroups) {
+        return new State((int) Math.min(Math.max(expectedGroups, 1), MAX_INITIAL_GROUPS));
+    }
+
+    private static long key(Column column, int row) {
+        if (column.isNull(row)) return NULL_KEY;
+        int code = column instanceof IntegerColumn ? ((IntegerColumn) column).getInt(row) : ((StringColumn) column).getCode(row);
+        return code & 0xFFFFFFFFL;
+    }
+
+    private static int compare(Column column, long a, long b) {
+        if (a == NULL_KEY || b == NULL_KEY) return Boolean.compare(a != NULL_KEY, b != NULL_KEY);
+        if (column instanceof IntegerColumn) return Integer.compare((int) a, (int) b);
+        StringColumn strings = (StringColumn) column;
+        return strings.decode((int) a).compareTo(strings.decode((int) b));
+    }
+
+    private static String format(Column column, long key) {
+        if (key == NULL_KEY) return null;
+        return column instanceof IntegerColumn ? String.valueOf((int) key) : ((StringColumn) column).decode((int) key);
+    }
+
+    final class State {
+        private final LongIntHashMap[] levels = new LongIntHashMap[keys.length];
+        private final int[] levelSizes = new int[keys.length];
+        private final Accumulator[] accumulators = new Accumulator[items.size()];
+        private final long[] components = new long[keys.length];
+        private final int[] groupIds = new int[BATCH_SIZE];
+        private long[][] groupKeys;
+        private int capacity;
+        private int groups;
+        private long rows;
+
+        private State(int expectedGroups) {
+            capacity = expectedGroups;
+            groupKeys = new long[keys.length][capacity];
+            for (int i = 0; i < levels.length; i++) levels[i] = new LongIntHashMap(i == levels.length - 1 ? expectedGroups : 16);
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = accumulator(items.get(i), arguments[i]);
+                if (accumulators[i] != null) accumulators[i].grow(capacity);
+            }
+            if (keys.length == 0) groups = 1;
+        }
+
+        void add(int[] rowIds, int size) {
+            for (int i = 0; i < size; i++) {
+                int row = rowIds[i];
+                for (int c = 0; c < keys.length; c++) components[c] = key(keys[c], row);
+                groupIds[i] = group(components);
+            }
+            for (Accumulator accumulator : accumulators) {
+                if (accumulator != null) accumulator.add(groupIds, rowIds, size);
+            }
+            rows += size;
+        }
+
+        private int group(long[] components) {
+            if (keys.length == 0) return 0;
+            int id = -1;
+            for (int c = 0; c < keys.length; c++) {
+                long key = (long) (id + 1) << 33 | components[c];
+                int found = levels[c].get(key);
+                if (found == ABSENT) {
+                    found = c < keys.length - 1 ? levelSizes[c]++ : newGroup(components);
+                    levels[c].putIfAbsent(key, found);
+                }
+                id = found;
+            }
+            return id;
+        }
+
+        private int newGroup(long[] components) {
+            if (groups == capacity) {
+                capacity <<= 1;
+                for (int c = 0; c < keys.length; c++) groupKeys[c] = Arrays.copyOf(groupKeys[c], capacity);
+                for (Accumulator accumulator : accumulators) {
+                    if (accumulator != null) accumulator.grow(capacity);
+                }
+            }
+            for (int c = 0; c < keys.length; c++) groupKeys[c][groups] = components[c];
+            return groups++;
+        }
+
+        State merge(State other) {
+            long[] otherComponents = new long[keys.length];
+            for (int group = 0; group < other.groups; group++) {
+                for (int c = 0; c < keys.length; c++) otherComponents[c] = other.groupKeys[c][group];
+                int target = group(otherComponents);
+                for (int i = 0; i < accumulators.length; i++) {
+                    if (accumulators[i] != null) accumulators[i].merge(target, other.accumulators[i], group);
+                }
+            }
+            rows += other.rows;
+            return this;
+        }
+
+        long rows() {
+            return rows;
+        }
+
+        List<List<String>> results(OrderBy orderBy) {
+            Integer[] order = new Integer[groups];
+            for (int i = 0; i < groups; i++) order[i] = i;
+            if (orderBy != null) {
+                int position = groupBy.indexOf(orderBy.getColumn());
+                long[] values = groupKeys[position];
+                Arrays.sort(order, (a, b) -> {
+                    int compared = compare(keys[position], values[a], values[b]);
+                    return orderBy.isDescending() ? -compared : compared;
+                });
+            }
+
+            List<List<String>> result = new ArrayList<>(groups);
+            for (int group : order) {
+                List<String> row = new ArrayList<>(items.size());
+                for (int i = 0; i < accumulators.length; i++) {
+                    row.add(accumulators[i] != null
+                            ? accumulators[i].result(group)
+                            : format(keys[positions[i]], groupKeys[positions[i]][group]));
+                }
+                result.add(row);
+            }
+            return result;
+        }
+    }
+
+    private static Accumulator accumulator(Aggregate aggregate, Column column) {
+        switch (aggregate.getFunction()) {
+            case COUNT:
+                return new Count(column);
+            case SUM:
+                return new Sum((IntegerColumn) column, false);
+            case AVG:
+                return new Sum((IntegerColumn) column, true);
+            case MIN:
+            case MAX:
+                boolean max = aggregate.getFunction() == Aggregate.Function.MAX;
+                return column instanceof IntegerColumn ? new IntExtreme((IntegerColumn) column, max) : new StringExtreme((StringColumn) column, max);
+            default:
+                return null;
+        }
+    }
+
+    private abstract static class Accumulator {
+        abstract void grow(int capacity);
+
+        abstract void add(int[] groups, int[] rows, int size);
+
+        abstract void merge(int group, Accumulator other, int otherGroup);
+
+        abstract String result(int group);
+    }
+
+    private static final class Count extends Accumulator {
+        private final Column column;
+        private long[] counts = new long[0];
+
+        Count(Column column) {
+            this.column = column;
+        }
+
+        @Override
+        void grow(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void add(int[] groups, int[] rows, int size) {
+            for (int i = 0; i < size; i++) {
+                if (column == null || !column.isNull(rows[i])) counts[groups[i]]++;
+            }
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            counts[group] += ((Count) other).counts[otherGroup];
+        }
+
+        @Override
+        String result(int group) {
+            return String.valueOf(counts[group]);
+        }
+    }
+
+    private static final class Sum extends Accumulator {
+        private final IntegerColumn column;
+        private final boolean average;
+        private long[] sums = new long[0];
+        private long[] counts = new long[0];
+
+        Sum(IntegerColumn column, boolean average) {
+            this.column = column;
+            this.average = average;
+        }
+
+        @Override
+        void grow(int capacity) {
+            sums = Arrays.copyOf(sums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void add(int[] groups, int[] rows, int size) {
+            for (int i = 0; i < size; i++) {
+                int row = rows[i];
+                if (column.isNull(row)) continue;
+                sums[groups[i]] += column.getInt(row);
+                counts[groups[i]]++;
+            }
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            sums[group] += ((Sum) other).sums[otherGroup];
+            counts[group] += ((Sum) other).counts[otherGroup];
+        }
+
+        @Override
+        String result(int group) {
+            if (counts[group] == 0) return null;
+            return average ? String.valueOf((double) sums[group] / counts[group]) : String.valueOf(sums[group]);
+        }
+    }
+
+    private static final class IntExtreme extends Accumulator {
+        private final IntegerColumn column;
+        private final boolean max;
+        private int[] values = new int[0];
+        private boolean[] seen = new boolean[0];
+
+        IntExtreme(IntegerColumn column, boolean max) {
+            this.column = column;
+            this.max = max;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+        }
+
+        @Override
+        void add(int[] groups, int[] rows, int size) {
+            for (int i = 0; i < size; i++) {
+                int row = rows[i];
+                if (!column.isNull(row)) update(groups[i], column.getInt(row));
+            }
+        }
+
+        private void update(int group, int value) {
+            if (!seen[group] || (max ? value > values[group] : value < values[group])) values[group] = value;
+            seen[group] = true;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            IntExtreme extreme = (IntExtreme) other;
+            if (extreme.seen[otherGroup]) update(group, extreme.values[otherGroup]);
+        }
+
+        @Override
+        String result(int group) {
+            return seen[group] ? String.valueOf(values[group]) : null;
+        }
+    }
+
+    private static final class StringExtreme extends Accumulator {
+        private final StringColumn column;
+        private final boolean max;
+        private int[] codes = new int[0];
+        private boolean[] seen = new boolean[0];
+
+        StringExtreme(StringColumn column, boolean max) {
+            this.column = column;
+            this.max = max;
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+        }
+
+        @Override
+        void add(int[] groups, int[] rows, int size) {
+            for (int i = 0; i < size; i++) {
+                int row = rows[i];
+                if (!column.isNull(row)) update(groups[i], column.getCode(row));
+            }
+        }
+
+        private void update(int group, int code) {
+            if (seen[group] && codes[group] == code) return;
+            if (!seen[group]) codes[group] = code;
+            else {
+                int compared = column.decode(code).compareTo(column.decode(codes[group]));
+                if (max ? compared > 0 : compared < 0) codes[group] = code;
+            }
+            seen[group] = true;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            StringExtreme extreme = (StringExtreme) other;
+            if (extreme.seen[otherGroup]) update(group, extreme.codes[otherGroup]);
+        }
+
+        @Override
+        String result(int group) {
+            return seen[group] ? column.decode(codes[group]) : null;
+        }
+    }
+}
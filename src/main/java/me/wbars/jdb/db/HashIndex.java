@@ -0,0 +1,91 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.utils.Bitmap;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+public class HashIndex<T extends Comparable<T>> extends Index<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private Bitmap[] rowIds = new Bitmap[INITIAL_CAPACITY];
+    private int size;
+
+    HashIndex(String columnName, Column column, IntFunction<T> keys) {
+        super(columnName, column, keys);
+    }
+
+    @Override
+    public IndexType getType() {
+        return IndexType.HASH;
+    }
+
+    @Override
+    public boolean supports(CompareSign sign) {
+        return sign == CompareSign.EQ;
+    }
+
+    @Override
+    public Bitmap scan(QueryPredicate<T> predicate) {
+        if (!supports(predicate.getSign())) throw new IllegalArgumentException(predicate.getSign().name());
+        Bitmap found = rowIds[slot(keys, predicate.getValueToCompare())];
+        return found != null ? found : new Bitmap();
+    }
+
+    @Override
+    void insert(T key, int rowId) {
+        int slot = slot(keys, key);
+        if (keys[slot] == null) {
+            keys[slot] = key;
+            rowIds[slot] = new Bitmap();
+            if (++size * 4 > keys.length * 3) resize();
+            slot = slot(keys, key);
+        }
+        rowIds[slot].add(rowId);
+    }
+
+    @Override
+    long estimateRows(QueryPredicate<T> predicate, int rowCount) {
+        Bitmap found = rowIds[slot(keys, predicate.getValueToCompare())];
+        return found != null ? found.cardinality() : 0;
+    }
+
+    @Override
+    int keyCount() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEachEntry(BiConsumer<T, IntList> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) consumer.accept((T) keys[i], rowIds[i].toIntList());
+        }
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        Bitmap[] oldRowIds = rowIds;
+        keys = new Object[oldKeys.length << 1];
+        rowIds = new Bitmap[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = slot(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            rowIds[slot] = oldRowIds[i];
+        }
+    }
+
+    private static int slot(Object[] keys, Object key) {
+        int mask = keys.length - 1;
+        int h = key.hashCode() * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) slot = (slot + 1) & mask;
+        return slot;
+    }
+}
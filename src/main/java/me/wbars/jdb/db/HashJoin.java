@@ -0,0 +1,106 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+import me.wbars.jdb.utils.IntList;
+import me.wbars.jdb.utils.LongIntHashMap;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntToLongFunction;
+
+import static java.util.Arrays.asList;
+import static me.wbars.jdb.utils.LongIntHashMap.ABSENT;
+
+final class HashJoin extends JoinPlan {
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    final boolean buildLeft;
+
+    HashJoin(JoinInput left, JoinInput right, boolean outer, QueryPredicate<?> residual, PairPredicate filter,
+             OrderBy orderBy, Column orderColumn, boolean orderLeft, boolean buildLeft, long estimate) {
+        super(left, right, outer, residual, filter, orderBy, orderColumn, orderLeft, estimate);
+        this.buildLeft = buildLeft;
+    }
+
+    @Override
+    JoinCursor scan() {
+        JoinInput build = buildLeft ? left : right;
+        JoinInput probe = buildLeft ? right : left;
+        IntList buildRows = new IntList();
+        build.rowIds().forEachRemaining((int row) -> buildRows.addInt(row));
+
+        IntToLongFunction buildKeys = keys(build.column(), probe.column());
+        LongIntHashMap heads = new LongIntHashMap(buildRows.size());
+        int[] chain = new int[buildRows.size()];
+        for (int i = buildRows.size() - 1; i >= 0; i--) {
+            long key = buildKeys.applyAsLong(buildRows.getInt(i));
+            if (key != NO_KEY) chain[i] = heads.put(key, i);
+        }
+
+        IntToLongFunction probeKeys = keys(probe.column(), null);
+        PrimitiveIterator.OfInt probeRows = probe.rowIds();
+        return new JoinCursor() {
+            private int probeRow;
+            private int entry = ABSENT;
+
+            @Override
+            boolean next() {
+                while (entry == ABSENT) {
+                    if (!probeRows.hasNext()) return false;
+                    probeRow = probeRows.nextInt();
+                    examined++;
+                    long key = probeKeys.applyAsLong(probeRow);
+                    entry = key != NO_KEY ? heads.get(key) : ABSENT;
+                    if (entry == ABSENT && outer) {
+                        left = probeRow;
+                        right = -1;
+                        return true;
+                    }
+                }
+                int buildRow = buildRows.getInt(entry);
+                entry = chain[entry];
+                left = buildLeft ? buildRow : probeRow;
+                right = buildLeft ? probeRow : buildRow;
+                return true;
+            }
+        };
+    }
+
+    private static IntToLongFunction keys(Column column, Column target) {
+        if (column instanceof IntegerColumn) {
+            IntegerColumn ints = (IntegerColumn) column;
+            return row -> ints.isNull(row) ? NO_KEY : ints.getInt(row);
+        }
+        StringColumn strings = (StringColumn) column;
+        if (target == null) return row -> strings.isNull(row) ? NO_KEY : strings.getCode(row);
+
+        StringColumn probe = (StringColumn) target;
+        int[] codes = new int[strings.dictionarySize()];
+        return row -> {
+            if (strings.isNull(row)) return NO_KEY;
+            int code = strings.getCode(row);
+            if (code >= codes.length) return translate(strings, probe, code);
+            if (codes[code] == 0) codes[code] = probe.findCode(strings.decode(code)) + 2;
+            return codes[code] > 1 ? codes[code] - 2 : NO_KEY;
+        };
+    }
+
+    private static long translate(StringColumn strings, StringColumn probe, int code) {
+        int translated = probe.findCode(strings.decode(code));
+        return translated >= 0 ? translated : NO_KEY;
+    }
+
+    @Override
+    String strategy() {
+        return "build `" + (buildLeft ? left : right).tableName + "`";
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return asList(left.plan, right.plan);
+    }
+}
@@ -2,138 +2,134 @@ package me.wbars.jdb.db;
 
 import me.wbars.jdb.query.CompareSign;
 import me.wbars.jdb.query.QueryPredicate;
-import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
 import me.wbars.jdb.table.Table;
-import me.wbars.jdb.utils.CollectionsUtils;
+import me.wbars.jdb.utils.Bitmap;
+import me.wbars.jdb.utils.IntList;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Stream;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.Stream.concat;
-import static me.wbars.jdb.query.CompareSign.*;
-import static me.wbars.jdb.utils.CollectionsUtils.distinctBy;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 
 public abstract class Index<T extends Comparable<T>> {
-    private final BTree<T> bTree;
-
-    public Index(BTree<T> bTree) {
-        this.bTree = bTree;
+    private final String columnName;
+    private final Column column;
+    private final IntFunction<T> keys;
+
+    Index(String columnName, Column column, IntFunction<T> keys) {
+        this.columnName = columnName;
+        this.column = column;
+        this.keys = keys;
     }
 
-    public List<Integer> scan(QueryPredicate<T> predicate) {
-        return getIndexes(bTree, predicate).collect(toList());
-    }
+    public abstract IndexType getType();
 
-    private Stream<Integer> getIndexes(BTree<T> root, final QueryPredicate<T> predicate) {
-        if (root == null) return indexes(null);
+    public abstract boolean supports(CompareSign sign);
 
-        int compare = root.getValue().compareTo(predicate.getValueToCompare());
-        CompareSign sign = predicate.getSign();
-        BTree<T> right = root.getRight();
-        BTree<T> left = root.getLeft();
-        if (compare == 0) {
-            if (sign == NE) return concat(indexes(left), indexes(right));
-            if (sign == EQ) return indexes(root);
-            if (sign == GTE) return concat(indexes(root), allIndexes(right));
-            if (sign == LTE) return concat(indexes(root), allIndexes(left));
-            if (sign == GT) return allIndexes(right);
-            if (sign == LT) return allIndexes(left);
-        }
+    public abstract Bitmap scan(QueryPredicate<T> predicate);
 
-        if (compare > 0) {
-            if (sign == EQ || sign == LTE || sign == LT) return getIndexes(left, predicate);
-            if (sign == GTE || sign == GT)
-                return concat(allIndexes(root.getRight()), concat(indexes(root), getIndexes(left, predicate)));
-            if (sign == NE) return concat(concat(getIndexes(left, predicate), allIndexes(right)), indexes(root));
-        }
+    abstract void insert(T key, int rowId);
+
+    abstract long estimateRows(QueryPredicate<T> predicate, int rowCount);
+
+    abstract int keyCount();
 
-        // < 0
-        if (sign == EQ || sign == GTE || sign == GT) return getIndexes(right, predicate);
-        if (sign == LTE || sign == LT)
-            return concat(allIndexes(root.getLeft()), concat(indexes(root), getIndexes(right, predicate)));
-        if (sign == NE) return concat(concat(allIndexes(left), getIndexes(right, predicate)), indexes(root));
+    abstract void forEachEntry(BiConsumer<T, IntList> consumer);
 
-        throw new IllegalArgumentException();
+    public boolean supports(QueryPredicate<?> predicate) {
+        Type valueType = predicate.getValueToCompare() instanceof Integer ? Type.INTEGER : Type.STRING;
+        return predicate.getColumn().equals(columnName) && column.getType() == valueType && supports(predicate.getSign());
     }
 
-    private Stream<Integer> allIndexes(BTree<T> btree) {
-        return btree != null ? concat(indexes(btree), concat(allIndexes(btree.getRight()), allIndexes(btree.getLeft()))) : Stream.empty();
+    public String getColumnName() {
+        return columnName;
     }
 
-    private Stream<Integer> indexes(BTree<T> btree) {
-        return btree != null ? btree.getRowsIndexes().stream() : Stream.empty();
+    public List<String> getColumns() {
+        return singletonList(columnName);
     }
 
-    private static <T extends Comparable<T>> List<List<String>> sortByColumn(List<List<String>> rows, int index, Function<String, T> mapper) {
-        return rows.stream()
-                .sorted(Comparator.comparing(s -> mapper.apply(s.get(index))))
-                .collect(toList());
+    public List<String> getIncludedColumns() {
+        return emptyList();
     }
 
-    private static <T extends Comparable<T>> BTree<T> createBTree(Function<String, T> mapper, int index, List<List<String>> rows) {
-        return createBTree(mapper, index, getDistinctSortedRows(mapper, index, rows), getIndexesWithColumnValue(mapper, index, rows));
+    @SuppressWarnings("unchecked")
+    public Bitmap scan(List<QueryPredicate<?>> predicates) {
+        return scan((QueryPredicate<T>) predicates.get(0));
     }
 
-    private static <T extends Comparable<T>> List<List<String>> getDistinctSortedRows(Function<String, T> mapper, int index, List<List<String>> rows) {
-        return sortByColumn(distinctBy(CollectionsUtils.withoutNulls(rows, row -> row.get(index)), row -> mapper.apply(row.get(index))), index, mapper);
+    public void insert(int rowId) {
+        if (!column.isNull(rowId)) insert(keys.apply(rowId), rowId);
     }
 
-    private static <T extends Comparable<T>> Map<T, Set<Integer>> getIndexesWithColumnValue(Function<String, T> mapper,
-                                                                                            int index,
-                                                                                            List<List<String>> rows) {
-        return CollectionsUtils.indexes(rows)
-                .filter(i -> rows.get(i).get(index) != null)
-                .collect(toMap(
-                        i -> mapper.apply(rows.get(i).get(index)),
-                        CollectionsUtils::singleSet,
-                        CollectionsUtils::merge
-                ));
+    void insertAll() {
+        insertAll(0, column.size());
     }
 
-    private static <T extends Comparable<T>> BTree<T> createBTree(final Function<String, T> mapper,
-                                                                  final int index,
-                                                                  List<List<String>> rows,
-                                                                  final Map<T, Set<Integer>> indexes) {
-        if (rows.isEmpty()) return null;
-        if (rows.size() == 1) {
-            T columnValue = mapper.apply(rows.get(0).get(index));
-            BTree<T> root = new BTree<>(columnValue);
-            root.getRowsIndexes().addAll(indexes.get(columnValue));
-            return root;
+    void insertAll(int fromRowId, int toRowId) {
+        for (int i = fromRowId; i < toRowId; i++) insert(i);
+    }
+
+    TreeMap<T, IntList> groupByKey(int fromRowId, int toRowId) {
+        TreeMap<T, IntList> rowsByKey = new TreeMap<>();
+        for (int i = fromRowId; i < toRowId; i++) {
+            if (!column.isNull(i)) rowsByKey.computeIfAbsent(keys.apply(i), k -> new IntList()).addInt(i);
         }
+        return rowsByKey;
+    }
 
-        int mid = rows.size() >>> 1;
-        T midColumnValue = mapper.apply(rows.get(mid).get(index));
-        BTree<T> root = new BTree<>(midColumnValue);
-        root.getRowsIndexes().addAll(indexes.get(midColumnValue));
-        root.setLeft(createBTree(mapper, index, rows.subList(0, mid), indexes));
-        root.setRight(createBTree(mapper, index, rows.subList(mid + 1, rows.size()), indexes));
-        return root;
+    public static Index<? extends Comparable<?>> create(IndexType type, String columnName, Column column, int fanOut) {
+        if (column.getType() == Type.INTEGER)
+            return create(type, columnName, column, ((IntegerColumn) column)::getInt, fanOut);
+        return create(type, columnName, column, column::get, fanOut);
     }
 
-    private static int getIndex(String columnName, List<ColumnData> columns) {
-        return CollectionsUtils.indexes(columns)
-                .filter(i -> columns.get(i).first.equals(columnName))
-                .findAny().orElseThrow(IllegalArgumentException::new);
+    static Index<? extends Comparable<?>> create(IndexType type, List<String> columns, List<String> included, Table table, int fanOut) {
+        if (columns.size() == 1 && included.isEmpty()) return create(type, columns.get(0), table.getColumn(columns.get(0)), fanOut);
+        if (type == IndexType.HASH) throw new IllegalArgumentException("Hash index can only be built on a single column");
+        return CompositeIndex.build(columns, included, components(columns, included, table), fanOut);
     }
 
-    public void insert(String value, int index) {
-        bTree.insert(mapValue(value), index);
+    static List<Column> components(List<String> columns, List<String> included, Table table) {
+        List<Column> components = new ArrayList<>();
+        for (String column : columns) components.add(table.getColumn(column));
+        for (String column : included) components.add(table.getColumn(column));
+        return components;
     }
 
-    abstract T mapValue(String s);
+    private static <T extends Comparable<T>> Index<T> create(IndexType type, String columnName, Column column, IntFunction<T> keys, int fanOut) {
+        if (type == IndexType.HASH) {
+            HashIndex<T> index = new HashIndex<>(columnName, column, keys);
+            index.insertAll();
+            return index;
+        }
+        return TreeIndex.build(columnName, column, keys, fanOut);
+    }
 
-    public static Index<Integer> createIntIndex(Table table, String column) {
-        return new IntegerIndex(createBTree(Integer::parseInt, getIndex(column, table.getColumns()), table.getRows()));
+    static Index<? extends Comparable<?>> load(IndexType type, String columnName, Column column, int fanOut,
+                                              List<? extends Map.Entry<?, IntList>> sortedEntries) {
+        if (column.getType() == Type.INTEGER)
+            return load(type, columnName, column, ((IntegerColumn) column)::getInt, fanOut, sortedEntries);
+        return load(type, columnName, column, column::get, fanOut, sortedEntries);
     }
 
-    public static Index<String> createStringIndex(Table table, String column) {
-        return new StringIndex(createBTree(Function.identity(), getIndex(column, table.getColumns()), table.getRows()));
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Index<T> load(IndexType type, String columnName, Column column, IntFunction<T> keys,
+                                                           int fanOut, List<? extends Map.Entry<?, IntList>> sortedEntries) {
+        List<Map.Entry<T, IntList>> entries = (List<Map.Entry<T, IntList>>) sortedEntries;
+        if (type == IndexType.HASH) {
+            HashIndex<T> index = new HashIndex<>(columnName, column, keys);
+            entries.forEach(e -> e.getValue().forEachInt(rowId -> index.insert(e.getKey(), rowId)));
+            return index;
+        }
+        return TreeIndex.load(columnName, column, keys, fanOut, entries);
     }
 }
@@ -0,0 +1,63 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import static java.util.Collections.singletonList;
+
+final class IndexAggregate extends Plan {
+    final List<Aggregate> items;
+    final List<TreeIndex<?>> sources;
+
+    IndexAggregate(List<Aggregate> items, List<TreeIndex<?>> sources) {
+        super(1);
+        this.items = items;
+        this.sources = sources;
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        long start = System.nanoTime();
+        examined = 0;
+        List<String> row = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            TreeIndex<?> index = sources.get(i);
+            boolean max = items.get(i).getFunction() == Aggregate.Function.MAX;
+            row.add(index == null ? String.valueOf(watermark) : reader.locked(() -> extreme(index, max, watermark)));
+        }
+        emitted = 1;
+        nanos = System.nanoTime() - start;
+        return singletonList(row).iterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String extreme(TreeIndex<?> index, boolean max, int watermark) {
+        Object[] found = new Object[1];
+        ((TreeIndex) index).walk(max, (BiPredicate<Object, IntList>) (key, rowIds) -> {
+            for (int i = 0; i < rowIds.size(); i++) {
+                examined++;
+                if (rowIds.getInt(i) < watermark) {
+                    found[0] = key;
+                    return false;
+                }
+            }
+            return true;
+        });
+        return found[0] != null ? found[0].toString() : null;
+    }
+
+    @Override
+    String describe() {
+        List<String> described = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            TreeIndex<?> index = sources.get(i);
+            described.add(items.get(i) + (index == null ? " from table size" : " from tree index on `" + index.getColumnName() + "`"));
+        }
+        return String.join(", ", described);
+    }
+}
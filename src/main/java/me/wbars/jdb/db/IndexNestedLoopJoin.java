@@ -0,0 +1,79 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.PredicateCompiler;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singletonList;
+
+final class IndexNestedLoopJoin extends JoinPlan {
+    final Index<? extends Comparable<?>> index;
+    final boolean innerLeft;
+
+    IndexNestedLoopJoin(JoinInput left, JoinInput right, boolean outer, QueryPredicate<?> residual, PairPredicate filter,
+                        OrderBy orderBy, Column orderColumn, boolean orderLeft, Index<? extends Comparable<?>> index,
+                        boolean innerLeft, long estimate) {
+        super(left, right, outer, residual, filter, orderBy, orderColumn, orderLeft, estimate);
+        this.index = index;
+        this.innerLeft = innerLeft;
+    }
+
+    @Override
+    JoinCursor scan() {
+        JoinInput outerInput = innerLeft ? right : left;
+        JoinInput inner = innerLeft ? left : right;
+        Column keys = outerInput.column();
+        IntPredicate innerFilter = inner.predicate != null ? PredicateCompiler.compile(inner.predicate, inner.table::getColumn) : null;
+        PrimitiveIterator.OfInt outerRows = outerInput.rowIds();
+        return new JoinCursor() {
+            private int outerRow;
+            private PrimitiveIterator.OfInt matches = IntStream.empty().iterator();
+
+            @Override
+            boolean next() {
+                while (true) {
+                    while (matches.hasNext()) {
+                        int match = matches.nextInt();
+                        if (innerFilter != null && !innerFilter.test(match)) continue;
+                        left = innerLeft ? match : outerRow;
+                        right = innerLeft ? outerRow : match;
+                        return true;
+                    }
+                    if (!outerRows.hasNext()) return false;
+                    outerRow = outerRows.nextInt();
+                    examined++;
+                    matches = lookup(inner, keys, outerRow);
+                    if (outer && !matches.hasNext()) {
+                        left = outerRow;
+                        right = -1;
+                        return true;
+                    }
+                }
+            }
+        };
+    }
+
+    private PrimitiveIterator.OfInt lookup(JoinInput inner, Column keys, int row) {
+        if (keys.isNull(row)) return IntStream.empty().iterator();
+        Object value = keys instanceof IntegerColumn ? (Object) ((IntegerColumn) keys).getInt(row) : keys.get(row);
+        return inner.reader.scan(index, singletonList(QueryPredicate.create(inner.key, CompareSign.EQ, value))).iterator();
+    }
+
+    @Override
+    String strategy() {
+        return String.format("lookup %s index on %s", index.getType().name().toLowerCase(), innerLeft ? left : right);
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return singletonList((innerLeft ? right : left).plan);
+    }
+}
@@ -0,0 +1,25 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Table;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+final class IndexOnlyScan extends IndexScan {
+    IndexOnlyScan(Table table, CompositeIndex index, List<QueryPredicate<?>> access, List<QueryPredicate<?>> residual,
+                  IntPredicate filter, long estimate) {
+        super(table, index, access, residual, filter, estimate);
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        long start = System.nanoTime();
+        List<List<String>> rows = reader.locked(() -> ((CompositeIndex) index).rows(access, residual, columns, watermark));
+        examined = rows.size();
+        emitted = rows.size();
+        nanos = System.nanoTime() - start;
+        return rows.iterator();
+    }
+}
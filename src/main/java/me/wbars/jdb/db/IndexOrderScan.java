@@ -0,0 +1,88 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.SelectQuery;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.PrimitiveIterator;
+import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
+
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+
+final class IndexOrderScan extends RowIdPlan {
+    final TreeIndex<?> index;
+    final Column column;
+    final OrderBy orderBy;
+    final QueryPredicate<?> predicate;
+    final IntPredicate filter;
+    final int limit;
+
+    IndexOrderScan(Table table, TreeIndex<?> index, Column column, OrderBy orderBy, QueryPredicate<?> predicate,
+                   IntPredicate filter, int limit, long estimate) {
+        super(table, estimate);
+        this.index = index;
+        this.column = column;
+        this.orderBy = orderBy;
+        this.predicate = predicate;
+        this.filter = filter;
+        this.limit = limit;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        IntList rows = reader.locked(() -> walk(watermark));
+        emitted = rows.size();
+        return rows.stream().mapToInt(Integer::intValue).iterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private IntList walk(int watermark) {
+        IntList result = new IntList();
+        examined = 0;
+        if (!orderBy.isDescending() && !addNulls(result, watermark)) return result;
+        BiPredicate<Object, IntList> consumer = (key, rowIds) -> {
+            for (int i = 0; i < rowIds.size(); i++) {
+                int row = rowIds.getInt(i);
+                if (row >= watermark) continue;
+                examined++;
+                if (filter != null && !filter.test(row)) continue;
+                result.addInt(row);
+                if (result.size() == limit) return false;
+            }
+            return true;
+        };
+        boolean completed = ((TreeIndex) index).walk(orderBy.isDescending(), consumer);
+        if (completed && orderBy.isDescending()) addNulls(result, watermark);
+        return result;
+    }
+
+    private boolean addNulls(IntList result, int watermark) {
+        int[] nulls = new int[BATCH_SIZE >>> 5];
+        for (int start = 0; start < watermark; start += BATCH_SIZE) {
+            int length = Math.min(BATCH_SIZE, watermark - start);
+            column.readNulls(start, nulls, length);
+            for (int word = 0; word < nulls.length && word << 5 < length; word++) {
+                for (int bits = nulls[word]; bits != 0; bits &= bits - 1) {
+                    int row = start + (word << 5) + Integer.numberOfTrailingZeros(bits);
+                    if (row >= watermark) break;
+                    examined++;
+                    if (filter != null && !filter.test(row)) continue;
+                    result.addInt(row);
+                    if (result.size() == limit) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    String describe() {
+        String scan = String.format("tree index on `%s` %s", index.getColumnName(), orderBy.isDescending() ? "desc" : "asc");
+        if (predicate != null) scan += "; filter: " + predicate;
+        return limit != SelectQuery.NO_LIMIT ? scan + "; top " + limit : scan;
+    }
+}
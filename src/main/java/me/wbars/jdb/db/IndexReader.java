@@ -0,0 +1,15 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+interface IndexReader {
+    Bitmap scan(Index<? extends Comparable<?>> index, List<QueryPredicate<?>> access);
+
+    default <R> R locked(Supplier<R> action) {
+        return action.get();
+    }
+}
@@ -0,0 +1,84 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+
+import static java.util.stream.Collectors.joining;
+
+class IndexScan extends RowIdPlan {
+    final Index<? extends Comparable<?>> index;
+    final List<QueryPredicate<?>> access;
+    final List<QueryPredicate<?>> residual;
+    final IntPredicate filter;
+
+    IndexScan(Table table, Index<? extends Comparable<?>> index, List<QueryPredicate<?>> access, List<QueryPredicate<?>> residual,
+              IntPredicate filter, long estimate) {
+        super(table, estimate);
+        this.index = index;
+        this.access = access;
+        this.residual = residual;
+        this.filter = filter;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        Bitmap found = reader.scan(index, access);
+        examined = found.cardinality();
+        PrimitiveIterator.OfInt rowIds = found.iterator();
+        return filter != null ? filter(rowIds, filter) : rowIds;
+    }
+
+    @Override
+    String describe() {
+        String scan = String.format("%s index on %s: %s", index.getType().name().toLowerCase(), columns(index), join(access));
+        if (residual.isEmpty()) return scan;
+        return scan + "; filter: " + join(residual);
+    }
+
+    private static String columns(Index<?> index) {
+        if (index.getColumns().size() == 1 && index.getIncludedColumns().isEmpty()) return "`" + index.getColumnName() + "`";
+        String columns = "(" + quote(index.getColumns()) + ")";
+        return index.getIncludedColumns().isEmpty() ? columns : columns + " include (" + quote(index.getIncludedColumns()) + ")";
+    }
+
+    static String quote(List<String> columns) {
+        return columns.stream().map(c -> "`" + c + "`").collect(joining(", "));
+    }
+
+    private static String join(List<QueryPredicate<?>> predicates) {
+        return predicates.stream().map(Object::toString).collect(joining(" and "));
+    }
+
+    private static PrimitiveIterator.OfInt filter(PrimitiveIterator.OfInt rowIds, IntPredicate filter) {
+        return new PrimitiveIterator.OfInt() {
+            private int next = advance();
+
+            private int advance() {
+                while (rowIds.hasNext()) {
+                    int row = rowIds.nextInt();
+                    if (filter.test(row)) return row;
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int row = next;
+                next = advance();
+                return row;
+            }
+        };
+    }
+}
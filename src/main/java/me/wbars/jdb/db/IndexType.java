@@ -0,0 +1,5 @@
+package me.wbars.jdb.db;
+
+public enum IndexType {
+    TREE, HASH
+}
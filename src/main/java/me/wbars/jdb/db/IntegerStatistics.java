@@ -0,0 +1,103 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.utils.HyperLogLog;
+
+import java.util.Arrays;
+
+final class IntegerStatistics extends ColumnStatistics {
+    private final IntegerColumn column;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private int[] bounds = new int[0];
+    private int[] sample = new int[0];
+
+    IntegerStatistics(IntegerColumn column) {
+        super(column);
+        this.column = column;
+    }
+
+    @Override
+    long hash(int row) {
+        return HyperLogLog.hash(column.getInt(row));
+    }
+
+    @Override
+    void addBounds(int row) {
+        int value = column.getInt(row);
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    @Override
+    int bucket(int row) {
+        int value = column.getInt(row);
+        int last = bounds.length - 1;
+        if (value > bounds[last]) {
+            bounds[last] = value;
+            return last;
+        }
+        int index = Arrays.binarySearch(bounds, value);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    @Override
+    int sample(int rowCount, int step) {
+        sample = new int[(rowCount + step - 1) / step];
+        int size = 0;
+        for (int row = 0; row < rowCount; row += step) {
+            if (!column.isNull(row)) sample[size++] = column.getInt(row);
+        }
+        Arrays.sort(sample, 0, size);
+        return size;
+    }
+
+    @Override
+    void setBounds(int[] sampleIndexes) {
+        bounds = new int[sampleIndexes.length];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = sample[sampleIndexes[i]];
+        sample = new int[0];
+    }
+
+    @Override
+    boolean accepts(Object value) {
+        return value instanceof Integer;
+    }
+
+    @Override
+    int compareToMin(Object value) {
+        return Integer.compare((Integer) value, min);
+    }
+
+    @Override
+    int compareToMax(Object value) {
+        return Integer.compare((Integer) value, max);
+    }
+
+    @Override
+    int compareToBound(Object value, int bucket) {
+        return Integer.compare((Integer) value, bounds[bucket]);
+    }
+
+    @Override
+    double fraction(Object value, int bucket, boolean inclusive) {
+        double lower = bucket > 0 ? bounds[bucket - 1] : min - 1.0;
+        double upper = inclusive ? (Integer) value : (Integer) value - 1.0;
+        return upper <= lower ? 0 : (upper - lower) / (bounds[bucket] - lower);
+    }
+
+    @Override
+    String min() {
+        return min <= max ? String.valueOf(min) : null;
+    }
+
+    @Override
+    String max() {
+        return min <= max ? String.valueOf(max) : null;
+    }
+
+    @Override
+    String bound(int bucket) {
+        return String.valueOf(bounds[bucket]);
+    }
+}
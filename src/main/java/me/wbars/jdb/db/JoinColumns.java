@@ -0,0 +1,62 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.ColumnData;
+
+import java.util.List;
+
+final class JoinColumns {
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int MISSING = -1;
+    static final int AMBIGUOUS = -2;
+
+    private final String left;
+    private final List<ColumnData> leftColumns;
+    private final String right;
+    private final List<ColumnData> rightColumns;
+
+    JoinColumns(String left, List<ColumnData> leftColumns, String right, List<ColumnData> rightColumns) {
+        this.left = left;
+        this.leftColumns = leftColumns;
+        this.right = right;
+        this.rightColumns = rightColumns;
+    }
+
+    int side(String reference) {
+        int dot = reference.indexOf('.');
+        if (dot > 0) {
+            String table = reference.substring(0, dot);
+            String column = reference.substring(dot + 1);
+            if (table.equals(left) && find(leftColumns, column) != null) return LEFT;
+            if (table.equals(right) && find(rightColumns, column) != null) return RIGHT;
+        }
+        boolean inLeft = find(leftColumns, reference) != null;
+        boolean inRight = find(rightColumns, reference) != null;
+        if (inLeft && inRight) return AMBIGUOUS;
+        return inLeft ? LEFT : inRight ? RIGHT : MISSING;
+    }
+
+    boolean isLeft(String reference) {
+        return side(reference) == LEFT;
+    }
+
+    String column(String reference) {
+        List<ColumnData> columns = isLeft(reference) ? leftColumns : rightColumns;
+        return find(columns, reference) != null ? reference : reference.substring(reference.indexOf('.') + 1);
+    }
+
+    Type type(String reference) {
+        return find(isLeft(reference) ? leftColumns : rightColumns, column(reference)).second;
+    }
+
+    String error(String reference) {
+        int side = side(reference);
+        if (side == MISSING) return "Column `" + reference + "` not exists";
+        return side == AMBIGUOUS ? "Column `" + reference + "` is ambiguous" : null;
+    }
+
+    private static ColumnData find(List<ColumnData> columns, String name) {
+        return columns.stream().filter(c -> c.first.equals(name)).findFirst().orElse(null);
+    }
+}
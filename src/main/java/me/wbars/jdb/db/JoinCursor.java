@@ -0,0 +1,8 @@
+package me.wbars.jdb.db;
+
+abstract class JoinCursor {
+    int left;
+    int right;
+
+    abstract boolean next();
+}
@@ -0,0 +1,44 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.Table;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+final class JoinInput {
+    final String tableName;
+    final Table table;
+    final List<Index<? extends Comparable<?>>> indexes;
+    final String key;
+    final QueryPredicate<?> predicate;
+    final RowIdPlan plan;
+    final IndexReader reader;
+    final int watermark;
+
+    JoinInput(String tableName, Table table, List<Index<? extends Comparable<?>>> indexes, String key,
+              QueryPredicate<?> predicate, RowIdPlan plan, IndexReader reader, int watermark) {
+        this.tableName = tableName;
+        this.table = table;
+        this.indexes = indexes;
+        this.key = key;
+        this.predicate = predicate;
+        this.plan = plan;
+        this.reader = reader;
+        this.watermark = watermark;
+    }
+
+    Column column() {
+        return table.getColumn(key);
+    }
+
+    PrimitiveIterator.OfInt rowIds() {
+        return plan.rowIds(reader, watermark);
+    }
+
+    @Override
+    public String toString() {
+        return "`" + tableName + "." + key + "`";
+    }
+}
@@ -0,0 +1,134 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.JoinedRow;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+abstract class JoinPlan extends Plan {
+    final JoinInput left;
+    final JoinInput right;
+    final boolean outer;
+    final QueryPredicate<?> residual;
+    final PairPredicate filter;
+    final OrderBy orderBy;
+    final Column orderColumn;
+    final boolean orderLeft;
+
+    JoinPlan(JoinInput left, JoinInput right, boolean outer, QueryPredicate<?> residual, PairPredicate filter,
+             OrderBy orderBy, Column orderColumn, boolean orderLeft, long estimate) {
+        super(estimate);
+        this.left = left;
+        this.right = right;
+        this.outer = outer;
+        this.residual = residual;
+        this.filter = filter;
+        this.orderBy = orderBy;
+        this.orderColumn = orderColumn;
+        this.orderLeft = orderLeft;
+    }
+
+    abstract JoinCursor scan();
+
+    abstract String strategy();
+
+    JoinCursor pairs() {
+        examined = 0;
+        emitted = 0;
+        JoinCursor pairs = scan();
+        JoinCursor filtered = new JoinCursor() {
+            @Override
+            boolean next() {
+                while (pairs.next()) {
+                    if (filter != null && !filter.test(pairs.left, pairs.right)) continue;
+                    left = pairs.left;
+                    right = pairs.right;
+                    emitted++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        return orderBy == null ? filtered : sorted(filtered);
+    }
+
+    private JoinCursor sorted(JoinCursor pairs) {
+        IntList lefts = new IntList();
+        IntList rights = new IntList();
+        while (pairs.next()) {
+            lefts.addInt(pairs.left);
+            rights.addInt(pairs.right);
+        }
+        IntList rows = orderLeft ? lefts : rights;
+        RowOrder values = RowOrder.of(orderColumn, orderBy.isDescending());
+        Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int rowA = rows.getInt(a);
+            int rowB = rows.getInt(b);
+            int compared;
+            if (rowA < 0 || rowB < 0) {
+                compared = Boolean.compare(rowA >= 0, rowB >= 0);
+                if (orderBy.isDescending()) compared = -compared;
+            } else compared = values.compare(rowA, rowB);
+            return compared != 0 ? compared : Integer.compare(a, b);
+        });
+        return new JoinCursor() {
+            private int next;
+
+            @Override
+            boolean next() {
+                if (next == order.length) return false;
+                left = lefts.getInt(order[next]);
+                right = rights.getInt(order[next++]);
+                return true;
+            }
+        };
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        JoinColumns names = new JoinColumns(left.tableName, left.table.getColumns(), right.tableName, right.table.getColumns());
+        List<Column> projection = new ArrayList<>(columns.size());
+        boolean[] fromLeft = new boolean[columns.size()];
+        for (int i = 0; i < fromLeft.length; i++) {
+            fromLeft[i] = names.isLeft(columns.get(i));
+            projection.add((fromLeft[i] ? left : right).table.getColumn(names.column(columns.get(i))));
+        }
+        JoinCursor pairs = pairs();
+        return new Iterator<List<String>>() {
+            private boolean ready;
+            private boolean more;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    more = pairs.next();
+                    ready = true;
+                }
+                return more;
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                ready = false;
+                return new JoinedRow(projection, fromLeft, pairs.left, pairs.right);
+            }
+        };
+    }
+
+    @Override
+    String describe() {
+        String join = String.format("%s join on %s = %s; %s", outer ? "left" : "inner", left, right, strategy());
+        if (residual != null) join += "; filter: " + residual;
+        return orderBy != null ? join + "; order by " + orderBy : join;
+    }
+}
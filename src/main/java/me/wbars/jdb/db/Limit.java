@@ -0,0 +1,59 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.SelectQuery;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.util.Collections.singletonList;
+
+final class Limit extends Plan {
+    final Plan input;
+    final int offset;
+    final int limit;
+
+    Limit(Plan input, int offset, int limit) {
+        super(Math.max(0, limit == SelectQuery.NO_LIMIT ? input.estimate - offset : Math.min(limit, input.estimate - offset)));
+        this.input = input;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        Iterator<List<String>> rows = input.rows(reader, watermark, columns);
+        return new Iterator<List<String>>() {
+            private int skipped;
+            private int returned;
+
+            @Override
+            public boolean hasNext() {
+                for (; skipped < offset && rows.hasNext(); skipped++) {
+                    rows.next();
+                    examined++;
+                }
+                return (limit == SelectQuery.NO_LIMIT || returned < limit) && rows.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                examined++;
+                emitted = ++returned;
+                return rows.next();
+            }
+        };
+    }
+
+    @Override
+    String describe() {
+        String limited = limit != SelectQuery.NO_LIMIT ? "limit " + limit : "no limit";
+        return offset > 0 ? limited + " offset " + offset : limited;
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return singletonList(input);
+    }
+}
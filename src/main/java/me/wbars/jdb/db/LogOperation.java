@@ -0,0 +1,5 @@
+package me.wbars.jdb.db;
+
+enum LogOperation {
+    CREATE_TABLE, DROP_TABLE, INSERT, CREATE_INDEX, INSERT_BATCH, CREATE_COMPOSITE_INDEX
+}
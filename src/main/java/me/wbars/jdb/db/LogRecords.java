@@ -0,0 +1,94 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.ParsedRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class LogRecords {
+    private LogRecords() {
+    }
+
+    interface Writer {
+        void write(DataOutput out) throws IOException;
+    }
+
+    static byte[] encode(LogOperation operation, Writer writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(operation.ordinal());
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static LogOperation readOperation(DataInput in) throws IOException {
+        return LogOperation.values()[in.readByte()];
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeRow(DataOutput out, List<String> row) throws IOException {
+        if (!(row instanceof ParsedRow)) {
+            for (String value : row) writeString(out, value);
+            return;
+        }
+        ParsedRow parsed = (ParsedRow) row;
+        for (int i = 0; i < parsed.size(); i++) {
+            if (parsed.isInt(i)) writeDigits(out, parsed.getInt(i));
+            else writeString(out, parsed.get(i));
+        }
+    }
+
+    private static void writeDigits(DataOutput out, int value) throws IOException {
+        long remaining = Math.abs((long) value);
+        long unit = 1;
+        int length = value < 0 ? 2 : 1;
+        while (unit * 10 <= remaining) {
+            unit *= 10;
+            length++;
+        }
+        out.writeInt(length);
+        if (value < 0) out.write('-');
+        for (; unit > 0; unit /= 10) out.write((int) ('0' + remaining / unit % 10));
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) writeString(out, value);
+    }
+
+    static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(readString(in));
+        return values;
+    }
+}
@@ -0,0 +1,5 @@
+package me.wbars.jdb.db;
+
+interface PairPredicate {
+    boolean test(int left, int right);
+}
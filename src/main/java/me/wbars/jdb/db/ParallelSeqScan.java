@@ -0,0 +1,76 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.VectorFilter;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Arrays.asList;
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+
+final class ParallelSeqScan extends RowIdPlan {
+    static final int MORSEL_SIZE = 1 << 16;
+
+    final SeqScan scan;
+    final ForkJoinPool pool;
+
+    ParallelSeqScan(SeqScan scan, ForkJoinPool pool) {
+        super(scan.table, scan.estimate);
+        this.scan = scan;
+        this.pool = pool;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        examined = watermark;
+        Bitmap[] morsels = new Bitmap[(watermark + MORSEL_SIZE - 1) / MORSEL_SIZE];
+        pool.invoke(new MorselTask(scan.filter, morsels, 0, morsels.length, watermark));
+        return Bitmap.concat(asList(morsels)).iterator();
+    }
+
+    @Override
+    String describe() {
+        return scan.describe() + "; workers: " + pool.getParallelism();
+    }
+
+    private static final class MorselTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final VectorFilter filter;
+        private final Bitmap[] morsels;
+        private final int from;
+        private final int to;
+        private final int watermark;
+
+        MorselTask(VectorFilter filter, Bitmap[] morsels, int from, int to, int watermark) {
+            this.filter = filter;
+            this.morsels = morsels;
+            this.from = from;
+            this.to = to;
+            this.watermark = watermark;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MorselTask(filter, morsels, from, middle, watermark), new MorselTask(filter, morsels, middle, to, watermark));
+                return;
+            }
+            int end = Math.min(watermark, (from + 1) * MORSEL_SIZE);
+            if (filter == null) {
+                morsels[from] = Bitmap.range(from * MORSEL_SIZE, end);
+                return;
+            }
+            Bitmap result = new Bitmap();
+            VectorFilter.Batch batch = filter.newBatch();
+            for (int start = from * MORSEL_SIZE; start < end; start += BATCH_SIZE) {
+                filter.filter(batch, start, Math.min(BATCH_SIZE, end - start));
+                for (int i = 0; i < batch.size(); i++) result.add(batch.rowId(i));
+            }
+            morsels[from] = result;
+        }
+    }
+}
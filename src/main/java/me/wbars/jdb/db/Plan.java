@@ -0,0 +1,33 @@
+package me.wbars.jdb.db;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+abstract class Plan {
+    final long estimate;
+    long examined;
+    long emitted;
+    long nanos;
+
+    Plan(long estimate) {
+        this.estimate = estimate;
+    }
+
+    abstract Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns);
+
+    abstract String describe();
+
+    List<? extends Plan> children() {
+        return emptyList();
+    }
+
+    void analyze(IndexReader reader, int watermark, List<String> columns) {
+        long start = System.nanoTime();
+        long count = 0;
+        for (Iterator<List<String>> rows = rows(reader, watermark, columns); rows.hasNext(); count++) rows.next();
+        emitted = count;
+        nanos = System.nanoTime() - start;
+    }
+}
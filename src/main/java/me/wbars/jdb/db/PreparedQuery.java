@@ -0,0 +1,27 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Query;
+
+import static java.util.Arrays.asList;
+
+public class PreparedQuery {
+    private final DatabaseService service;
+    private final Query template;
+    private final int parametersCount;
+
+    PreparedQuery(DatabaseService service, Query template, int parametersCount) {
+        this.service = service;
+        this.template = template;
+        this.parametersCount = parametersCount;
+    }
+
+    public int getParametersCount() {
+        return parametersCount;
+    }
+
+    public QueryResult execute(Object... parameters) {
+        if (parameters.length != parametersCount)
+            throw new IllegalArgumentException(String.format("Expected %d parameters, got %d", parametersCount, parameters.length));
+        return template.bind(asList(parameters)).execute(service);
+    }
+}
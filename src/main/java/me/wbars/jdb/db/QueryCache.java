@@ -0,0 +1,31 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class QueryCache {
+    private final Map<String, Query> templates;
+
+    QueryCache(int capacity) {
+        this.templates = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized Query get(String key) {
+        return templates.get(key);
+    }
+
+    synchronized void put(String key, Query template) {
+        templates.put(key, template);
+    }
+
+    synchronized int size() {
+        return templates.size();
+    }
+}
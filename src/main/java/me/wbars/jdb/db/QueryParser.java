@@ -19,6 +19,8 @@ import java.util.function.Predicate;
 import static java.lang.Math.min;
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static me.wbars.jdb.query.QueryPredicate.create;
 import static me.wbars.jdb.scanner.TokenType.*;
@@ -34,9 +36,12 @@ public class QueryParser {
         prefixQueryProcessors.add(new Pair<>(this::isValidCreateTable, this::createCreateTables));
         prefixQueryProcessors.add(new Pair<>(this::isValidDropTable, this::createDropTable));
         prefixQueryProcessors.add(new Pair<>(this::isValidDescribeTable, this::createDescribeTable));
+        prefixQueryProcessors.add(new Pair<>(this::isValidAnalyzeTable, this::createAnalyzeTable));
         prefixQueryProcessors.add(new Pair<>(this::isValidInsert, this::createInsert));
         prefixQueryProcessors.add(new Pair<>(this::isValidSelect, this::createSelect));
         prefixQueryProcessors.add(new Pair<>(this::isValidCreateIndex, this::createIndexQuery));
+        prefixQueryProcessors.add(new Pair<>(this::isValidCopy, this::createCopy));
+        prefixQueryProcessors.add(new Pair<>(this::isValidExplain, this::createExplain));
     }
 
     private boolean hasPrefix(List<Token> base, TokenType... prefixTypes) {
@@ -52,7 +57,7 @@ public class QueryParser {
     }
 
     private boolean isValidCreateIndex(List<Token> tokens) {
-        return hasPrefix(tokens, CREATE, INDEX);
+        return hasPrefix(tokens, CREATE, INDEX) || hasPrefix(tokens, CREATE, HASH, INDEX);
     }
 
     private boolean isValidInsert(List<Token> tokens) {
@@ -63,6 +68,14 @@ public class QueryParser {
         return hasPrefix(tokens, SELECT);
     }
 
+    private boolean isValidCopy(List<Token> tokens) {
+        return hasPrefix(tokens, COPY);
+    }
+
+    private boolean isValidExplain(List<Token> tokens) {
+        return hasPrefix(tokens, EXPLAIN, SELECT) || hasPrefix(tokens, EXPLAIN, ANALYZE, SELECT);
+    }
+
     private boolean isValidDescribeTable(List<Token> tokens) {
         return tokens.size() == 3 && hasPrefix(tokens, DESCRIBE, TABLE);
     }
@@ -71,11 +84,36 @@ public class QueryParser {
         return new DescribeTableQuery(getTokenAsType(tokens, 2, TokenType.STRING_VAR).value);
     }
 
+    private boolean isValidAnalyzeTable(List<Token> tokens) {
+        return tokens.size() == 3 && hasPrefix(tokens, ANALYZE, TABLE);
+    }
+
+    private AnalyzeTableQuery createAnalyzeTable(List<Token> tokens) {
+        return new AnalyzeTableQuery(getTokenAsType(tokens, 2, TokenType.STRING_VAR).value);
+    }
+
     private CreateIndexQuery createIndexQuery(List<Token> tokens) {
-        String column = getTokenAsType(tokens, 2, TokenType.STRING_VAR).value;
-        int indexOn = getIndexOfToken(tokens, TokenType.ON);
-        if (indexOn < 0) throw new IllegalArgumentException();
-        return new CreateIndexQuery(getTokenAsType(tokens, indexOn + 1, TokenType.STRING_VAR).value, column);
+        IndexType type = tokens.get(1).type == HASH ? IndexType.HASH : IndexType.TREE;
+        Iterator<Token> iterator = tokens.subList(type == IndexType.HASH ? 3 : 2, tokens.size()).iterator();
+        List<String> columns = indexColumns(iterator);
+        getTokenAsType(iterator, TokenType.ON);
+        String tableName = getTokenAsType(iterator, TokenType.STRING_VAR).value;
+        List<String> included = emptyList();
+        if (iterator.hasNext()) {
+            getTokenAsType(iterator, TokenType.INCLUDE);
+            getTokenAsType(iterator, TokenType.OPEN_PAREN);
+            included = parseValues(getParensExpression(iterator));
+        }
+        if (iterator.hasNext()) throw new IllegalArgumentException(iterator.next().value);
+        return new CreateIndexQuery(tableName, columns, included, type);
+    }
+
+    private List<String> indexColumns(Iterator<Token> tokens) {
+        Token first = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.OPEN_PAREN);
+        if (first.type == TokenType.STRING_VAR) return singletonList(first.value);
+        List<String> columns = parseValues(getParensExpression(tokens));
+        if (columns.isEmpty()) throw new IllegalArgumentException(")");
+        return columns;
     }
 
     private InsertQuery createInsert(List<Token> tokens) {
@@ -83,13 +121,74 @@ public class QueryParser {
         int valuesKeywordIndex = getIndexOfToken(tokens, TokenType.VALUES);
         if (valuesKeywordIndex < 0) throw new IllegalArgumentException();
 
+        List<List<Token>> rows = parseRows(tokens.subList(valuesKeywordIndex + 1, tokens.size()).iterator());
         return new InsertQuery(
                 parseValues(unwrap(tokens.subList(3, valuesKeywordIndex))),
-                parseValues(unwrap(tokens.subList(valuesKeywordIndex + 1, tokens.size()))),
+                rows.stream().map(row -> row.stream().map(t -> t.type == PLACEHOLDER ? null : t.value).collect(toList())).collect(toList()),
+                rows.stream().map(row -> row.stream().map(t -> t.type == PLACEHOLDER ? parameter(t) : null).collect(toList())).collect(toList()),
                 tableName
         );
     }
 
+    private List<List<Token>> parseRows(Iterator<Token> tokens) {
+        List<List<Token>> rows = new ArrayList<>();
+        rows.add(parseRow(tokens));
+        while (tokens.hasNext()) {
+            getTokenAsType(tokens, TokenType.COMMA);
+            rows.add(parseRow(tokens));
+        }
+        return rows;
+    }
+
+    private List<Token> parseRow(Iterator<Token> tokens) {
+        getTokenAsType(tokens, TokenType.OPEN_PAREN);
+        return parseValueTokens(getParensExpression(tokens));
+    }
+
+    private Query createCopy(List<Token> tokens) {
+        Iterator<Token> iterator = tokens.subList(1, tokens.size()).iterator();
+        Token source = getTokenAnyOfTypes(iterator, TokenType.STRING_VAR, TokenType.OPEN_PAREN);
+        if (source.type == TokenType.OPEN_PAREN) {
+            List<Token> select = getParensExpression(iterator);
+            if (!isValidSelect(select)) throw new IllegalArgumentException();
+            getTokenAsType(iterator, TokenType.TO);
+            return new CopyToQuery(createSelect(select), copyFile(iterator));
+        }
+
+        List<String> columns = emptyList();
+        Token direction = getTokenAnyOfTypes(iterator, TokenType.OPEN_PAREN, TokenType.FROM, TokenType.TO);
+        if (direction.type == TokenType.OPEN_PAREN) {
+            columns = parseValues(getParensExpression(iterator));
+            direction = getTokenAnyOfTypes(iterator, TokenType.FROM, TokenType.TO);
+        }
+        String file = copyFile(iterator);
+        if (direction.type == TokenType.FROM) return new CopyFromQuery(source.value, columns, file);
+        return new CopyToQuery(new SelectQuery(source.value, columns), file);
+    }
+
+    private ExplainQuery createExplain(List<Token> tokens) {
+        boolean analyze = tokens.get(1).type == ANALYZE;
+        return new ExplainQuery(createSelect(tokens.subList(analyze ? 2 : 1, tokens.size())), analyze);
+    }
+
+    private String copyFile(Iterator<Token> tokens) {
+        String file = getTokenAsType(tokens, TokenType.STRING_VAR).value;
+        if (tokens.hasNext()) throw new IllegalArgumentException(tokens.next().value);
+        return file;
+    }
+
+    private Parameter parameter(Token placeholder) {
+        return new Parameter(Integer.parseInt(placeholder.value));
+    }
+
+    private List<Token> parseValueTokens(List<Token> tokens) {
+        if (tokens.isEmpty()) return emptyList();
+        Token head = tokens.get(0);
+        if (tokens.size() > 1 && tokens.get(1).type != TokenType.COMMA)
+            throw new IllegalArgumentException(tokens.get(1).value);
+        return concat(head, parseValueTokens(tokens.subList(min(2, tokens.size()), tokens.size())));
+    }
+
     private List<String> parseValues(List<Token> tokens) {
         if (tokens.isEmpty()) return emptyList();
         String head = tokens.get(0).value;
@@ -120,16 +219,95 @@ public class QueryParser {
         if (fromKeywordIndex < 0) throw new IllegalArgumentException();
 
         String tableName = getTokenAsType(tokens, fromKeywordIndex + 1, TokenType.STRING_VAR).value;
-        if (tokens.size() == fromKeywordIndex + 2)
-            return new SelectQuery(tableName, parseValues(unwrap(tokens.subList(1, fromKeywordIndex))));
-
-        int whereIndex = getIndexOfToken(tokens, TokenType.WHERE);
-        if (whereIndex < 0) throw new IllegalArgumentException();
-        return new SelectQuery(
-                tableName,
-                parseValues(unwrap(tokens.subList(1, fromKeywordIndex))),
-                parseWherePredicate(tokens.subList(whereIndex + 1, tokens.size()))
-        );
+        List<Token> selectTokens = unwrap(tokens.subList(1, fromKeywordIndex));
+        int tailIndex = indexes(tokens)
+                .filter(i -> tokens.get(i).type == TokenType.GROUP || tokens.get(i).type == TokenType.ORDER || tokens.get(i).type == TokenType.LIMIT)
+                .findFirst().orElse(tokens.size());
+        int whereIndex = fromKeywordIndex + 2;
+        JoinClause join = null;
+        if (whereIndex < tailIndex && tokens.get(whereIndex).type != TokenType.WHERE) {
+            JoinClause.Type type = tokens.get(whereIndex).type == TokenType.LEFT ? JoinClause.Type.LEFT : JoinClause.Type.INNER;
+            if (tokens.get(whereIndex).type == TokenType.INNER || tokens.get(whereIndex).type == TokenType.LEFT) whereIndex++;
+            getTokenAsType(tokens, whereIndex, TokenType.JOIN);
+            String joined = getTokenAsType(tokens, whereIndex + 1, TokenType.STRING_VAR).value;
+            getTokenAsType(tokens, whereIndex + 2, TokenType.ON);
+            String leftColumn = getTokenAsType(tokens, whereIndex + 3, TokenType.STRING_VAR).value;
+            if (!getTokenAsType(tokens, whereIndex + 4, TokenType.RELOP).value.equals("="))
+                throw new IllegalArgumentException(tokens.get(whereIndex + 4).value);
+            String rightColumn = getTokenAsType(tokens, whereIndex + 5, TokenType.STRING_VAR).value;
+            join = new JoinClause(type, joined, leftColumn, rightColumn);
+            whereIndex += 6;
+        }
+        int i = tailIndex;
+        List<String> groupBy = new ArrayList<>();
+        if (i < tokens.size() && tokens.get(i).type == TokenType.GROUP) {
+            getTokenAsType(tokens, i + 1, TokenType.BY);
+            groupBy.add(getTokenAsType(tokens, i + 2, TokenType.STRING_VAR).value);
+            i += 3;
+            while (i < tokens.size() && tokens.get(i).type == TokenType.COMMA) {
+                groupBy.add(getTokenAsType(tokens, i + 1, TokenType.STRING_VAR).value);
+                i += 2;
+            }
+        }
+        OrderBy orderBy = null;
+        if (i < tokens.size() && tokens.get(i).type == TokenType.ORDER) {
+            getTokenAsType(tokens, i + 1, TokenType.BY);
+            String column = getTokenAsType(tokens, i + 2, TokenType.STRING_VAR).value;
+            i += 3;
+            boolean descending = i < tokens.size() && tokens.get(i).type == TokenType.DESC;
+            if (i < tokens.size() && (descending || tokens.get(i).type == TokenType.ASC)) i++;
+            orderBy = new OrderBy(column, descending);
+        }
+        int limit = SelectQuery.NO_LIMIT;
+        int offset = 0;
+        if (i < tokens.size()) {
+            getTokenAsType(tokens, i, TokenType.LIMIT);
+            limit = parseCount(tokens, i + 1);
+            i += 2;
+            if (i < tokens.size()) {
+                getTokenAsType(tokens, i, TokenType.OFFSET);
+                offset = parseCount(tokens, i + 1);
+                i += 2;
+            }
+            if (i < tokens.size()) throw new IllegalArgumentException(tokens.get(i).value);
+        }
+        QueryPredicate<? extends Comparable<?>> predicate = null;
+        if (tailIndex != whereIndex) {
+            if (whereIndex > tailIndex || tokens.get(whereIndex).type != TokenType.WHERE) throw new IllegalArgumentException();
+            predicate = parseWherePredicate(tokens.subList(whereIndex + 1, tailIndex));
+        }
+
+        if (groupBy.isEmpty() && selectTokens.stream().noneMatch(t -> t.type == TokenType.AGGREGATE))
+            return new SelectQuery(tableName, parseValues(selectTokens), emptyList(), emptyList(), join, predicate, orderBy, limit, offset);
+        if (join != null) throw new IllegalArgumentException("Aggregates over joins are not supported");
+        List<Aggregate> aggregates = parseAggregates(selectTokens.iterator());
+        List<String> columns = aggregates.stream()
+                .filter(a -> a.getFunction() == Aggregate.Function.VALUE)
+                .map(Aggregate::getColumn)
+                .collect(toList());
+        return new SelectQuery(tableName, columns, aggregates, groupBy, predicate, orderBy, limit, offset);
+    }
+
+    private List<Aggregate> parseAggregates(Iterator<Token> tokens) {
+        List<Aggregate> aggregates = new ArrayList<>();
+        while (tokens.hasNext()) {
+            Token item = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.AGGREGATE);
+            if (item.type == TokenType.STRING_VAR) aggregates.add(Aggregate.value(item.value));
+            else {
+                Aggregate.Function function = Aggregate.Function.valueOf(item.value.toUpperCase());
+                getTokenAsType(tokens, TokenType.OPEN_PAREN);
+                Token argument = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.STAR);
+                if (argument.type == TokenType.STAR && function != Aggregate.Function.COUNT) throw new IllegalArgumentException(argument.value);
+                getTokenAsType(tokens, TokenType.CLOSE_PAREN);
+                aggregates.add(new Aggregate(function, argument.type == TokenType.STAR ? null : argument.value));
+            }
+            if (tokens.hasNext()) getTokenAsType(tokens, TokenType.COMMA);
+        }
+        return aggregates;
+    }
+
+    private int parseCount(List<Token> tokens, int index) {
+        return Integer.parseInt(getTokenAsType(tokens, index, TokenType.UNSIGNED_INTEGER).value);
     }
 
     private QueryPredicate<? extends Comparable<?>> parseWherePredicate(List<Token> tokens) {
@@ -144,7 +322,8 @@ public class QueryParser {
         Token first = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.OPEN_PAREN);
         if (first.type == TokenType.STRING_VAR) {
             Token operator = getTokenAsType(tokens, TokenType.RELOP);
-            Token value = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.UNSIGNED_INTEGER);
+            Token value = getTokenAnyOfTypes(tokens, TokenType.STRING_VAR, TokenType.UNSIGNED_INTEGER, TokenType.PLACEHOLDER);
+            if (value.type == PLACEHOLDER) return new QueryPredicate<>(first.value, CompareSign.fromAlias(operator.value), parameter(value));
             return create(first.value, operator.value, value, Type.fromToken(value));
         }
         return parseWherePredicate(getParensExpression(tokens));
@@ -173,8 +352,8 @@ public class QueryParser {
     private QueryPredicate<? extends Comparable<?>> accumulatePredicate(QueryPredicate<? extends Comparable<?>> predicate, Iterator<Token> tokens) {
         while (tokens.hasNext()) {
             if (getTokenAsType(tokens, TokenType.BOOLEAN_RELOP).value.equals("or"))
-                return predicate.or(parseWherePredicate(tokens));
-            predicate = predicate.and(singlePredicate(tokens));
+                return QueryPredicate.anyOf(predicate, parseWherePredicate(tokens));
+            predicate = QueryPredicate.allOf(predicate, singlePredicate(tokens));
         }
         return predicate;
     }
@@ -213,11 +392,72 @@ public class QueryParser {
     }
 
     public Query parse(String queryString) {
-        List<Token> tokens = scanner.scan(queryString);
+        return parse(scan(queryString), queryString);
+    }
+
+    Query parse(List<Token> tokens, String queryString) {
         return prefixQueryProcessors.stream()
                 .filter(p -> p.first.test(tokens))
                 .map(p -> p.second)
                 .findFirst().orElseThrow(() -> new IllegalArgumentException(queryString))
                 .apply(tokens);
     }
+
+    public List<Token> scan(String queryString) {
+        List<Token> tokens = scanner.scan(queryString);
+        if (tokens.stream().noneMatch(t -> t.type == PLACEHOLDER)) return tokens;
+
+        List<Token> result = new ArrayList<>(tokens.size());
+        int parameters = 0;
+        for (Token token : tokens) result.add(token.type == PLACEHOLDER ? Token.placeholder(parameters++) : token);
+        return result;
+    }
+
+    public static int parametersCount(List<Token> tokens) {
+        return (int) tokens.stream().filter(t -> t.type == PLACEHOLDER).count();
+    }
+
+    public static Pair<List<Token>, List<Object>> parameterize(List<Token> tokens) {
+        List<Object> parameters = new ArrayList<>();
+        if (parametersCount(tokens) > 0) return new Pair<>(tokens, parameters);
+
+        List<Token> template = new ArrayList<>(tokens.size());
+        boolean inValues = false;
+        boolean inJoin = false;
+        Token previous = null;
+        for (Token token : tokens) {
+            inValues |= token.type == VALUES;
+            inJoin = token.type == JOIN || inJoin && token.type != WHERE;
+            Object value = inJoin ? null : literalValue(token, previous, inValues);
+            if (value != null) {
+                template.add(Token.placeholder(parameters.size()));
+                parameters.add(value);
+            } else template.add(token);
+            previous = token;
+        }
+        return new Pair<>(template, parameters);
+    }
+
+    private static Object literalValue(Token token, Token previous, boolean inValues) {
+        if (token.type != UNSIGNED_INTEGER && token.type != STRING_VAR) return null;
+        if (inValues) return token.value;
+        if (previous == null || previous.type != RELOP) return null;
+        if (token.type == STRING_VAR) return token.value;
+        return fitsInteger(token.value) ? Integer.valueOf(token.value) : null;
+    }
+
+    private static boolean fitsInteger(String digits) {
+        return digits.length() < 10 || digits.length() == 10 && digits.compareTo(String.valueOf(Integer.MAX_VALUE)) <= 0;
+    }
+
+    public static String normalize(List<Token> tokens) {
+        StringBuilder result = new StringBuilder();
+        for (Token token : tokens) {
+            if (result.length() > 0) result.append(' ');
+            if (token.type == STRING_VAR) result.append('`').append(token.value).append('`');
+            else if (token.type == PLACEHOLDER) result.append('?');
+            else result.append(token.value);
+        }
+        return result.toString();
+    }
 }
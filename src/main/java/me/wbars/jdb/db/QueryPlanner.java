@@ -0,0 +1,235 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.PredicateCompiler;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.SelectQuery;
+import me.wbars.jdb.query.VectorFilter;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static me.wbars.jdb.db.ParallelSeqScan.MORSEL_SIZE;
+import static me.wbars.jdb.utils.CollectionsUtils.concat;
+
+final class QueryPlanner {
+    private static final double MAX_INDEX_SELECTIVITY = 0.25;
+    static final int PARALLEL_SCAN_THRESHOLD = 4 * MORSEL_SIZE;
+
+    private QueryPlanner() {
+    }
+
+    static RowIdPlan plan(Table table, List<Index<? extends Comparable<?>>> indexes, TableStatistics statistics,
+                          QueryPredicate<?> predicate, int rowCount) {
+        return plan(table, indexes, statistics, predicate, null, rowCount);
+    }
+
+    static RowIdPlan plan(Table table, List<Index<? extends Comparable<?>>> indexes, TableStatistics statistics,
+                          QueryPredicate<?> predicate, List<String> columns, int rowCount) {
+        if (predicate == null) return new SeqScan(table, null, null, rowCount);
+
+        List<List<QueryPredicate<?>>> conjunctions = normalize(predicate);
+        List<IndexScan> branches = new ArrayList<>();
+        long estimate = 0;
+        for (List<QueryPredicate<?>> conjunction : conjunctions) {
+            Access access = bestAccess(indexes, statistics, conjunction, rowCount);
+            if (access == null) return seqScan(table, statistics, predicate, conjunctions, rowCount);
+            estimate += access.rows;
+
+            List<QueryPredicate<?>> residual = conjunction.stream()
+                    .filter(p -> access.predicates.stream().noneMatch(matched -> matched == p))
+                    .collect(toList());
+            branches.add(new IndexScan(table, access.index, access.predicates, residual, compile(table, residual), access.rows));
+        }
+        if (branches.size() == 1 && covers(branches.get(0), columns)) {
+            IndexScan scan = branches.get(0);
+            return new IndexOnlyScan(table, (CompositeIndex) scan.index, scan.access, scan.residual, scan.filter, scan.estimate);
+        }
+        if (estimate > rowCount * MAX_INDEX_SELECTIVITY) return seqScan(table, statistics, predicate, conjunctions, rowCount);
+        return branches.size() == 1 ? branches.get(0) : new Union(table, branches, estimate);
+    }
+
+    static RowIdPlan order(RowIdPlan plan, Table table, List<Index<? extends Comparable<?>>> indexes, QueryPredicate<?> predicate,
+                           OrderBy orderBy, int limit, int rowCount) {
+        if (orderBy == null) return plan;
+        Column column = table.getColumn(orderBy.getColumn());
+        TreeIndex<?> index = indexes.stream()
+                .filter(i -> i instanceof TreeIndex && i.getColumnName().equals(orderBy.getColumn()))
+                .map(i -> (TreeIndex<?>) i)
+                .findFirst().orElse(null);
+        if (index == null || !walkIndex(plan, predicate, limit, rowCount)) return new TopN(plan, column, orderBy, limit);
+
+        IntPredicate filter = predicate != null ? PredicateCompiler.compile(predicate, table::getColumn) : null;
+        long estimate = limit == SelectQuery.NO_LIMIT ? plan.estimate : Math.min(limit, plan.estimate);
+        return new IndexOrderScan(table, index, column, orderBy, predicate, filter, limit, estimate);
+    }
+
+    private static boolean walkIndex(Plan plan, QueryPredicate<?> predicate, int limit, int rowCount) {
+        if (predicate == null) return true;
+        if (!(plan instanceof SeqScan || plan instanceof ParallelSeqScan) || limit == SelectQuery.NO_LIMIT) return false;
+        return (double) limit * rowCount / Math.max(1, plan.estimate) <= rowCount * MAX_INDEX_SELECTIVITY;
+    }
+
+    static Plan aggregate(RowIdPlan plan, Table table, List<Index<? extends Comparable<?>>> indexes, TableStatistics statistics,
+                          QueryPredicate<?> predicate, List<Aggregate> items, List<String> groupBy, OrderBy orderBy,
+                          ForkJoinPool pool, int rowCount) {
+        if (predicate == null && groupBy.isEmpty()) {
+            List<TreeIndex<?>> sources = new ArrayList<>();
+            for (Aggregate item : items) {
+                if (item.getFunction() == Aggregate.Function.COUNT && item.getColumn() == null) sources.add(null);
+                else if (item.getFunction() == Aggregate.Function.MIN || item.getFunction() == Aggregate.Function.MAX)
+                    indexes.stream()
+                            .filter(i -> i instanceof TreeIndex && i.getColumnName().equals(item.getColumn()))
+                            .findFirst()
+                            .ifPresent(i -> sources.add((TreeIndex<?>) i));
+            }
+            if (sources.size() == items.size()) return new IndexAggregate(items, sources);
+        }
+
+        if (plan instanceof SeqScan && pool.getParallelism() >= 2 && rowCount >= PARALLEL_SCAN_THRESHOLD)
+            plan = new ParallelSeqScan((SeqScan) plan, pool);
+        long groups = groupBy.isEmpty() ? 1 : Math.min(plan.estimate, statistics.estimateGroups(groupBy));
+        return new HashAggregate(plan, new HashAggregation(table, items, groupBy), orderBy, groups);
+    }
+
+    static JoinPlan join(JoinInput left, JoinInput right, boolean outer, QueryPredicate<?> residual, PairPredicate filter,
+                     OrderBy orderBy, Column orderColumn, boolean orderLeft) {
+        long estimate = Math.max(left.plan.estimate, right.plan.estimate);
+        Index<? extends Comparable<?>> rightIndex = lookupIndex(right);
+        Index<? extends Comparable<?>> leftIndex = outer ? null : lookupIndex(left);
+        boolean lookupRight = rightIndex != null && left.plan.estimate <= right.watermark * MAX_INDEX_SELECTIVITY;
+        boolean lookupLeft = leftIndex != null && right.plan.estimate <= left.watermark * MAX_INDEX_SELECTIVITY;
+        if (lookupRight && (!lookupLeft || left.plan.estimate <= right.plan.estimate))
+            return new IndexNestedLoopJoin(left, right, outer, residual, filter, orderBy, orderColumn, orderLeft, rightIndex, false, estimate);
+        if (lookupLeft)
+            return new IndexNestedLoopJoin(left, right, outer, residual, filter, orderBy, orderColumn, orderLeft, leftIndex, true, estimate);
+        boolean buildLeft = !outer && left.plan.estimate < right.plan.estimate;
+        return new HashJoin(left, right, outer, residual, filter, orderBy, orderColumn, orderLeft, buildLeft, estimate);
+    }
+
+    private static Index<? extends Comparable<?>> lookupIndex(JoinInput input) {
+        return input.indexes.stream()
+                .filter(i -> !(i instanceof CompositeIndex) && i.getColumnName().equals(input.key) && i.supports(CompareSign.EQ))
+                .min(comparing(i -> i.getType() == IndexType.HASH ? 0 : 1))
+                .orElse(null);
+    }
+
+    static Plan limit(Plan plan, int offset, int limit) {
+        return offset == 0 && limit == SelectQuery.NO_LIMIT ? plan : new Limit(plan, offset, limit);
+    }
+
+    static RowIdPlan parallelize(RowIdPlan plan, ForkJoinPool pool, int rowCount) {
+        if (!(plan instanceof SeqScan) || ((SeqScan) plan).filter == null) return plan;
+        if (pool.getParallelism() < 2 || rowCount < PARALLEL_SCAN_THRESHOLD) return plan;
+        return new ParallelSeqScan((SeqScan) plan, pool);
+    }
+
+    private static boolean covers(IndexScan scan, List<String> columns) {
+        return columns != null && scan.index instanceof CompositeIndex && ((CompositeIndex) scan.index).covers(columns, scan.residual);
+    }
+
+    private static SeqScan seqScan(Table table, TableStatistics statistics, QueryPredicate<?> predicate,
+                                   List<List<QueryPredicate<?>>> conjunctions, int rowCount) {
+        long estimate = 0;
+        for (List<QueryPredicate<?>> conjunction : conjunctions)
+            estimate += conjunction.stream().mapToLong(statistics::estimateRows).min().orElse(rowCount);
+        return new SeqScan(table, predicate, VectorFilter.compile(predicate, table::getColumn), Math.min(estimate, rowCount));
+    }
+
+    static List<List<String>> explain(Plan plan, boolean analyzed) {
+        List<List<String>> rows = new ArrayList<>();
+        explain(plan, analyzed, "", rows);
+        return rows;
+    }
+
+    private static void explain(Plan plan, boolean analyzed, String indent, List<List<String>> rows) {
+        List<String> row = new ArrayList<>(asList(indent + plan.getClass().getSimpleName(), plan.describe(), String.valueOf(plan.estimate)));
+        if (analyzed) row.addAll(asList(String.valueOf(plan.examined), String.valueOf(plan.emitted), String.format("%.3f", plan.nanos / 1e6)));
+        rows.add(row);
+        for (Plan child : plan.children()) explain(child, analyzed, indent + "  ", rows);
+    }
+
+    static List<List<QueryPredicate<?>>> normalize(QueryPredicate<?> predicate) {
+        List<List<QueryPredicate<?>>> result = new ArrayList<>();
+        QueryPredicate<?> leaf = predicate.leaf();
+        if (predicate.and() == null) result.add(concat(leaf, emptyList()));
+        else for (List<QueryPredicate<?>> conjunction : normalize(predicate.and())) result.add(concat(leaf, conjunction));
+        if (predicate.or() != null) result.addAll(normalize(predicate.or()));
+        return result;
+    }
+
+    private static final class Access {
+        final Index<? extends Comparable<?>> index;
+        final List<QueryPredicate<?>> predicates;
+        final long rows;
+
+        Access(Index<? extends Comparable<?>> index, List<QueryPredicate<?>> predicates, long rows) {
+            this.index = index;
+            this.predicates = predicates;
+            this.rows = rows;
+        }
+    }
+
+    private static Access bestAccess(List<Index<? extends Comparable<?>>> indexes, TableStatistics statistics,
+                                     List<QueryPredicate<?>> conjunction, int rowCount) {
+        Access best = null;
+        for (QueryPredicate<?> predicate : conjunction) {
+            for (Index<? extends Comparable<?>> index : indexes) {
+                if (!index.supports(predicate)) continue;
+                long rows = estimateRows(index, statistics, predicate, rowCount);
+                if (best == null || rows < best.rows || rows == best.rows && index.getType() == IndexType.HASH)
+                    best = new Access(index, singletonList(predicate), rows);
+            }
+        }
+        for (Index<? extends Comparable<?>> index : indexes) {
+            if (!(index instanceof CompositeIndex)) continue;
+            List<QueryPredicate<?>> matched = ((CompositeIndex) index).match(conjunction);
+            if (matched.isEmpty()) continue;
+            long rows = estimateRows(statistics, matched, rowCount);
+            if (best == null || rows < best.rows) best = new Access(index, matched, rows);
+        }
+        return best;
+    }
+
+    private static long estimateRows(TableStatistics statistics, List<QueryPredicate<?>> matched, int rowCount) {
+        if (rowCount == 0) return 0;
+        double rows = rowCount;
+        for (int i = 0; i < matched.size(); i++) {
+            QueryPredicate<?> predicate = matched.get(i);
+            long estimate = statistics.estimateRows(predicate);
+            if (i + 1 < matched.size() && matched.get(i + 1).getColumn().equals(predicate.getColumn()))
+                estimate = Math.max(0, estimate + statistics.estimateRows(matched.get(++i)) - rowCount);
+            rows = rows * estimate / rowCount;
+        }
+        return Math.round(rows);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> long estimateRows(Index<T> index, TableStatistics statistics, QueryPredicate<?> predicate,
+                                                               int rowCount) {
+        CompareSign sign = predicate.getSign();
+        if (sign == CompareSign.EQ || sign == CompareSign.NE) return index.estimateRows((QueryPredicate<T>) predicate, rowCount);
+        return statistics.estimateRows(predicate);
+    }
+
+    private static IntPredicate compile(Table table, List<QueryPredicate<?>> predicates) {
+        IntPredicate result = null;
+        for (QueryPredicate<?> predicate : predicates) {
+            IntPredicate leaf = PredicateCompiler.compileLeaf(predicate, table.getColumn(predicate.getColumn()));
+            result = result == null ? leaf : result.and(leaf);
+        }
+        return result;
+    }
+
+}
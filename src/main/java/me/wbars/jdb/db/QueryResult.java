@@ -4,20 +4,26 @@ import me.wbars.jdb.table.Table;
 
 public class QueryResult {
     private final boolean ok;
-    private final Table table;
     private final String message;
+    private Table table;
+    private ResultCursor cursor;
 
     public static QueryResult ok(Table table) {
-        return new QueryResult(true, table, "OK");
+        return new QueryResult(true, table, null, "OK");
+    }
+
+    public static QueryResult streaming(ResultCursor cursor) {
+        return new QueryResult(true, null, cursor, "OK");
     }
 
     public static QueryResult fail(String message) {
-        return new QueryResult(false, null, message);
+        return new QueryResult(false, null, null, message);
     }
 
-    private QueryResult(boolean ok, Table table, String message) {
+    private QueryResult(boolean ok, Table table, ResultCursor cursor, String message) {
         this.ok = ok;
         this.table = table;
+        this.cursor = cursor;
         this.message = message;
     }
 
@@ -26,9 +32,18 @@ public class QueryResult {
     }
 
     public Table getTable() {
+        if (table == null && cursor != null) {
+            table = cursor.toTable();
+            cursor = null;
+        }
         return table;
     }
 
+    public ResultCursor getCursor() {
+        if (cursor == null && table != null) cursor = ResultCursor.of(table);
+        return cursor;
+    }
+
     public String getMessage() {
         return message;
     }
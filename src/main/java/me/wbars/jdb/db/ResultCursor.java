@@ -0,0 +1,48 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class ResultCursor implements Iterator<List<String>> {
+    private final String tableName;
+    private final List<ColumnData> columns;
+    private final Iterator<? extends List<String>> rows;
+
+    public ResultCursor(String tableName, List<ColumnData> columns, Iterator<? extends List<String>> rows) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    public static ResultCursor of(Table table) {
+        return new ResultCursor(table.getName(), table.getColumns(), table.getRows().iterator());
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<ColumnData> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rows.hasNext();
+    }
+
+    @Override
+    public List<String> next() {
+        return rows.next();
+    }
+
+    public Table toTable() {
+        List<List<String>> remaining = new ArrayList<>();
+        forEachRemaining(remaining::add);
+        return Table.create(tableName, columns, remaining);
+    }
+}
@@ -0,0 +1,49 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.table.TableRow;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import static java.util.stream.Collectors.toList;
+
+abstract class RowIdPlan extends Plan {
+    final Table table;
+
+    RowIdPlan(Table table, long estimate) {
+        super(estimate);
+        this.table = table;
+    }
+
+    abstract PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark);
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        List<Column> projection = columns.stream().map(table::getColumn).collect(toList());
+        PrimitiveIterator.OfInt rowIds = rowIds(reader, watermark);
+        return new Iterator<List<String>>() {
+            @Override
+            public boolean hasNext() {
+                return rowIds.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                return new TableRow(projection, rowIds.nextInt());
+            }
+        };
+    }
+
+    Bitmap collect(IndexReader reader, int watermark) {
+        long start = System.nanoTime();
+        Bitmap result = new Bitmap();
+        rowIds(reader, watermark).forEachRemaining((int rowId) -> result.add(rowId));
+        emitted = result.cardinality();
+        nanos = System.nanoTime() - start;
+        return result;
+    }
+}
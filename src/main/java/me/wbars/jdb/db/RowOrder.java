@@ -0,0 +1,27 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+
+interface RowOrder {
+    int compare(int a, int b);
+
+    static RowOrder of(Column column, boolean descending) {
+        RowOrder values;
+        if (column instanceof IntegerColumn) {
+            IntegerColumn ints = (IntegerColumn) column;
+            values = (a, b) -> Integer.compare(ints.getInt(a), ints.getInt(b));
+        } else {
+            StringColumn strings = (StringColumn) column;
+            values = (a, b) -> strings.decode(strings.getCode(a)).compareTo(strings.decode(strings.getCode(b)));
+        }
+        return (a, b) -> {
+            boolean aNull = column.isNull(a);
+            boolean bNull = column.isNull(b);
+            int compared = aNull || bNull ? Boolean.compare(!aNull, !bNull) : values.compare(a, b);
+            if (descending) compared = -compared;
+            return compared != 0 ? compared : Integer.compare(a, b);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.VectorFilter;
+import me.wbars.jdb.query.VectorProjection;
+import me.wbars.jdb.table.Table;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+
+final class SeqScan extends RowIdPlan {
+    final QueryPredicate<?> predicate;
+    final VectorFilter filter;
+
+    SeqScan(Table table, QueryPredicate<?> predicate, VectorFilter filter, long estimate) {
+        super(table, estimate);
+        this.predicate = predicate;
+        this.filter = filter;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        examined = watermark;
+        if (filter == null) return IntStream.range(0, watermark).iterator();
+        VectorFilter.Batch batch = filter.newBatch();
+        return new PrimitiveIterator.OfInt() {
+            private int start;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == batch.size() && start < watermark) {
+                    int length = Math.min(BATCH_SIZE, watermark - start);
+                    filter.filter(batch, start, length);
+                    start += length;
+                    next = 0;
+                }
+                return next < batch.size();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return batch.rowId(next++);
+            }
+        };
+    }
+
+    @Override
+    Iterator<List<String>> rows(IndexReader reader, int watermark, List<String> columns) {
+        examined = watermark;
+        VectorProjection projection = new VectorProjection(columns.stream().map(table::getColumn).collect(toList()));
+        VectorFilter.Batch batch = filter != null ? filter.newBatch() : null;
+        return new Iterator<List<String>>() {
+            private final List<List<String>> rows = new ArrayList<>(BATCH_SIZE);
+            private int start;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == rows.size() && start < watermark) {
+                    int length = Math.min(BATCH_SIZE, watermark - start);
+                    rows.clear();
+                    next = 0;
+                    if (filter == null) projection.project(start, length, rows);
+                    else {
+                        filter.filter(batch, start, length);
+                        projection.project(start, length, batch.selection(), batch.size(), rows);
+                    }
+                    start += length;
+                }
+                return next < rows.size();
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return rows.get(next++);
+            }
+        };
+    }
+
+    @Override
+    String describe() {
+        return predicate != null ? "filter: " + predicate : "all rows";
+    }
+}
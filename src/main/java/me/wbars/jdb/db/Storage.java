@@ -1,33 +1,304 @@
 package me.wbars.jdb.db;
 
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.JoinClause;
+import me.wbars.jdb.query.OrderBy;
 import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.SelectQuery;
 import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.Column;
 import me.wbars.jdb.table.ColumnData;
 import me.wbars.jdb.table.Table;
+import me.wbars.jdb.table.TableFiles;
 import me.wbars.jdb.table.TableRow;
+import me.wbars.jdb.utils.Bitmap;
+import me.wbars.jdb.utils.IntList;
+import me.wbars.jdb.utils.Pair;
 
-import java.util.HashMap;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
+import static me.wbars.jdb.db.LogRecords.*;
 import static me.wbars.jdb.utils.CollectionsUtils.*;
 
-public class Storage {
-    private final Map<String, Table> tables = new HashMap<>();
-    private final HashMap<String, Map<String, Index<? extends Comparable<?>>>> indexes = new HashMap<>();
+public class Storage implements Closeable {
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String TABLES_DIRECTORY = "tables";
+    private static final int INSERT_BATCH_SIZE = 4096;
 
-    public void createTable(String tableName, List<ColumnData> columns) {
-        tables.put(tableName, Table.create(tableName, columns, emptyList()));
+    private final Map<String, TableEntry> tables = new ConcurrentHashMap<>();
+    private final int indexFanOut;
+    private Path directory;
+    private Path tablesDirectory;
+    private int nextTableId;
+    private WriteAheadLog log;
+    private ScheduledExecutorService checkpointer;
+    private volatile ForkJoinPool scanPool = ForkJoinPool.commonPool();
+    private boolean closed;
+
+    private static class TableEntry {
+        final Table table;
+        final List<Index<? extends Comparable<?>>> indexes = new ArrayList<>();
+        final StampedLock lock = new StampedLock();
+        final ReentrantLock writers = new ReentrantLock();
+        TableStatistics statistics;
+        boolean dropped;
+        private volatile int visibleRows;
+
+        TableEntry(Table table) {
+            this.table = table;
+            this.statistics = TableStatistics.collect(table);
+            this.visibleRows = table.size();
+        }
+
+        int rowCount() {
+            return visibleRows;
+        }
+
+        synchronized void publish(int rowCount) {
+            if (rowCount > visibleRows) visibleRows = rowCount;
+        }
+    }
+
+    public Storage() {
+        this(BPlusTree.DEFAULT_FAN_OUT);
+    }
+
+    public Storage(int indexFanOut) {
+        this.indexFanOut = indexFanOut;
+    }
+
+    public static Storage open(Path directory) throws IOException {
+        return open(directory, BPlusTree.DEFAULT_FAN_OUT);
+    }
+
+    public static Storage open(Path directory, int indexFanOut) throws IOException {
+        return open(directory, indexFanOut, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    public static Storage open(Path directory, int indexFanOut, long checkpointIntervalMillis) throws IOException {
+        Storage storage = new Storage(indexFanOut);
+        storage.directory = directory;
+        storage.tablesDirectory = Files.createDirectories(directory.resolve(TABLES_DIRECTORY));
+        storage.log = WriteAheadLog.open(directory, storage.loadCheckpoint(), storage::replay);
+        storage.deleteOrphanTables();
+        if (checkpointIntervalMillis > 0) storage.scheduleCheckpoints(checkpointIntervalMillis);
+        return storage;
+    }
+
+    private long loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) return 0;
+
+        Checkpoint checkpoint = Checkpoint.read(file, tablesDirectory, indexFanOut);
+        checkpoint.tables.forEach((tableName, table) -> {
+            TableEntry entry = new TableEntry(table);
+            entry.indexes.addAll(checkpoint.indexes.getOrDefault(tableName, emptyList()));
+            tables.put(tableName, entry);
+        });
+        nextTableId = checkpoint.nextTableId;
+        return checkpoint.lsn;
+    }
+
+    private void scheduleCheckpoints(long intervalMillis) {
+        checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "jdb-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | UncheckedIOException e) {
+                // the log still holds every change since the last checkpoint, so the next run retries
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        if (log == null || closed) return;
+
+        long lsn = log.rotate();
+        try (Checkpoint.Writer writer = Checkpoint.writer(directory.resolve(CHECKPOINT_FILE), lsn, nextTableId, tables.size())) {
+            for (Map.Entry<String, TableEntry> e : tables.entrySet()) {
+                TableEntry entry = e.getValue();
+                entry.writers.lock();
+                long stamp = entry.lock.readLock();
+                try {
+                    entry.table.force();
+                    writer.writeTable(e.getKey(), entry.table, entry.indexes);
+                } finally {
+                    entry.lock.unlockRead(stamp);
+                    entry.writers.unlock();
+                }
+            }
+            writer.commit();
+        }
+        log.deleteBefore(lsn);
+    }
+
+    private void deleteOrphanTables() throws IOException {
+        List<Path> live = tables.values().stream().map(entry -> entry.table.getDirectory()).collect(toList());
+        try (Stream<Path> directories = Files.list(tablesDirectory)) {
+            for (Path directory : (Iterable<Path>) directories::iterator) {
+                if (!live.contains(directory)) TableFiles.delete(directory);
+            }
+        }
+    }
+
+    private void replay(DataInputStream in) throws IOException {
+        LogOperation operation = readOperation(in);
+        String tableName = readString(in);
+        if (operation == LogOperation.CREATE_TABLE) {
+            int tableId = in.readInt();
+            List<ColumnData> columns = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) columns.add(new ColumnData(readString(in), Type.values()[in.readByte()]));
+            nextTableId = Math.max(nextTableId, tableId + 1);
+            tables.put(tableName, new TableEntry(openTable(tableId, tableName, columns)));
+        } else if (operation == LogOperation.DROP_TABLE) {
+            dropTable(tableName);
+        } else if (operation == LogOperation.INSERT) {
+            int rowId = in.readInt();
+            List<String> row = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) row.add(readString(in));
+            TableEntry entry = entry(tableName);
+            if (rowId >= entry.table.size()) insertRow(entry, row);
+            entry.publish(entry.table.size());
+        } else if (operation == LogOperation.INSERT_BATCH) {
+            int firstRowId = in.readInt();
+            int rowCount = in.readInt();
+            int columnCount = in.readInt();
+            List<List<String>> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                List<String> row = new ArrayList<>(columnCount);
+                for (int j = 0; j < columnCount; j++) row.add(readString(in));
+                rows.add(row);
+            }
+            TableEntry entry = entry(tableName);
+            int applied = entry.table.size() - firstRowId;
+            if (applied < rowCount) insertRows(entry, rows.subList(Math.max(applied, 0), rowCount));
+            entry.publish(entry.table.size());
+        } else if (operation == LogOperation.CREATE_INDEX) {
+            createIndex(tableName, readString(in), IndexType.values()[in.readByte()]);
+        } else if (operation == LogOperation.CREATE_COMPOSITE_INDEX) {
+            IndexType type = IndexType.values()[in.readByte()];
+            createIndex(tableName, readStrings(in), readStrings(in), type);
+        }
+    }
+
+    private long append(LogOperation operation, LogRecords.Writer writer) {
+        return log != null ? log.append(encode(operation, writer)) : 0;
+    }
+
+    private void commit(long lsn) {
+        if (log != null) log.commit(lsn);
+    }
+
+    private void publish(TableEntry entry, Pair<Long, Integer> logged) {
+        commit(logged.first);
+        entry.publish(logged.second);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (checkpointer != null) checkpointer.shutdown();
+        setScanParallelism(0);
+        checkpoint();
+        closed = true;
+        for (TableEntry entry : tables.values()) {
+            long stamp = entry.lock.writeLock();
+            try {
+                entry.table.close();
+            } finally {
+                entry.lock.unlockWrite(stamp);
+            }
+        }
+        if (log != null) log.close();
+    }
+
+    private Table openTable(int tableId, String tableName, List<ColumnData> columns) throws IOException {
+        if (tablesDirectory == null) return Table.create(tableName, columns, emptyList());
+
+        Path directory = tablesDirectory.resolve(String.valueOf(tableId));
+        return Files.exists(directory) ? TableFiles.open(directory) : TableFiles.create(directory, tableName, columns);
+    }
+
+    private TableEntry entry(String tableName) {
+        TableEntry entry = tables.get(tableName);
+        if (entry == null) throw new IllegalArgumentException("Table does not exists");
+        return entry;
+    }
+
+    private <R> R read(TableEntry entry, Function<TableEntry, R> reader) {
+        long stamp = entry.lock.readLock();
+        try {
+            if (entry.dropped) throw new IllegalArgumentException("Table does not exists");
+            return reader.apply(entry);
+        } finally {
+            entry.lock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R write(String tableName, Function<TableEntry, R> writer) {
+        TableEntry entry = entry(tableName);
+        entry.writers.lock();
+        long stamp = entry.lock.writeLock();
+        try {
+            if (entry.dropped) throw new IllegalArgumentException("Table does not exists");
+            return writer.apply(entry);
+        } finally {
+            entry.lock.unlockWrite(stamp);
+            entry.writers.unlock();
+        }
+    }
+
+    public synchronized void createTable(String tableName, List<ColumnData> columns) {
+        if (tables.containsKey(tableName)) throw new IllegalArgumentException("Table already exists");
+        int tableId = nextTableId++;
+        Table table;
+        try {
+            table = openTable(tableId, tableName, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        commit(append(LogOperation.CREATE_TABLE, out -> {
+            writeString(out, tableName);
+            out.writeInt(tableId);
+            out.writeInt(columns.size());
+            for (ColumnData column : columns) {
+                writeString(out, column.first);
+                out.writeByte(column.second.ordinal());
+            }
+        }));
+        tables.put(tableName, new TableEntry(table));
     }
 
     public List<String> getTablesNames() {
         return tables.values().stream()
-                .map(Table::getName)
+                .map(entry -> entry.table.getName())
                 .collect(toList());
     }
 
@@ -35,28 +306,151 @@ public class Storage {
         return tables.containsKey(tableName);
     }
 
-    public void dropTable(String tableName) {
-        tables.remove(tableName);
+    public synchronized void dropTable(String tableName) {
+        write(tableName, entry -> {
+            commit(append(LogOperation.DROP_TABLE, out -> writeString(out, tableName)));
+            entry.dropped = true;
+            tables.remove(tableName);
+            try {
+                entry.table.close();
+                if (entry.table.getDirectory() != null) TableFiles.delete(entry.table.getDirectory());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
     }
 
     public List<ColumnData> getTableColumns(String tableName) {
-        return tables.get(tableName).getColumns();
+        return entry(tableName).table.getColumns();
     }
 
     public List<String> getTableColumnsNames(String tableName) {
-        return tables.get(tableName).getColumns().stream().map(p -> p.first).collect(toList());
+        return getTableColumns(tableName).stream().map(p -> p.first).collect(toList());
     }
 
     public void insertRow(String tableName, Map<String, String> columnsAndRows) {
-        Table table = tables.get(tableName);
-        List<String> row = table.getColumns().stream()
-                .map(c -> columnsAndRows.get(c.first))
+        List<String> row = getTableColumnsNames(tableName).stream()
+                .map(columnsAndRows::get)
                 .collect(toList());
-        table.addRow(new TableRow(row));
-        Map<String, Index<? extends Comparable<?>>> indexes = this.indexes.getOrDefault(tableName, emptyMap());
-        columnsAndRows.entrySet().stream()
-                .filter(r -> r.getValue() != null && indexes.containsKey(r.getKey()))
-                .forEach(r -> indexes.get(r.getKey()).insert(r.getValue(), table.getRows().size() - 1));
+        TableEntry entry = entry(tableName);
+        publish(entry, write(tableName, e -> {
+            int rowId = insertRow(e, row);
+            return new Pair<>(append(LogOperation.INSERT, out -> {
+                writeString(out, tableName);
+                out.writeInt(rowId);
+                out.writeInt(row.size());
+                for (String value : row) writeString(out, value);
+            }), rowId + 1);
+        }));
+    }
+
+    private int insertRow(TableEntry entry, List<String> row) {
+        int rowId = entry.table.addRow(row);
+        entry.indexes.forEach(index -> index.insert(rowId));
+        entry.statistics.add(rowId, rowId + 1);
+        return rowId;
+    }
+
+    public int insertRows(String tableName, List<String> columns, Iterator<List<String>> rows) {
+        List<String> tableColumns = getTableColumnsNames(tableName);
+        int[] positions = tableColumns.stream().mapToInt(columns::indexOf).toArray();
+        boolean reorder = !tableColumns.equals(columns);
+        List<List<String>> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        TableEntry entry = entry(tableName);
+        entry.writers.lock();
+        int firstRowId = entry.table.size();
+        long lsn = 0;
+        int read = 0;
+        int loaded = 0;
+        try {
+            while (rows.hasNext()) {
+                List<String> values = rows.next();
+                read++;
+                if (values.size() != columns.size())
+                    throw new IllegalArgumentException(String.format("Row %d has %d values, expected %d", read, values.size(), columns.size()));
+                batch.add(reorder ? reorder(values, positions) : values);
+                if (batch.size() == INSERT_BATCH_SIZE || !rows.hasNext()) {
+                    int firstRow = read - batch.size() + 1;
+                    lsn = write(tableName, e -> appendChunk(e, tableName, batch, firstRow));
+                    loaded += batch.size();
+                    batch.clear();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("%s; %d rows were loaded before the error", e.getMessage(), loaded), e);
+        } finally {
+            int lastRowId = firstRowId + loaded;
+            try {
+                if (loaded > 0) write(tableName, e -> index(e, firstRowId, lastRowId));
+            } finally {
+                entry.writers.unlock();
+            }
+            publish(entry, new Pair<>(lsn, lastRowId));
+        }
+        return loaded;
+    }
+
+    public long importRows(String tableName, List<String> columns, Path file) throws IOException {
+        Table table = entry(tableName).table;
+        List<String> tableColumns = getTableColumnsNames(tableName);
+        List<Type> types = columns.stream().map(c -> table.getColumn(c).getType()).collect(toList());
+        int[] targets = columns.stream().mapToInt(tableColumns::indexOf).toArray();
+        try (DelimitedReader reader = DelimitedReader.open(file, types, targets, tableColumns.size())) {
+            return insertRows(tableName, tableColumns, reader);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<String> reorder(List<String> values, int[] positions) {
+        List<String> row = new ArrayList<>(positions.length);
+        for (int position : positions) row.add(position < 0 ? null : values.get(position));
+        return row;
+    }
+
+    private long appendChunk(TableEntry entry, String tableName, List<List<String>> rows, int firstRow) {
+        int firstRowId;
+        try {
+            firstRowId = entry.table.addRows(rows);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(invalidRow(entry, rows, firstRow), e);
+        }
+        return append(LogOperation.INSERT_BATCH, out -> {
+            writeString(out, tableName);
+            out.writeInt(firstRowId);
+            out.writeInt(rows.size());
+            out.writeInt(entry.table.getColumns().size());
+            for (List<String> row : rows) writeRow(out, row);
+        });
+    }
+
+    private static String invalidRow(TableEntry entry, List<List<String>> rows, int firstRow) {
+        List<ColumnData> columns = entry.table.getColumns();
+        for (int row = 0; row < rows.size(); row++) {
+            for (int i = 0; i < columns.size(); i++) {
+                String value = rows.get(row).get(i);
+                if (columns.get(i).second != Type.INTEGER || value == null) continue;
+                try {
+                    Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return String.format("Row %d: `%s` is not an integer", firstRow + row, value);
+                }
+            }
+        }
+        return String.format("Rows %d-%d could not be inserted", firstRow, firstRow + rows.size() - 1);
+    }
+
+    private int insertRows(TableEntry entry, List<List<String>> rows) {
+        int firstRowId = entry.table.addRows(rows);
+        index(entry, firstRowId, firstRowId + rows.size());
+        return firstRowId;
+    }
+
+    private static int index(TableEntry entry, int fromRowId, int toRowId) {
+        entry.indexes.forEach(index -> index.insertAll(fromRowId, toRowId));
+        entry.statistics.add(fromRowId, toRowId);
+        return toRowId;
     }
 
     public List<List<String>> selectAllRows(String tableName) {
@@ -64,53 +458,257 @@ public class Storage {
     }
 
     public List<List<String>> selectRows(String tableName, List<String> columns, QueryPredicate<? extends Comparable<?>> predicate) {
-        List<String> tableColumnsNames = getTableColumnsNames(tableName);
-
-        Set<Integer> columnsIndexesToInclude = indexes(tableColumnsNames)
-                .filter(i -> columns.contains(tableColumnsNames.get(i)))
-                .collect(toSet());
-        List<List<String>> rows = tables.get(tableName).getRows();
-        return tryIndexScan(tableName, predicate, getTableColumns(tableName)).stream()
-                .sorted()
-                .map(i -> withIndexes(rows.get(i), columnsIndexesToInclude))
-                .collect(toList());
+        TableEntry entry = entry(tableName);
+        int watermark = entry.rowCount();
+        List<Column> projection = projection(entry, columns);
+        IntList rowIds = new IntList();
+        rowIds(entry, predicate, watermark).forEachRemaining((int rowId) -> rowIds.addInt(rowId));
+        return mapView(rowIds, i -> new TableRow(projection, i));
+    }
+
+    public ResultCursor openCursor(SelectQuery query) {
+        SelectPlan select = select(query);
+        return new ResultCursor(query.getTableName(), select.columns, select.rows());
+    }
+
+    public long exportRows(SelectQuery query, Path file) throws IOException {
+        ResultCursor cursor = openCursor(query);
+        long rowCount = 0;
+        try (DelimitedWriter out = DelimitedWriter.open(file)) {
+            for (; cursor.hasNext(); rowCount++) out.writeRow(cursor.next());
+        }
+        return rowCount;
+    }
+
+    public List<List<String>> explain(SelectQuery query, boolean analyze) {
+        SelectPlan select = select(query);
+        if (analyze) select.plan.analyze(select.reader, select.watermark, select.names());
+        return QueryPlanner.explain(select.plan, analyze);
+    }
+
+    private static final class SelectPlan {
+        final Plan plan;
+        final List<ColumnData> columns;
+        final IndexReader reader;
+        final int watermark;
+
+        SelectPlan(Plan plan, List<ColumnData> columns, IndexReader reader, int watermark) {
+            this.plan = plan;
+            this.columns = columns;
+            this.reader = reader;
+            this.watermark = watermark;
+        }
+
+        List<String> names() {
+            return columns.stream().map(c -> c.first).collect(toList());
+        }
+
+        Iterator<List<String>> rows() {
+            return plan.rows(reader, watermark, names());
+        }
+    }
+
+    private SelectPlan select(SelectQuery query) {
+        if (query.getJoin() != null) {
+            JoinScan scan = new JoinScan(query.getTableName(), query.getJoin());
+            List<ColumnData> columns = query.getColumns().stream()
+                    .map(c -> new ColumnData(c, scan.column(c).getType()))
+                    .collect(toList());
+            int watermark = scan.left.rowCount();
+            return new SelectPlan(scan.plan(query), columns, indexReader(scan.left, watermark), watermark);
+        }
+        TableEntry entry = entry(query.getTableName());
+        int watermark = entry.rowCount();
+        List<ColumnData> columns = query.isAggregate()
+                ? aggregateColumns(entry, query.getAggregates())
+                : entry.table.getColumns().stream().filter(c -> query.getColumns().contains(c.first)).collect(toList());
+        return new SelectPlan(plan(entry, query, watermark), columns, indexReader(entry, watermark), watermark);
     }
 
-    public void createIndex(String tableName, String column) {
-        if (!tables.containsKey(tableName)) throw new IllegalArgumentException("Table does not exists");
-        if (indexes.getOrDefault(tableName, emptyMap()).containsKey(column))
-            throw new IllegalArgumentException("Index already exists");
+    private List<ColumnData> aggregateColumns(TableEntry entry, List<Aggregate> items) {
+        return items.stream().map(item -> {
+            switch (item.getFunction()) {
+                case COUNT:
+                case SUM:
+                    return new ColumnData(item.getName(), Type.INTEGER);
+                case AVG:
+                    return new ColumnData(item.getName(), Type.STRING);
+                default:
+                    return new ColumnData(item.getName(), entry.table.getColumn(item.getColumn()).getType());
+            }
+        }).collect(toList());
+    }
+
+    private final class JoinScan {
+        final JoinClause join;
+        final TableEntry left;
+        final TableEntry right;
+        final JoinColumns names;
+
+        JoinScan(String tableName, JoinClause join) {
+            this.join = join;
+            this.left = entry(tableName);
+            this.right = entry(join.getTableName());
+            this.names = new JoinColumns(tableName, left.table.getColumns(), join.getTableName(), right.table.getColumns());
+        }
+
+        Column column(String reference) {
+            return (names.isLeft(reference) ? left : right).table.getColumn(names.column(reference));
+        }
+
+        Plan plan(SelectQuery query) {
+            QueryPredicate<?> predicate = query.getPredicate();
+            OrderBy orderBy = query.getOrderBy();
+            boolean outer = join.getType() == JoinClause.Type.LEFT;
+            QueryPredicate<?> leftPredicate = null;
+            QueryPredicate<?> rightPredicate = null;
+            QueryPredicate<?> residual = predicate;
+            if (predicate != null) {
+                List<String> references = new ArrayList<>();
+                predicate.forEachColumn(references::add);
+                if (references.stream().allMatch(names::isLeft)) leftPredicate = predicate.rename(names::column);
+                else if (!outer && references.stream().noneMatch(names::isLeft)) rightPredicate = predicate.rename(names::column);
+                if (leftPredicate != null || rightPredicate != null) residual = null;
+            }
+
+            boolean leftKeyFirst = names.isLeft(join.getLeftColumn());
+            String leftKey = names.column(leftKeyFirst ? join.getLeftColumn() : join.getRightColumn());
+            String rightKey = names.column(leftKeyFirst ? join.getRightColumn() : join.getLeftColumn());
+            JoinInput leftInput = input(left, leftKey, leftPredicate);
+            JoinInput rightInput = input(right, rightKey, rightPredicate);
+            Column orderColumn = orderBy != null ? column(orderBy.getColumn()) : null;
+            boolean orderLeft = orderBy != null && names.isLeft(orderBy.getColumn());
+            Plan plan = QueryPlanner.join(leftInput, rightInput, outer, residual,
+                    residual != null ? filter(residual) : null, orderBy, orderColumn, orderLeft);
+            return QueryPlanner.limit(plan, query.getOffset(), query.getLimit());
+        }
+
+        private JoinInput input(TableEntry entry, String key, QueryPredicate<?> predicate) {
+            int watermark = entry.rowCount();
+            RowIdPlan plan = scan(entry, predicate, watermark);
+            List<Index<? extends Comparable<?>>> indexes = read(entry, e -> new ArrayList<>(e.indexes));
+            return new JoinInput(entry.table.getName(), entry.table, indexes, key, predicate, plan,
+                    indexReader(entry, watermark), watermark);
+        }
 
-        if (getType(column, getTableColumns(tableName)) == Type.STRING) {
-            indexes.compute(tableName, (s, b) -> new HashMap<>()).put(column, Index.createStringIndex(tables.get(tableName), column));
-        } else {
-            indexes.compute(tableName, (s, b) -> new HashMap<>()).put(column, Index.createIntIndex(tables.get(tableName), column));
+        private PairPredicate filter(QueryPredicate<?> predicate) {
+            Column column = column(predicate.getColumn());
+            PairPredicate result = names.isLeft(predicate.getColumn())
+                    ? (l, r) -> predicate.test(column, l)
+                    : (l, r) -> r >= 0 && predicate.test(column, r);
+            if (predicate.and() != null) {
+                PairPredicate first = result;
+                PairPredicate second = filter(predicate.and());
+                result = (l, r) -> first.test(l, r) && second.test(l, r);
+            }
+            if (predicate.or() != null) {
+                PairPredicate first = result;
+                PairPredicate second = filter(predicate.or());
+                result = (l, r) -> first.test(l, r) || second.test(l, r);
+            }
+            return result;
         }
     }
 
-    private static Type getType(String columnName, List<ColumnData> columns) {
-        return columns.stream()
-                .filter(r -> r.first.equals(columnName))
-                .map(r -> r.second).findAny()
-                .orElseThrow(IllegalArgumentException::new);
+    private List<Column> projection(TableEntry entry, List<String> columns) {
+        return entry.table.getColumns().stream()
+                .map(c -> c.first)
+                .filter(columns::contains)
+                .map(entry.table::getColumn)
+                .collect(toList());
+    }
+
+    public void createIndex(String tableName, String column, IndexType type) {
+        createIndex(tableName, singletonList(column), emptyList(), type);
     }
 
-    private List<Integer> tryIndexScan(String tableName, QueryPredicate predicate, List<ColumnData> tableColumns) {
-        Index<? extends Comparable<?>> index = predicate != null ? indexes.getOrDefault(tableName, emptyMap()).get(predicate.getColumn()) : null;
-        List<Integer> indexes = index != null ? index.scan(predicate) : seqScan(predicate, tables.get(tableName), tableColumns);
-        if (predicate == null) return indexes;
+    public synchronized void createIndex(String tableName, List<String> columns, List<String> included, IndexType type) {
+        write(tableName, entry -> {
+            if (findIndex(entry, columns, included, type) != null) throw new IllegalArgumentException("Index already exists");
+
+            Index<? extends Comparable<?>> index = Index.create(type, columns, included, entry.table, indexFanOut);
+            if (columns.size() == 1 && included.isEmpty()) commit(append(LogOperation.CREATE_INDEX, out -> {
+                writeString(out, tableName);
+                writeString(out, columns.get(0));
+                out.writeByte(type.ordinal());
+            }));
+            else commit(append(LogOperation.CREATE_COMPOSITE_INDEX, out -> {
+                writeString(out, tableName);
+                out.writeByte(type.ordinal());
+                writeStrings(out, columns);
+                writeStrings(out, included);
+            }));
+            return entry.indexes.add(index);
+        });
+    }
+
+    private Index<? extends Comparable<?>> findIndex(TableEntry entry, List<String> columns, List<String> included, IndexType type) {
+        return entry.indexes.stream()
+                .filter(index -> index.getColumns().equals(columns) && index.getIncludedColumns().equals(included))
+                .filter(index -> index.getType() == type)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private PrimitiveIterator.OfInt rowIds(TableEntry entry, QueryPredicate<?> predicate, int watermark) {
+        return scan(entry, predicate, watermark).rowIds(indexReader(entry, watermark), watermark);
+    }
+
+    private RowIdPlan scan(TableEntry entry, QueryPredicate<?> predicate, int watermark) {
+        return read(entry, e -> QueryPlanner.parallelize(QueryPlanner.plan(e.table, e.indexes, e.statistics, predicate, watermark), scanPool, watermark));
+    }
+
+    private Plan plan(TableEntry entry, SelectQuery query, int watermark) {
+        QueryPredicate<?> predicate = query.getPredicate();
+        OrderBy orderBy = query.getOrderBy();
+        int limit = query.getLimit();
+        int offset = query.getOffset();
+        int top = limit == SelectQuery.NO_LIMIT ? limit : (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        List<String> covered = query.isAggregate() || orderBy != null ? null : query.getColumns();
+        return read(entry, e -> {
+            RowIdPlan scan = QueryPlanner.parallelize(
+                    QueryPlanner.plan(e.table, e.indexes, e.statistics, predicate, covered, watermark), scanPool, watermark);
+            Plan plan = query.isAggregate()
+                    ? QueryPlanner.aggregate(scan, e.table, e.indexes, e.statistics, predicate, query.getAggregates(), query.getGroupBy(),
+                    orderBy, scanPool, watermark)
+                    : QueryPlanner.order(scan, e.table, e.indexes, predicate, orderBy, top, watermark);
+            return QueryPlanner.limit(plan, offset, limit);
+        });
+    }
+
+    private IndexReader indexReader(TableEntry entry, int watermark) {
+        return new IndexReader() {
+            @Override
+            public Bitmap scan(Index<? extends Comparable<?>> index, List<QueryPredicate<?>> access) {
+                return read(entry, e -> index.scan(access).limit(watermark));
+            }
+
+            @Override
+            public <R> R locked(Supplier<R> action) {
+                return read(entry, e -> action.get());
+            }
+        };
+    }
+
+    public synchronized void setScanParallelism(int parallelism) {
+        ForkJoinPool previous = scanPool;
+        scanPool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        if (previous != ForkJoinPool.commonPool()) previous.shutdown();
+    }
+
+    public void analyzeTable(String tableName) {
+        write(tableName, entry -> entry.statistics = TableStatistics.analyze(entry.table));
+    }
 
-        List<Integer> and = predicate.and() != null ? tryIndexScan(tableName, predicate.and(), tableColumns) : indexes;
-        List<Integer> or = predicate.or() != null ? tryIndexScan(tableName, predicate.or(), tableColumns) : emptyList();
-        return union(intersection(indexes, and), or);
+    public List<List<String>> describeTable(String tableName) {
+        return read(entry(tableName), entry -> entry.statistics.describe());
     }
 
-    private List<Integer> seqScan(QueryPredicate predicate, Table table, List<ColumnData> tableColumns) {
-        List<List<String>> rows = table.getRows();
-        return predicate != null ? indexes(rows).filter(i -> predicate.test(rows.get(i), tableColumns)).collect(toList()) : indexes(rows).collect(toList());
+    public boolean indexExists(String tableName, String column, IndexType type) {
+        return indexExists(tableName, singletonList(column), emptyList(), type);
     }
 
-    public boolean indexExists(String tableName, String column) {
-        return indexes.getOrDefault(tableName, emptyMap()).containsKey(column);
+    public boolean indexExists(String tableName, List<String> columns, List<String> included, IndexType type) {
+        return read(entry(tableName), entry -> findIndex(entry, columns, included, type) != null);
     }
 }
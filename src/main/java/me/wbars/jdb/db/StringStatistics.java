@@ -0,0 +1,117 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.StringColumn;
+import me.wbars.jdb.utils.HyperLogLog;
+
+import java.util.Arrays;
+
+final class StringStatistics extends ColumnStatistics {
+    private final StringColumn column;
+    private String min;
+    private String max;
+    private String[] bounds = new String[0];
+    private String[] sample = new String[0];
+    private int[] buckets = new int[0];
+
+    StringStatistics(StringColumn column) {
+        super(column);
+        this.column = column;
+    }
+
+    @Override
+    long hash(int row) {
+        return HyperLogLog.hash(column.getCode(row));
+    }
+
+    @Override
+    void addBounds(int row) {
+        int code = column.getCode(row);
+        if (code < buckets.length && buckets[code] >= 0) return;
+
+        String value = column.decode(code);
+        if (min == null || value.compareTo(min) < 0) min = value;
+        if (max == null || value.compareTo(max) > 0) max = value;
+    }
+
+    @Override
+    int bucket(int row) {
+        int code = column.getCode(row);
+        if (code >= buckets.length) {
+            int size = buckets.length;
+            buckets = Arrays.copyOf(buckets, Math.max(code + 1, size * 2));
+            Arrays.fill(buckets, size, buckets.length, -1);
+        }
+        if (buckets[code] < 0) buckets[code] = bucket(column.decode(code));
+        return buckets[code];
+    }
+
+    private int bucket(String value) {
+        int last = bounds.length - 1;
+        if (value.compareTo(bounds[last]) > 0) {
+            bounds[last] = value;
+            return last;
+        }
+        int index = Arrays.binarySearch(bounds, value);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    @Override
+    int sample(int rowCount, int step) {
+        sample = new String[(rowCount + step - 1) / step];
+        int size = 0;
+        for (int row = 0; row < rowCount; row += step) {
+            if (!column.isNull(row)) sample[size++] = column.decode(column.getCode(row));
+        }
+        Arrays.sort(sample, 0, size);
+        return size;
+    }
+
+    @Override
+    void setBounds(int[] sampleIndexes) {
+        bounds = new String[sampleIndexes.length];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = sample[sampleIndexes[i]];
+        sample = new String[0];
+        Arrays.fill(buckets, -1);
+    }
+
+    @Override
+    boolean accepts(Object value) {
+        return value instanceof String;
+    }
+
+    @Override
+    int compareToMin(Object value) {
+        return ((String) value).compareTo(min);
+    }
+
+    @Override
+    int compareToMax(Object value) {
+        return ((String) value).compareTo(max);
+    }
+
+    @Override
+    int compareToBound(Object value, int bucket) {
+        return ((String) value).compareTo(bounds[bucket]);
+    }
+
+    @Override
+    double fraction(Object value, int bucket, boolean inclusive) {
+        String lower = bucket > 0 ? bounds[bucket - 1] : min;
+        return ((String) value).compareTo(lower) <= 0 ? 0 : 0.5;
+    }
+
+    @Override
+    String min() {
+        return min;
+    }
+
+    @Override
+    String max() {
+        return max;
+    }
+
+    @Override
+    String bound(int bucket) {
+        return bounds[bucket];
+    }
+}
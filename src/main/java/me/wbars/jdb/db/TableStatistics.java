@@ -0,0 +1,72 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+final class TableStatistics {
+    private final Map<String, ColumnStatistics> columns = new LinkedHashMap<>();
+    private final List<ColumnData> columnsData;
+    private int rowCount;
+
+    private TableStatistics(Table table) {
+        columnsData = table.getColumns();
+        for (ColumnData column : columnsData) columns.put(column.first, ColumnStatistics.create(table.getColumn(column.first)));
+    }
+
+    static TableStatistics collect(Table table) {
+        TableStatistics statistics = new TableStatistics(table);
+        statistics.add(0, table.size());
+        return statistics;
+    }
+
+    static TableStatistics analyze(Table table) {
+        TableStatistics statistics = collect(table);
+        statistics.columns.values().forEach(column -> column.buildHistogram(statistics.rowCount, 1));
+        return statistics;
+    }
+
+    void add(int fromRowId, int toRowId) {
+        for (ColumnStatistics column : columns.values()) {
+            for (int row = fromRowId; row < toRowId; row++) column.add(row);
+        }
+        rowCount = Math.max(rowCount, toRowId);
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    long estimateRows(QueryPredicate<?> predicate) {
+        ColumnStatistics column = columns.get(predicate.getColumn());
+        if (column == null || !column.accepts(predicate.getValueToCompare())) return rowCount;
+        return column.estimateRows(predicate.getSign(), predicate.getValueToCompare());
+    }
+
+    long estimateGroups(List<String> groupBy) {
+        long groups = 1;
+        for (String name : groupBy) {
+            ColumnStatistics column = columns.get(name);
+            groups *= column.distinctCount() + (column.nullCount() > 0 ? 1 : 0);
+            if (groups >= rowCount) return rowCount;
+        }
+        return groups;
+    }
+
+    List<List<String>> describe() {
+        List<List<String>> rows = new ArrayList<>();
+        for (ColumnData data : columnsData) {
+            ColumnStatistics column = columns.get(data.first);
+            rows.add(asList(data.first, data.second.name(), String.valueOf(rowCount), String.valueOf(column.nullCount()),
+                    String.valueOf(column.distinctCount()), column.min(), column.max(), column.histogram()));
+        }
+        return rows;
+    }
+}
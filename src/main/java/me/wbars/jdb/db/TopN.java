@@ -0,0 +1,86 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.SelectQuery;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import static java.util.Collections.singletonList;
+
+final class TopN extends RowIdPlan {
+    final RowIdPlan input;
+    final Column column;
+    final OrderBy orderBy;
+    final int limit;
+
+    TopN(RowIdPlan input, Column column, OrderBy orderBy, int limit) {
+        super(input.table, limit == SelectQuery.NO_LIMIT ? input.estimate : Math.min(limit, input.estimate));
+        this.input = input;
+        this.column = column;
+        this.orderBy = orderBy;
+        this.limit = limit;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        RowOrder order = RowOrder.of(column, orderBy.isDescending());
+        Bitmap rows = input.collect(reader, watermark);
+        examined = input.emitted;
+        if (limit == SelectQuery.NO_LIMIT) {
+            Integer[] sorted = new Integer[rows.cardinality()];
+            PrimitiveIterator.OfInt iterator = rows.iterator();
+            for (int i = 0; i < sorted.length; i++) sorted[i] = iterator.nextInt();
+            Arrays.sort(sorted, order::compare);
+            return Arrays.stream(sorted).mapToInt(Integer::intValue).iterator();
+        }
+
+        int[] heap = new int[limit];
+        int size = 0;
+        for (PrimitiveIterator.OfInt iterator = rows.iterator(); iterator.hasNext() && limit > 0; ) {
+            int row = iterator.nextInt();
+            if (size < limit) siftUp(heap, size++, row, order);
+            else if (order.compare(row, heap[0]) < 0) siftDown(heap, size, row, order);
+        }
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) sorted[i] = heap[i];
+        Arrays.sort(sorted, order::compare);
+        return Arrays.stream(sorted).mapToInt(Integer::intValue).iterator();
+    }
+
+    private static void siftUp(int[] heap, int i, int row, RowOrder order) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(heap[parent], row) >= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, int row, RowOrder order) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) child++;
+            if (order.compare(heap[child], row) <= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = row;
+    }
+
+    @Override
+    String describe() {
+        return "order by " + orderBy + (limit != SelectQuery.NO_LIMIT ? "; top " + limit : "");
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return singletonList(input);
+    }
+}
@@ -0,0 +1,153 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.utils.Bitmap;
+import me.wbars.jdb.utils.IntList;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static me.wbars.jdb.query.CompareSign.*;
+
+public class TreeIndex<T extends Comparable<T>> extends Index<T> {
+    private static final int MERGE_RATIO = 8;
+
+    private final int fanOut;
+    private BPlusTree<T> tree;
+
+    private TreeIndex(String columnName, Column column, IntFunction<T> keys, int fanOut, BPlusTree<T> tree) {
+        super(columnName, column, keys);
+        this.fanOut = fanOut;
+        this.tree = tree;
+    }
+
+    static <T extends Comparable<T>> TreeIndex<T> build(String columnName, Column column, IntFunction<T> keys, int fanOut) {
+        TreeIndex<T> index = new TreeIndex<>(columnName, column, keys, fanOut, new BPlusTree<>(fanOut));
+        index.insertAll();
+        return index;
+    }
+
+    static <T extends Comparable<T>> TreeIndex<T> load(String columnName, Column column, IntFunction<T> keys, int fanOut,
+                                                       List<Map.Entry<T, IntList>> sortedEntries) {
+        return new TreeIndex<>(columnName, column, keys, fanOut, BPlusTree.bulkLoad(sortedEntries, fanOut));
+    }
+
+    @Override
+    void insertAll(int fromRowId, int toRowId) {
+        TreeMap<T, IntList> batch = groupByKey(fromRowId, toRowId);
+        if ((long) (toRowId - fromRowId) * MERGE_RATIO < fromRowId) {
+            batch.forEach(this::append);
+            return;
+        }
+        tree = BPlusTree.bulkLoad(merge(batch), fanOut);
+    }
+
+    private void append(T key, IntList rowIds) {
+        IntList existing = tree.find(key);
+        if (existing != null) {
+            existing.addInts(rowIds);
+            return;
+        }
+        tree.insert(key, rowIds.getInt(0));
+        if (rowIds.size() > 1) tree.find(key).addInts(rowIds, 1);
+    }
+
+    private List<Map.Entry<T, IntList>> merge(TreeMap<T, IntList> batch) {
+        List<Map.Entry<T, IntList>> existing = new ArrayList<>(tree.size());
+        tree.forEach((key, rowIds) -> existing.add(new AbstractMap.SimpleImmutableEntry<>(key, rowIds)));
+
+        List<Map.Entry<T, IntList>> merged = new ArrayList<>(existing.size() + batch.size());
+        Iterator<Map.Entry<T, IntList>> left = existing.iterator();
+        Iterator<Map.Entry<T, IntList>> right = batch.entrySet().iterator();
+        Map.Entry<T, IntList> a = left.hasNext() ? left.next() : null;
+        Map.Entry<T, IntList> b = right.hasNext() ? right.next() : null;
+        while (a != null || b != null) {
+            int cmp = a == null ? 1 : b == null ? -1 : a.getKey().compareTo(b.getKey());
+            if (cmp < 0) {
+                merged.add(a);
+                a = left.hasNext() ? left.next() : null;
+            } else if (cmp > 0) {
+                merged.add(b);
+                b = right.hasNext() ? right.next() : null;
+            } else {
+                a.getValue().addInts(b.getValue());
+                merged.add(a);
+                a = left.hasNext() ? left.next() : null;
+                b = right.hasNext() ? right.next() : null;
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public IndexType getType() {
+        return IndexType.TREE;
+    }
+
+    @Override
+    public boolean supports(CompareSign sign) {
+        return true;
+    }
+
+    @Override
+    public Bitmap scan(QueryPredicate<T> predicate) {
+        Bitmap result = new Bitmap();
+        Consumer<IntList> collect = rowIds -> rowIds.forEachInt(result::add);
+        T value = predicate.getValueToCompare();
+        CompareSign sign = predicate.getSign();
+
+        if (sign == EQ) tree.scan(value, true, value, true, collect);
+        else if (sign == GT) tree.scan(value, false, null, false, collect);
+        else if (sign == GTE) tree.scan(value, true, null, false, collect);
+        else if (sign == LT) tree.scan(null, false, value, false, collect);
+        else if (sign == LTE) tree.scan(null, false, value, true, collect);
+        else if (sign == NE) {
+            tree.scan(null, false, value, false, collect);
+            tree.scan(value, false, null, false, collect);
+        } else throw new IllegalArgumentException();
+        return result;
+    }
+
+    boolean walk(boolean descending, BiPredicate<T, IntList> consumer) {
+        return tree.walk(descending, consumer);
+    }
+
+    void scan(T from, T to, BiConsumer<T, IntList> consumer) {
+        tree.scanEntries(from, true, to, true, consumer);
+    }
+
+    @Override
+    void insert(T key, int rowId) {
+        tree.insert(key, rowId);
+    }
+
+    @Override
+    long estimateRows(QueryPredicate<T> predicate, int rowCount) {
+        CompareSign sign = predicate.getSign();
+        if (sign != EQ && sign != NE) return rowCount;
+
+        IntList rowIds = tree.find(predicate.getValueToCompare());
+        int equal = rowIds != null ? rowIds.size() : 0;
+        return sign == EQ ? equal : rowCount - equal;
+    }
+
+    @Override
+    int keyCount() {
+        return tree.size();
+    }
+
+    @Override
+    void forEachEntry(BiConsumer<T, IntList> consumer) {
+        tree.forEach(consumer);
+    }
+}
@@ -0,0 +1,37 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.utils.Bitmap;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+final class Union extends RowIdPlan {
+    final List<IndexScan> branches;
+
+    Union(Table table, List<IndexScan> branches, long estimate) {
+        super(table, estimate);
+        this.branches = branches;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt rowIds(IndexReader reader, int watermark) {
+        Bitmap result = new Bitmap();
+        examined = 0;
+        for (IndexScan branch : branches) {
+            result = result.or(branch.collect(reader, watermark));
+            examined += branch.emitted;
+        }
+        return result.iterator();
+    }
+
+    @Override
+    String describe() {
+        return branches.size() + " branches";
+    }
+
+    @Override
+    List<? extends Plan> children() {
+        return branches;
+    }
+}
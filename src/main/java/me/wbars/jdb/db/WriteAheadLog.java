@@ -0,0 +1,203 @@
+package me.wbars.jdb.db;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+
+public class WriteAheadLog implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private FileChannel channel;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedLsn;
+    private long durableLsn;
+    private boolean flushing;
+    private IOException failure;
+
+    private WriteAheadLog(Path directory, FileChannel channel, long end) {
+        this.directory = directory;
+        this.channel = channel;
+        this.appendedLsn = end;
+        this.durableLsn = end;
+    }
+
+    public interface RecordHandler {
+        void accept(DataInputStream record) throws IOException;
+    }
+
+    public static WriteAheadLog open(Path directory, long fromLsn, RecordHandler replay) throws IOException {
+        deleteBefore(directory, fromLsn);
+        FileChannel channel = null;
+        long end = fromLsn;
+        List<Long> starts = segmentStarts(directory);
+        for (int i = 0; i < starts.size(); i++) {
+            if (channel != null) channel.close();
+            channel = FileChannel.open(segment(directory, starts.get(i)), READ, WRITE);
+            long length = replay(channel, replay);
+            end = starts.get(i) + length;
+            if (length < channel.size()) {
+                channel.truncate(length);
+                for (long later : starts.subList(i + 1, starts.size())) Files.delete(segment(directory, later));
+                break;
+            }
+        }
+        if (channel == null) channel = FileChannel.open(segment(directory, end), CREATE, READ, WRITE);
+        channel.position(channel.size());
+        return new WriteAheadLog(directory, channel, end);
+    }
+
+    private static Path segment(Path directory, long start) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+    }
+
+    private static List<Long> segmentStarts(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(toList());
+        }
+    }
+
+    private static void deleteBefore(Path directory, long lsn) throws IOException {
+        for (long start : segmentStarts(directory)) {
+            if (start < lsn) Files.delete(segment(directory, start));
+        }
+    }
+
+    private static long replay(FileChannel channel, RecordHandler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        long end = 0;
+        byte[] header = new byte[HEADER_SIZE];
+        while (readFully(in, header)) {
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            int length = headerBuffer.getInt();
+            int checksum = headerBuffer.getInt();
+            if (length < 0 || length > channel.size() - end - HEADER_SIZE) break;
+
+            byte[] payload = new byte[length];
+            if (!readFully(in, payload) || checksum(payload) != checksum) break;
+            handler.accept(new DataInputStream(new ByteArrayInputStream(payload)));
+            end += HEADER_SIZE + length;
+        }
+        return end;
+    }
+
+    private static boolean readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0) return false;
+            read += n;
+        }
+        return true;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    public synchronized long append(byte[] payload) {
+        pending.write(ByteBuffer.allocate(HEADER_SIZE).putInt(payload.length).putInt(checksum(payload)).array(), 0, HEADER_SIZE);
+        pending.write(payload, 0, payload.length);
+        appendedLsn += HEADER_SIZE + payload.length;
+        return appendedLsn;
+    }
+
+    public void commit(long lsn) {
+        byte[] batch;
+        long batchEnd;
+        FileChannel target;
+        synchronized (this) {
+            while (flushing && durableLsn < lsn) waitForFlush();
+            checkFailure();
+            if (durableLsn >= lsn) return;
+
+            flushing = true;
+            batch = pending.toByteArray();
+            batchEnd = appendedLsn;
+            target = channel;
+            pending.reset();
+        }
+
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) target.write(buffer);
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            flushing = false;
+            if (error == null) durableLsn = batchEnd;
+            else failure = error;
+            notifyAll();
+            checkFailure();
+        }
+    }
+
+    public long rotate() throws IOException {
+        commit(appendedLsn());
+        synchronized (this) {
+            while (flushing) waitForFlush();
+            checkFailure();
+            FileChannel next = FileChannel.open(segment(directory, durableLsn), CREATE, READ, WRITE);
+            channel.close();
+            channel = next;
+            return durableLsn;
+        }
+    }
+
+    public void deleteBefore(long lsn) throws IOException {
+        deleteBefore(directory, lsn);
+    }
+
+    private void waitForFlush() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for log flush", e);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit(appendedLsn());
+        channel.close();
+    }
+
+    private synchronized long appendedLsn() {
+        return appendedLsn;
+    }
+}
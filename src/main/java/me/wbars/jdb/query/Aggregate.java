@@ -0,0 +1,38 @@
+package me.wbars.jdb.query;
+
+public class Aggregate {
+    public enum Function {
+        VALUE, COUNT, SUM, MIN, MAX, AVG
+    }
+
+    private final Function function;
+    private final String column;
+
+    public Aggregate(Function function, String column) {
+        this.function = function;
+        this.column = column;
+    }
+
+    public static Aggregate value(String column) {
+        return new Aggregate(Function.VALUE, column);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getName() {
+        if (function == Function.VALUE) return column;
+        return function.name().toLowerCase() + "(" + (column != null ? column : "*") + ")";
+    }
+
+    @Override
+    public String toString() {
+        String argument = column != null ? "`" + column + "`" : "*";
+        return function == Function.VALUE ? argument : function.name().toLowerCase() + "(" + argument + ")";
+    }
+}
@@ -0,0 +1,21 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.QueryResult;
+
+public class AnalyzeTableQuery implements Query {
+    private final String tableName;
+
+    public AnalyzeTableQuery(String tableName) {
+        this.tableName = tableName;
+    }
+
+    @Override
+    public QueryResult execute(DatabaseService service) {
+        return service.analyzeTable(tableName);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
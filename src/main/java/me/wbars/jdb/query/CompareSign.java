@@ -1,7 +1,17 @@
 package me.wbars.jdb.query;
 
 public enum CompareSign {
-    GT, LT, LTE, GTE, EQ, NE;
+    GT(">"), LT("<"), LTE("<="), GTE(">="), EQ("="), NE("!=");
+
+    private final String alias;
+
+    CompareSign(String alias) {
+        this.alias = alias;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
 
     public static CompareSign fromAlias(String operator) {
         if (operator.equals(">")) return GT;
@@ -12,4 +22,13 @@ public enum CompareSign {
         if (operator.equals("!=")) return NE;
         throw new IllegalArgumentException();
     }
+
+    public boolean test(int compareResult) {
+        if (this == EQ) return compareResult == 0;
+        if (this == GT) return compareResult > 0;
+        if (this == LT) return compareResult < 0;
+        if (this == LTE) return compareResult <= 0;
+        if (this == GTE) return compareResult >= 0;
+        return compareResult != 0;
+    }
 }
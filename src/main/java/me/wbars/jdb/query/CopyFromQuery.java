@@ -0,0 +1,36 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.QueryResult;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+public class CopyFromQuery implements Query {
+    private final String tableName;
+    private final List<String> columns;
+    private final String file;
+
+    public CopyFromQuery(String tableName, List<String> columns, String file) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.file = file;
+    }
+
+    @Override
+    public QueryResult execute(DatabaseService service) {
+        return service.copyFrom(tableName, columns, Paths.get(file));
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public String getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,35 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.QueryResult;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+public class CopyToQuery implements Query {
+    private final SelectQuery select;
+    private final String file;
+
+    public CopyToQuery(SelectQuery select, String file) {
+        this.select = select;
+        this.file = file;
+    }
+
+    @Override
+    public Query bind(List<?> parameters) {
+        return new CopyToQuery((SelectQuery) select.bind(parameters), file);
+    }
+
+    @Override
+    public QueryResult execute(DatabaseService service) {
+        return service.copyTo(select, Paths.get(file));
+    }
+
+    public SelectQuery getSelect() {
+        return select;
+    }
+
+    public String getFile() {
+        return file;
+    }
+}
@@ -1,20 +1,38 @@
 package me.wbars.jdb.query;
 
 import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.IndexType;
 import me.wbars.jdb.db.QueryResult;
 
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
 public class CreateIndexQuery implements Query {
     private final String tableName;
-    private final String column;
+    private final List<String> columns;
+    private final List<String> included;
+    private final IndexType type;
 
     public CreateIndexQuery(String tableName, String column) {
+        this(tableName, column, IndexType.TREE);
+    }
+
+    public CreateIndexQuery(String tableName, String column, IndexType type) {
+        this(tableName, singletonList(column), emptyList(), type);
+    }
+
+    public CreateIndexQuery(String tableName, List<String> columns, List<String> included, IndexType type) {
         this.tableName = tableName;
-        this.column = column;
+        this.columns = columns;
+        this.included = included;
+        this.type = type;
     }
 
     @Override
     public QueryResult execute(DatabaseService service) {
-        return service.createIndex(tableName, column);
+        return service.createIndex(tableName, columns, included, type);
     }
 
     public String getTableName() {
@@ -22,6 +40,18 @@ public class CreateIndexQuery implements Query {
     }
 
     public String getColumn() {
-        return column;
+        return columns.get(0);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<String> getIncludedColumns() {
+        return included;
+    }
+
+    public IndexType getType() {
+        return type;
     }
 }
@@ -0,0 +1,34 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.db.DatabaseService;
+import me.wbars.jdb.db.QueryResult;
+
+import java.util.List;
+
+public class ExplainQuery implements Query {
+    private final SelectQuery select;
+    private final boolean analyze;
+
+    public ExplainQuery(SelectQuery select, boolean analyze) {
+        this.select = select;
+        this.analyze = analyze;
+    }
+
+    @Override
+    public Query bind(List<?> parameters) {
+        return new ExplainQuery((SelectQuery) select.bind(parameters), analyze);
+    }
+
+    @Override
+    public QueryResult execute(DatabaseService service) {
+        return service.explain(select, analyze);
+    }
+
+    public SelectQuery getSelect() {
+        return select;
+    }
+
+    public boolean isAnalyze() {
+        return analyze;
+    }
+}
@@ -3,21 +3,59 @@ package me.wbars.jdb.query;
 import me.wbars.jdb.db.DatabaseService;
 import me.wbars.jdb.db.QueryResult;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 
 public class InsertQuery implements Query {
     private final List<String> columns;
-    private final List<String> values;
+    private final List<List<String>> rows;
+    private final List<List<Parameter>> parameters;
     private final String tableName;
 
     public InsertQuery(List<String> columns, List<String> values, String tableName) {
+        this(columns, singletonList(values), noParameters(singletonList(values)), tableName);
+    }
+
+    public InsertQuery(List<String> columns, List<List<String>> rows, List<List<Parameter>> parameters, String tableName) {
         this.columns = columns;
-        this.values = values;
+        this.rows = rows;
+        this.parameters = parameters;
         this.tableName = tableName;
     }
 
+    public List<List<String>> getRows() {
+        return rows;
+    }
+
+    @Override
+    public Query bind(List<?> parameters) {
+        if (this.parameters.stream().flatMap(List::stream).allMatch(Objects::isNull)) return Query.super.bind(parameters);
+
+        List<List<String>> bound = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<String> row = new ArrayList<>(rows.get(i));
+            List<Parameter> rowParameters = this.parameters.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                Parameter parameter = rowParameters.get(j);
+                if (parameter != null) row.set(j, String.valueOf(parameter.valueFrom(parameters)));
+            }
+            bound.add(row);
+        }
+        return new InsertQuery(columns, bound, noParameters(bound), tableName);
+    }
+
+    private static List<List<Parameter>> noParameters(List<List<String>> rows) {
+        return rows.stream().map(row -> Collections.<Parameter>nCopies(row.size(), null)).collect(toList());
+    }
+
     @Override
     public QueryResult execute(DatabaseService service) {
-        return service.insert(tableName, columns, values);
+        if (rows.size() == 1) return service.insert(tableName, columns, rows.get(0));
+        return service.insertBatch(tableName, columns, rows.iterator());
     }
 }
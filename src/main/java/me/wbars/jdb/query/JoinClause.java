@@ -0,0 +1,40 @@
+package me.wbars.jdb.query;
+
+public class JoinClause {
+    public enum Type {
+        INNER, LEFT
+    }
+
+    private final Type type;
+    private final String tableName;
+    private final String leftColumn;
+    private final String rightColumn;
+
+    public JoinClause(Type type, String tableName, String leftColumn, String rightColumn) {
+        this.type = type;
+        this.tableName = tableName;
+        this.leftColumn = leftColumn;
+        this.rightColumn = rightColumn;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getLeftColumn() {
+        return leftColumn;
+    }
+
+    public String getRightColumn() {
+        return rightColumn;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s join `%s` on `%s` = `%s`", type.name().toLowerCase(), tableName, leftColumn, rightColumn);
+    }
+}
@@ -0,0 +1,24 @@
+package me.wbars.jdb.query;
+
+public class OrderBy {
+    private final String column;
+    private final boolean descending;
+
+    public OrderBy(String column, boolean descending) {
+        this.column = column;
+        this.descending = descending;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return "`" + column + "`" + (descending ? " desc" : " asc");
+    }
+}
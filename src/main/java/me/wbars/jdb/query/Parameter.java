@@ -0,0 +1,28 @@
+package me.wbars.jdb.query;
+
+import java.util.List;
+
+public final class Parameter implements Comparable<Parameter> {
+    private final int index;
+
+    public Parameter(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Object valueFrom(List<?> parameters) {
+        if (index >= parameters.size()) throw new IllegalArgumentException("No value bound for parameter " + (index + 1));
+        Object value = parameters.get(index);
+        if (!(value instanceof Integer) && !(value instanceof String))
+            throw new IllegalArgumentException("Unsupported parameter value: " + value);
+        return value;
+    }
+
+    @Override
+    public int compareTo(Parameter other) {
+        return Integer.compare(index, other.index);
+    }
+}
@@ -0,0 +1,64 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+public final class PredicateCompiler {
+    private PredicateCompiler() {
+    }
+
+    public static IntPredicate compile(QueryPredicate<?> predicate, Function<String, Column> columns) {
+        IntPredicate leaf = compileLeaf(predicate, columns.apply(predicate.getColumn()));
+        IntPredicate and = predicate.and() != null ? compile(predicate.and(), columns) : null;
+        IntPredicate or = predicate.or() != null ? compile(predicate.or(), columns) : null;
+        if (and != null && or != null) return row -> leaf.test(row) && and.test(row) || or.test(row);
+        if (and != null) return row -> leaf.test(row) && and.test(row);
+        if (or != null) return row -> leaf.test(row) || or.test(row);
+        return leaf;
+    }
+
+    public static IntPredicate compileLeaf(QueryPredicate<?> predicate, Column column) {
+        Object value = predicate.getValueToCompare();
+        if (column instanceof IntegerColumn && value instanceof Integer)
+            return compileInt((IntegerColumn) column, predicate.getSign(), (Integer) value);
+        if (column instanceof StringColumn && value instanceof String)
+            return compileString((StringColumn) column, predicate.getSign(), (String) value);
+        return row -> predicate.test(column, row);
+    }
+
+    private static IntPredicate compileInt(IntegerColumn column, CompareSign sign, int value) {
+        switch (sign) {
+            case EQ:
+                return row -> !column.isNull(row) && column.getInt(row) == value;
+            case NE:
+                return row -> !column.isNull(row) && column.getInt(row) != value;
+            case GT:
+                return row -> !column.isNull(row) && column.getInt(row) > value;
+            case GTE:
+                return row -> !column.isNull(row) && column.getInt(row) >= value;
+            case LT:
+                return row -> !column.isNull(row) && column.getInt(row) < value;
+            default:
+                return row -> !column.isNull(row) && column.getInt(row) <= value;
+        }
+    }
+
+    private static IntPredicate compileString(StringColumn column, CompareSign sign, String value) {
+        int code = column.findCode(value);
+        if (sign == CompareSign.EQ) return row -> !column.isNull(row) && column.getCode(row) == code;
+        if (sign == CompareSign.NE) return row -> !column.isNull(row) && column.getCode(row) != code;
+
+        byte[] matches = new byte[column.dictionarySize()];
+        return row -> {
+            if (column.isNull(row)) return false;
+            int rowCode = column.getCode(row);
+            if (rowCode >= matches.length) return sign.test(column.decode(rowCode).compareTo(value));
+            if (matches[rowCode] == 0) matches[rowCode] = sign.test(column.decode(rowCode).compareTo(value)) ? (byte) 1 : (byte) 2;
+            return matches[rowCode] == 1;
+        };
+    }
+}
@@ -3,6 +3,13 @@ package me.wbars.jdb.query;
 import me.wbars.jdb.db.DatabaseService;
 import me.wbars.jdb.db.QueryResult;
 
+import java.util.List;
+
 public interface Query {
     QueryResult execute(DatabaseService service);
+
+    default Query bind(List<?> parameters) {
+        if (!parameters.isEmpty()) throw new IllegalArgumentException("Query has no parameters");
+        return this;
+    }
 }
@@ -2,37 +2,82 @@ package me.wbars.jdb.query;
 
 import me.wbars.jdb.scanner.Token;
 import me.wbars.jdb.scanner.Type;
-import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Column;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static java.lang.Integer.parseInt;
 import static me.wbars.jdb.query.CompareSign.fromAlias;
-import static me.wbars.jdb.utils.CollectionsUtils.indexes;
 
 public class QueryPredicate<T extends Comparable<T>> {
-    private QueryPredicate and;
-    private QueryPredicate or;
+    private QueryPredicate<?> and;
+    private QueryPredicate<?> or;
     private final String columnName;
     private final CompareSign sign;
-    private final Function<String, T> compareMapper;
     private final T valueToCompare;
 
-    public QueryPredicate(String columnName,
-                          CompareSign sign,
-                          Function<String, T> compareMapper,
-                          T valueToCompare) {
+    public QueryPredicate(String columnName, CompareSign sign, T valueToCompare) {
         this.columnName = columnName;
         this.sign = sign;
-        this.compareMapper = compareMapper;
         this.valueToCompare = valueToCompare;
     }
 
     public static QueryPredicate<? extends Comparable<?>> create(String columnName, String operator, Token value, Type type) {
         return type == Type.INTEGER ?
-                new QueryPredicate<>(columnName, fromAlias(operator), Integer::parseInt, parseInt(value.value))
-                : new QueryPredicate<>(columnName, fromAlias(operator), s -> s, value.value);
+                new QueryPredicate<>(columnName, fromAlias(operator), parseInt(value.value))
+                : new QueryPredicate<>(columnName, fromAlias(operator), value.value);
+    }
+
+    public static QueryPredicate<? extends Comparable<?>> create(String columnName, CompareSign sign, Object value) {
+        return value instanceof Integer ?
+                new QueryPredicate<>(columnName, sign, (Integer) value)
+                : new QueryPredicate<>(columnName, sign, (String) value);
+    }
+
+    public QueryPredicate<? extends Comparable<?>> bind(List<?> parameters) {
+        QueryPredicate<? extends Comparable<?>> result = valueToCompare instanceof Parameter
+                ? create(columnName, sign, ((Parameter) valueToCompare).valueFrom(parameters))
+                : leaf();
+        if (and != null) result.and(and.bind(parameters));
+        if (or != null) result.or(or.bind(parameters));
+        return result;
+    }
+
+    public QueryPredicate<T> rename(Function<String, String> columns) {
+        QueryPredicate<T> result = new QueryPredicate<>(columns.apply(columnName), sign, valueToCompare);
+        if (and != null) result.and(and.rename(columns));
+        if (or != null) result.or(or.rename(columns));
+        return result;
+    }
+
+    public void forEachColumn(Consumer<String> consumer) {
+        forEachLeaf(leaf -> consumer.accept(leaf.columnName));
+    }
+
+    public void forEachLeaf(Consumer<QueryPredicate<?>> consumer) {
+        consumer.accept(this);
+        if (and != null) and.forEachLeaf(consumer);
+        if (or != null) or.forEachLeaf(consumer);
+    }
+
+    public static QueryPredicate<? extends Comparable<?>> allOf(QueryPredicate<?> first, QueryPredicate<?> second) {
+        QueryPredicate<? extends Comparable<?>> result = first.leaf();
+        result.and(first.and != null ? allOf(first.and, second) : second);
+        if (first.or != null) result.or(allOf(first.or, second));
+        return result;
+    }
+
+    public static QueryPredicate<? extends Comparable<?>> anyOf(QueryPredicate<?> first, QueryPredicate<?> second) {
+        QueryPredicate<? extends Comparable<?>> result = first.leaf();
+        if (first.and != null) result.and(first.and);
+        result.or(first.or != null ? anyOf(first.or, second) : second);
+        return result;
+    }
+
+    public QueryPredicate<T> leaf() {
+        return new QueryPredicate<>(columnName, sign, valueToCompare);
     }
 
     public QueryPredicate<T> and(QueryPredicate<? extends Comparable<?>> other) {
@@ -47,22 +92,8 @@ public class QueryPredicate<T extends Comparable<T>> {
         return this;
     }
 
-    public final boolean test(List<String> row, List<ColumnData> columns) {
-        int compareResult = compareMapper.apply(row.get(getIndex(columnName, columns))).compareTo(valueToCompare);
-        if (sign == CompareSign.EQ) return compareResult == 0;
-        if (sign == CompareSign.GT) return compareResult > 0;
-        if (sign == CompareSign.LT) return compareResult < 0;
-        if (sign == CompareSign.LTE) return compareResult <= 0;
-        if (sign == CompareSign.GTE) return compareResult >= 0;
-        if (sign == CompareSign.NE) return compareResult != 0;
-        //todo check if sign was reached
-        throw new IllegalArgumentException();
-    }
-
-    private static int getIndex(String columnName, List<ColumnData> columns) {
-        return indexes(columns)
-                .filter(i -> columns.get(i).first.equals(columnName))
-                .findAny().orElseThrow(IllegalArgumentException::new);
+    public final boolean test(Column column, int row) {
+        return !column.isNull(row) && sign.test(column.compare(row, valueToCompare));
     }
 
     public String getColumn() {
@@ -77,15 +108,23 @@ public class QueryPredicate<T extends Comparable<T>> {
         return valueToCompare;
     }
 
+    @Override
+    public String toString() {
+        String value = valueToCompare instanceof String ? "`" + valueToCompare + "`" : String.valueOf(valueToCompare);
+        String result = String.format("`%s` %s %s", columnName, sign.getAlias(), value);
+        if (and != null) result += " and " + (and.or() != null ? "(" + and + ")" : and);
+        return or != null ? result + " or " + or : result;
+    }
+
     public boolean isSingle() {
         return and == null && or == null;
     }
 
-    public QueryPredicate and() {
+    public QueryPredicate<?> and() {
         return and;
     }
 
-    public QueryPredicate or() {
+    public QueryPredicate<?> or() {
         return or;
     }
 }
@@ -5,25 +5,62 @@ import me.wbars.jdb.db.QueryResult;
 
 import java.util.List;
 
+import static java.util.Collections.emptyList;
+
 public class SelectQuery implements Query {
+    public static final int NO_LIMIT = -1;
 
     private final String tableName;
     private final List<String> columns;
+    private final List<Aggregate> aggregates;
+    private final List<String> groupBy;
+    private final JoinClause join;
     private final QueryPredicate<? extends Comparable<?>> predicate;
+    private final OrderBy orderBy;
+    private final int limit;
+    private final int offset;
 
-    public SelectQuery(String tableName, List<String> columns, QueryPredicate<? extends Comparable<?>> predicate) {
+    public SelectQuery(String tableName, List<String> columns, List<Aggregate> aggregates, List<String> groupBy, JoinClause join,
+                       QueryPredicate<? extends Comparable<?>> predicate, OrderBy orderBy, int limit, int offset) {
         this.tableName = tableName;
         this.columns = columns;
+        this.aggregates = aggregates;
+        this.groupBy = groupBy;
+        this.join = join;
         this.predicate = predicate;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public SelectQuery(String tableName, List<String> columns, List<Aggregate> aggregates, List<String> groupBy,
+                       QueryPredicate<? extends Comparable<?>> predicate, OrderBy orderBy, int limit, int offset) {
+        this(tableName, columns, aggregates, groupBy, null, predicate, orderBy, limit, offset);
+    }
+
+    public SelectQuery(String tableName, List<String> columns, QueryPredicate<? extends Comparable<?>> predicate,
+                       OrderBy orderBy, int limit, int offset) {
+        this(tableName, columns, emptyList(), emptyList(), predicate, orderBy, limit, offset);
+    }
+
+    public SelectQuery(String tableName, List<String> columns, QueryPredicate<? extends Comparable<?>> predicate) {
+        this(tableName, columns, predicate, null, NO_LIMIT, 0);
     }
 
     public SelectQuery(String tableName, List<String> columns) {
         this(tableName, columns, null);
     }
 
+    @Override
+    public Query bind(List<?> parameters) {
+        return predicate != null
+                ? new SelectQuery(tableName, columns, aggregates, groupBy, join, predicate.bind(parameters), orderBy, limit, offset)
+                : Query.super.bind(parameters);
+    }
+
     @Override
     public QueryResult execute(DatabaseService service) {
-        return service.select(tableName, columns, predicate);
+        return service.select(this);
     }
 
     public String getTableName() {
@@ -34,7 +71,35 @@ public class SelectQuery implements Query {
         return columns;
     }
 
-    public QueryPredicate getPredicate() {
+    public List<Aggregate> getAggregates() {
+        return aggregates;
+    }
+
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    public JoinClause getJoin() {
+        return join;
+    }
+
+    public boolean isAggregate() {
+        return !aggregates.isEmpty();
+    }
+
+    public QueryPredicate<? extends Comparable<?>> getPredicate() {
         return predicate;
     }
+
+    public OrderBy getOrderBy() {
+        return orderBy;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
 }
@@ -0,0 +1,325 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+
+import java.util.function.Function;
+
+public final class VectorFilter {
+    public static final int BATCH_SIZE = 1024;
+
+    private final Operator root;
+    private final int buffers;
+
+    private VectorFilter(Operator root, int buffers) {
+        this.root = root;
+        this.buffers = buffers;
+    }
+
+    public static VectorFilter compile(QueryPredicate<?> predicate, Function<String, Column> columns) {
+        Compiler compiler = new Compiler(columns);
+        return new VectorFilter(compiler.compile(predicate), compiler.buffers);
+    }
+
+    public Batch newBatch() {
+        return new Batch(buffers);
+    }
+
+    public int filter(Batch batch, int start, int length) {
+        batch.start = start;
+        batch.length = length;
+        int[] selection = batch.selection;
+        for (int i = 0; i < length; i++) selection[i] = i;
+        batch.size = root.apply(batch, selection, length);
+        return batch.size;
+    }
+
+    public static final class Batch {
+        private final int[][] buffers;
+        private final int[] selection = new int[BATCH_SIZE];
+        private int start;
+        private int length;
+        private int size;
+
+        private Batch(int buffers) {
+            this.buffers = new int[buffers][BATCH_SIZE];
+        }
+
+        public int start() {
+            return start;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int[] selection() {
+            return selection;
+        }
+
+        public int rowId(int i) {
+            return start + selection[i];
+        }
+    }
+
+    private static final class Compiler {
+        private final Function<String, Column> columns;
+        private int buffers;
+
+        Compiler(Function<String, Column> columns) {
+            this.columns = columns;
+        }
+
+        Operator compile(QueryPredicate<?> predicate) {
+            Operator result = leaf(predicate, columns.apply(predicate.getColumn()));
+            if (predicate.and() != null) result = new And(result, compile(predicate.and()));
+            if (predicate.or() != null) result = new Or(result, compile(predicate.or()), buffers++, buffers++);
+            return result;
+        }
+
+        private Operator leaf(QueryPredicate<?> predicate, Column column) {
+            Object value = predicate.getValueToCompare();
+            if (column instanceof IntegerColumn && value instanceof Integer)
+                return new IntCompare((IntegerColumn) column, predicate.getSign(), (Integer) value, buffers++, buffers++);
+            if (column instanceof StringColumn && value instanceof String)
+                return new StringCompare((StringColumn) column, predicate.getSign(), (String) value, buffers++, buffers++);
+            return new RowCompare(predicate, column);
+        }
+    }
+
+    private static abstract class Operator {
+        abstract int apply(Batch batch, int[] selection, int size);
+    }
+
+    private static final class And extends Operator {
+        private final Operator left;
+        private final Operator right;
+
+        And(Operator left, Operator right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int apply(Batch batch, int[] selection, int size) {
+            size = left.apply(batch, selection, size);
+            return size > 0 ? right.apply(batch, selection, size) : 0;
+        }
+    }
+
+    private static final class Or extends Operator {
+        private final Operator left;
+        private final Operator right;
+        private final int matchedBuffer;
+        private final int restBuffer;
+
+        Or(Operator left, Operator right, int matchedBuffer, int restBuffer) {
+            this.left = left;
+            this.right = right;
+            this.matchedBuffer = matchedBuffer;
+            this.restBuffer = restBuffer;
+        }
+
+        @Override
+        int apply(Batch batch, int[] selection, int size) {
+            int[] matched = batch.buffers[matchedBuffer];
+            int[] rest = batch.buffers[restBuffer];
+            System.arraycopy(selection, 0, matched, 0, size);
+            int matchedSize = left.apply(batch, matched, size);
+
+            int restSize = 0;
+            for (int i = 0, j = 0; i < size; i++) {
+                int row = selection[i];
+                if (j < matchedSize && matched[j] == row) j++;
+                else rest[restSize++] = row;
+            }
+            restSize = restSize > 0 ? right.apply(batch, rest, restSize) : 0;
+
+            int result = 0;
+            for (int i = 0, j = 0; i < matchedSize || j < restSize; ) {
+                if (j == restSize || i < matchedSize && matched[i] < rest[j]) selection[result++] = matched[i++];
+                else selection[result++] = rest[j++];
+            }
+            return result;
+        }
+    }
+
+    private static abstract class ColumnCompare extends Operator {
+        private final Column column;
+        private final int valuesBuffer;
+        private final int nullsBuffer;
+
+        ColumnCompare(Column column, int valuesBuffer, int nullsBuffer) {
+            this.column = column;
+            this.valuesBuffer = valuesBuffer;
+            this.nullsBuffer = nullsBuffer;
+        }
+
+        abstract void read(int start, int[] values, int length);
+
+        abstract int compare(int[] values, int[] selection, int size);
+
+        @Override
+        int apply(Batch batch, int[] selection, int size) {
+            int[] values = batch.buffers[valuesBuffer];
+            int[] nulls = batch.buffers[nullsBuffer];
+            column.readNulls(batch.start, nulls, batch.length);
+            if (hasNulls(nulls, batch.length)) size = dropNulls(nulls, selection, size);
+            read(batch.start, values, batch.length);
+            return compare(values, selection, size);
+        }
+
+        private static boolean hasNulls(int[] nulls, int length) {
+            int any = 0;
+            for (int i = 0, words = (length + 31) >>> 5; i < words; i++) any |= nulls[i];
+            return any != 0;
+        }
+
+        private static int dropNulls(int[] nulls, int[] selection, int size) {
+            int result = 0;
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                selection[result] = row;
+                result += ~nulls[row >>> 5] >>> row & 1;
+            }
+            return result;
+        }
+    }
+
+    private static final class IntCompare extends ColumnCompare {
+        private final IntegerColumn column;
+        private final CompareSign sign;
+        private final int value;
+
+        IntCompare(IntegerColumn column, CompareSign sign, int value, int valuesBuffer, int nullsBuffer) {
+            super(column, valuesBuffer, nullsBuffer);
+            this.column = column;
+            this.sign = sign;
+            this.value = value;
+        }
+
+        @Override
+        void read(int start, int[] values, int length) {
+            column.read(start, values, length);
+        }
+
+        @Override
+        int compare(int[] values, int[] selection, int size) {
+            int value = this.value;
+            int result = 0;
+            switch (sign) {
+                case EQ:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] == value ? 1 : 0;
+                    }
+                    return result;
+                case NE:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] != value ? 1 : 0;
+                    }
+                    return result;
+                case GT:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] > value ? 1 : 0;
+                    }
+                    return result;
+                case GTE:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] >= value ? 1 : 0;
+                    }
+                    return result;
+                case LT:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] < value ? 1 : 0;
+                    }
+                    return result;
+                default:
+                    for (int i = 0; i < size; i++) {
+                        int row = selection[i];
+                        selection[result] = row;
+                        result += values[row] <= value ? 1 : 0;
+                    }
+                    return result;
+            }
+        }
+    }
+
+    private static final class StringCompare extends ColumnCompare {
+        private final StringColumn column;
+        private final CompareSign sign;
+        private final String value;
+        private final int code;
+        private final byte[] matches;
+
+        StringCompare(StringColumn column, CompareSign sign, String value, int valuesBuffer, int nullsBuffer) {
+            super(column, valuesBuffer, nullsBuffer);
+            this.column = column;
+            this.sign = sign;
+            this.value = value;
+            this.code = column.findCode(value);
+            this.matches = sign == CompareSign.EQ || sign == CompareSign.NE ? null : new byte[column.dictionarySize()];
+        }
+
+        @Override
+        void read(int start, int[] values, int length) {
+            column.readCodes(start, values, length);
+        }
+
+        @Override
+        int compare(int[] codes, int[] selection, int size) {
+            int code = this.code;
+            int result = 0;
+            if (sign == CompareSign.EQ || sign == CompareSign.NE) {
+                int expected = sign == CompareSign.EQ ? 1 : 0;
+                for (int i = 0; i < size; i++) {
+                    int row = selection[i];
+                    selection[result] = row;
+                    result += (codes[row] == code ? 1 : 0) == expected ? 1 : 0;
+                }
+                return result;
+            }
+            for (int i = 0; i < size; i++) {
+                int row = selection[i];
+                selection[result] = row;
+                result += matches(codes[row]) ? 1 : 0;
+            }
+            return result;
+        }
+
+        private boolean matches(int rowCode) {
+            if (rowCode >= matches.length) return sign.test(column.decode(rowCode).compareTo(value));
+            if (matches[rowCode] == 0) matches[rowCode] = sign.test(column.decode(rowCode).compareTo(value)) ? (byte) 1 : (byte) 2;
+            return matches[rowCode] == 1;
+        }
+    }
+
+    private static final class RowCompare extends Operator {
+        private final QueryPredicate<?> predicate;
+        private final Column column;
+
+        RowCompare(QueryPredicate<?> predicate, Column column) {
+            this.predicate = predicate;
+            this.column = column;
+        }
+
+        @Override
+        int apply(Batch batch, int[] selection, int size) {
+            int result = 0;
+            for (int i = 0; i < size; i++) {
+                if (predicate.test(column, batch.start + selection[i])) selection[result++] = selection[i];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.IntegerColumn;
+import me.wbars.jdb.table.StringColumn;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static me.wbars.jdb.query.VectorFilter.BATCH_SIZE;
+
+public final class VectorProjection {
+    private static final int[] ALL_ROWS = IntStream.range(0, BATCH_SIZE).toArray();
+
+    private final List<Column> columns;
+    private final int[] values = new int[BATCH_SIZE];
+    private final int[] nulls = new int[BATCH_SIZE >>> 5];
+
+    public VectorProjection(List<Column> columns) {
+        this.columns = columns;
+    }
+
+    public void project(int start, int length, List<List<String>> target) {
+        project(start, length, ALL_ROWS, length, target);
+    }
+
+    public void project(int start, int length, int[] selection, int size, List<List<String>> target) {
+        String[][] rows = new String[size][columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            Column column = columns.get(c);
+            column.readNulls(start, nulls, length);
+            if (column instanceof IntegerColumn) {
+                ((IntegerColumn) column).read(start, values, length);
+                for (int i = 0; i < size; i++) {
+                    int row = selection[i];
+                    if (!isNull(row)) rows[i][c] = String.valueOf(values[row]);
+                }
+            } else {
+                StringColumn strings = (StringColumn) column;
+                strings.readCodes(start, values, length);
+                for (int i = 0; i < size; i++) {
+                    int row = selection[i];
+                    if (!isNull(row)) rows[i][c] = strings.decode(values[row]);
+                }
+            }
+        }
+        for (String[] row : rows) target.add(Arrays.asList(row));
+    }
+
+    private boolean isNull(int row) {
+        return (nulls[row >>> 5] & 1 << row) != 0;
+    }
+}
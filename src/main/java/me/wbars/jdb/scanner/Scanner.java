@@ -4,38 +4,200 @@ package me.wbars.jdb.scanner;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Scanner {
+import static me.wbars.jdb.scanner.TokenType.*;
 
-    private static final int DEFAULT_VALUE = -1;
+public class Scanner {
 
     public List<Token> scan(String query) throws IllegalArgumentException {
-        List<Token> result = new ArrayList<>();
-        int start = DEFAULT_VALUE;
-        for (int i = 0; i < query.length(); i++) {
+        List<Token> result = new ArrayList<>(Math.max(query.length() >>> 2, 4));
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
             char ch = query.charAt(i);
+            switch (ch) {
+                case ' ':
+                case '\n':
+                case '\t':
+                case '\r':
+                    i++;
+                    break;
+                case ';':
+                    result.add(new Token(SEMICOLON, ";"));
+                    i++;
+                    break;
+                case ',':
+                    result.add(new Token(COMMA, ","));
+                    i++;
+                    break;
+                case '(':
+                    result.add(new Token(OPEN_PAREN, "("));
+                    i++;
+                    break;
+                case ')':
+                    result.add(new Token(CLOSE_PAREN, ")"));
+                    i++;
+                    break;
+                case '=':
+                    result.add(new Token(RELOP, "="));
+                    i++;
+                    break;
+                case '<':
+                    i = relop(query, i, "<", "<=", result);
+                    break;
+                case '>':
+                    i = relop(query, i, ">", ">=", result);
+                    break;
+                case '!':
+                    if (i + 1 == length || query.charAt(i + 1) != '=') throw new IllegalArgumentException(word(query, i));
+                    result.add(new Token(RELOP, "!="));
+                    i += 2;
+                    break;
+                case '?':
+                    result.add(new Token(PLACEHOLDER, "?"));
+                    i++;
+                    break;
+                case '*':
+                    result.add(new Token(STAR, "*"));
+                    i++;
+                    break;
+                case '`':
+                    i = stringVar(query, i, result);
+                    break;
+                default:
+                    i = ch >= '0' && ch <= '9' ? number(query, i, result) : keyword(query, i, result);
+            }
+        }
+        return result;
+    }
 
-            if (isWhitespace(ch)) continue;
-            if (start == DEFAULT_VALUE) start = i;
+    private int relop(String query, int i, String single, String withEquals, List<Token> result) {
+        boolean equals = i + 1 < query.length() && query.charAt(i + 1) == '=';
+        result.add(new Token(RELOP, equals ? withEquals : single));
+        return equals ? i + 2 : i + 1;
+    }
 
-            if (i == query.length() - 1 || isWhitespace(query.charAt(i + 1)) || isDelimer(String.valueOf(query.charAt(i + 1)))) {
-                result.add(Token.create(query.substring(start, i + 1)));
-                start = DEFAULT_VALUE;
-                continue;
-            }
-            if (isDelimer(String.valueOf(ch))) {
-                result.add(Token.create(String.valueOf(ch)));
-                start = DEFAULT_VALUE;
-            }
+    private int stringVar(String query, int start, List<Token> result) {
+        int end = query.indexOf('`', start + 1);
+        if (end <= start + 1) throw new IllegalArgumentException(word(query, start));
+        result.add(new Token(STRING_VAR, query.substring(start + 1, end)));
+        return end + 1;
+    }
+
+    private int number(String query, int start, List<Token> result) {
+        int end = wordEnd(query, start);
+        for (int i = start; i < end; i++) {
+            char ch = query.charAt(i);
+            if (ch < '0' || ch > '9') throw new IllegalArgumentException(query.substring(start, end));
+        }
+        result.add(new Token(UNSIGNED_INTEGER, query.substring(start, end)));
+        return end;
+    }
 
+    private int keyword(String query, int start, List<Token> result) {
+        int end = wordEnd(query, start);
+        Token keyword = keyword(query, start, end - start);
+        if (keyword == null) throw new IllegalArgumentException(query.substring(start, end));
+        result.add(keyword);
+        return end;
+    }
+
+    private static Token keyword(String query, int start, int length) {
+        switch (query.charAt(start)) {
+            case 'a':
+                if (length == 3 && query.charAt(start + 1) == 's') return matches(query, start, length, "asc", ASC);
+                if (length == 3 && query.charAt(start + 1) == 'v') return matches(query, start, length, "avg", AGGREGATE);
+                if (length == 3) return matches(query, start, length, "and", BOOLEAN_RELOP);
+                return matches(query, start, length, "analyze", ANALYZE);
+            case 'b':
+                return matches(query, start, length, "by", BY);
+            case 'c':
+                if (length == 4) return matches(query, start, length, "copy", COPY);
+                if (length == 5) return matches(query, start, length, "count", AGGREGATE);
+                return matches(query, start, length, "create", CREATE);
+            case 'd':
+                if (length == 4 && query.charAt(start + 1) == 'e') return matches(query, start, length, "desc", DESC);
+                if (length == 4) return matches(query, start, length, "drop", DROP);
+                return matches(query, start, length, "describe", DESCRIBE);
+            case 'e':
+                return matches(query, start, length, "explain", EXPLAIN);
+            case 'f':
+                return matches(query, start, length, "from", FROM);
+            case 'g':
+                return matches(query, start, length, "group", GROUP);
+            case 'h':
+                return matches(query, start, length, "hash", HASH);
+            case 'i':
+                if (length == 4) return matches(query, start, length, "into", INTO);
+                if (length == 5 && query.charAt(start + 2) == 'n') return matches(query, start, length, "inner", INNER);
+                if (length == 5) return matches(query, start, length, "index", INDEX);
+                if (length == 6) return matches(query, start, length, "insert", INSERT);
+                if (length == 7 && query.charAt(start + 2) == 'c') return matches(query, start, length, "include", INCLUDE);
+                return matches(query, start, length, "integer", INTEGER);
+            case 'j':
+                return matches(query, start, length, "join", JOIN);
+            case 'l':
+                if (length == 4) return matches(query, start, length, "left", LEFT);
+                return matches(query, start, length, "limit", LIMIT);
+            case 'm':
+                if (length == 3 && query.charAt(start + 1) == 'i') return matches(query, start, length, "min", AGGREGATE);
+                return matches(query, start, length, "max", AGGREGATE);
+            case 'o':
+                if (length == 2 && query.charAt(start + 1) == 'n') return new Token(ON, "on");
+                if (length == 5) return matches(query, start, length, "order", ORDER);
+                if (length == 6) return matches(query, start, length, "offset", OFFSET);
+                return matches(query, start, length, "or", BOOLEAN_RELOP);
+            case 's':
+                if (length == 3) return matches(query, start, length, "sum", AGGREGATE);
+                if (length == 4) return matches(query, start, length, "show", SHOW);
+                if (length == 6 && query.charAt(start + 1) == 't') return matches(query, start, length, "string", STRING);
+                return matches(query, start, length, "select", SELECT);
+            case 't':
+                if (length == 2) return matches(query, start, length, "to", TO);
+                if (length == 5) return matches(query, start, length, "table", TABLE);
+                return matches(query, start, length, "tables", TABLES);
+            case 'v':
+                return matches(query, start, length, "values", VALUES);
+            case 'w':
+                return matches(query, start, length, "where", WHERE);
+            default:
+                return null;
         }
-        return result;
     }
 
-    private boolean isWhitespace(char ch) {
-        return ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r';
+    private static Token matches(String query, int start, int length, String keyword, TokenType type) {
+        return length == keyword.length() && query.startsWith(keyword, start) ? new Token(type, keyword) : null;
     }
 
-    private boolean isDelimer(String word) {
-        return TokenType.isDelimeter(word);
+    private static int wordEnd(String query, int start) {
+        int i = start;
+        while (i < query.length() && !isBoundary(query.charAt(i))) i++;
+        return i;
+    }
+
+    private static String word(String query, int start) {
+        return query.substring(start, wordEnd(query, start + 1));
+    }
+
+    private static boolean isBoundary(char ch) {
+        switch (ch) {
+            case ' ':
+            case '\n':
+            case '\t':
+            case '\r':
+            case ';':
+            case ',':
+            case '(':
+            case ')':
+            case '=':
+            case '<':
+            case '>':
+            case '!':
+            case '?':
+            case '*':
+            case '`':
+                return true;
+            default:
+                return false;
+        }
     }
 }
@@ -1,85 +1,46 @@
 package me.wbars.jdb.scanner;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
-
 public enum TokenType {
-    SHOW(Pattern.compile("^show$")),
-    TABLE(Pattern.compile("^table$")),
-    TABLES(Pattern.compile("^tables$")),
-    INSERT(Pattern.compile("^insert$")),
-    INTO(Pattern.compile("^into$")),
-    INTEGER(Pattern.compile("^integer$")),
-    STRING(Pattern.compile("^string$")),
-    CREATE(Pattern.compile("^create$")),
-    DROP(Pattern.compile("^drop$")),
-    DESCRIBE(Pattern.compile("^describe$")),
-    SEMICOLON(Pattern.compile("^;$")) {
-        @Override
-        public boolean isDelimeter() {
-            return true;
-        }
-    },
-    COMMA(Pattern.compile("^,$")) {
-        @Override
-        public boolean isDelimeter() {
-            return true;
-        }
-    },
-    OPEN_PAREN(Pattern.compile("^\\($")) {
-        @Override
-        public boolean isDelimeter() {
-            return true;
-        }
-    },
-    CLOSE_PAREN(Pattern.compile("^\\)$")) {
-        @Override
-        public boolean isDelimeter() {
-            return true;
-        }
-    },
-    UNSIGNED_INTEGER(Pattern.compile("^\\d+$")),
-    STRING_VAR(Pattern.compile("^`.+`$")) {
-        @Override
-        public String extractValue(String word) {
-            return word.substring(1, word.length() - 1);
-        }
-    },
-    VALUES(Pattern.compile("^values$")),
-    SELECT(Pattern.compile("^select$")),
-    FROM(Pattern.compile("^from$")),
-    WHERE(Pattern.compile("^where$")),
-    RELOP(Pattern.compile("^>|<|<=|>=|=|!=$")),
-    BOOLEAN_RELOP(Pattern.compile("^and|or$")),
-    INDEX(Pattern.compile("^index$")), ON(Pattern.compile("^on$"));
-
-    private final Pattern pattern;
-
-    TokenType(Pattern pattern) {
-        this.pattern = pattern;
-    }
-
-    public static List<TokenType> types() {
-        return Arrays.asList(values());
-    }
-
-    public String extractValue(String word) {
-        return word;
-    }
-
-    public boolean isDelimeter() {
-        return false;
-    }
-
-    public boolean test(String word) {
-        return pattern.asPredicate().test(word);
-    }
-
-    public static boolean isDelimeter(String word) {
-        return types().stream()
-                .filter(TokenType::isDelimeter)
-                .anyMatch(r -> r.test(word));
-    }
-
+    SHOW,
+    TABLE,
+    TABLES,
+    INSERT,
+    INTO,
+    INTEGER,
+    STRING,
+    CREATE,
+    DROP,
+    DESCRIBE,
+    ANALYZE,
+    EXPLAIN,
+    SEMICOLON,
+    COMMA,
+    OPEN_PAREN,
+    CLOSE_PAREN,
+    UNSIGNED_INTEGER,
+    STRING_VAR,
+    VALUES,
+    SELECT,
+    FROM,
+    WHERE,
+    RELOP,
+    BOOLEAN_RELOP,
+    INDEX, ON,
+    HASH,
+    INCLUDE,
+    COPY,
+    TO,
+    GROUP,
+    AGGREGATE,
+    STAR,
+    ORDER,
+    BY,
+    ASC,
+    DESC,
+    LIMIT,
+    OFFSET,
+    JOIN,
+    INNER,
+    LEFT,
+    PLACEHOLDER
 }
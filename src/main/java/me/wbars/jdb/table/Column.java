@@ -0,0 +1,72 @@
+package me.wbars.jdb.table;
+
+import me.wbars.jdb.scanner.Type;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public abstract class Column implements Closeable {
+    static final int INITIAL_CAPACITY = 16;
+
+    private final IntVector nulls;
+    private int size;
+
+    Column(IntVector nulls, int size) {
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    public static Column create(Type type) {
+        return type == Type.INTEGER
+                ? new IntegerColumn(new HeapIntVector(INITIAL_CAPACITY), new HeapIntVector(1), 0)
+                : new StringColumn(new HeapIntVector(INITIAL_CAPACITY), new HeapIntVector(1), StringDictionary.inMemory(), 0);
+    }
+
+    public abstract Type getType();
+
+    public abstract String get(int row);
+
+    public abstract int compare(int row, Comparable<?> value);
+
+    abstract void set(int row, String value);
+
+    abstract void clear(int row);
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return (nulls.get(row >>> 5) & (1 << row)) != 0;
+    }
+
+    public void readNulls(int from, int[] target, int length) {
+        nulls.read(from >>> 5, target, (length + 31) >>> 5);
+    }
+
+    public void add(String value) {
+        if (value == null) clear(size);
+        else set(size, value);
+        append(value == null);
+    }
+
+    void append(boolean isNull) {
+        int word = size >>> 5;
+        int bits = (size & 31) == 0 ? 0 : nulls.get(word);
+        nulls.set(word, isNull ? bits | 1 << size : bits & ~(1 << size));
+        size++;
+    }
+
+    void truncate(int size) {
+        this.size = size;
+    }
+
+    public void force() throws IOException {
+        nulls.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        nulls.close();
+    }
+}
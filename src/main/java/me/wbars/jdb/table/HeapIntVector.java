@@ -0,0 +1,31 @@
+package me.wbars.jdb.table;
+
+import java.util.Arrays;
+
+public class HeapIntVector implements IntVector {
+    private volatile int[] values;
+
+    public HeapIntVector(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    @Override
+    public int get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public void read(int from, int[] target, int length) {
+        System.arraycopy(values, from, target, 0, length);
+    }
+
+    @Override
+    public void set(int index, int value) {
+        int[] current = values;
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length << 1, index + 1));
+            current[index] = value;
+            values = current;
+        } else current[index] = value;
+    }
+}
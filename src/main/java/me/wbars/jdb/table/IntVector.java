@@ -0,0 +1,21 @@
+package me.wbars.jdb.table;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface IntVector extends Closeable {
+    int get(int index);
+
+    void set(int index, int value);
+
+    default void read(int from, int[] target, int length) {
+        for (int i = 0; i < length; i++) target[i] = get(from + i);
+    }
+
+    default void force() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,64 @@
+package me.wbars.jdb.table;
+
+import me.wbars.jdb.scanner.Type;
+
+import java.io.IOException;
+
+public class IntegerColumn extends Column {
+    private final IntVector values;
+
+    IntegerColumn(IntVector values, IntVector nulls, int size) {
+        super(nulls, size);
+        this.values = values;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.INTEGER;
+    }
+
+    public int getInt(int row) {
+        return values.get(row);
+    }
+
+    public void read(int from, int[] target, int length) {
+        values.read(from, target, length);
+    }
+
+    @Override
+    public String get(int row) {
+        return isNull(row) ? null : String.valueOf(values.get(row));
+    }
+
+    @Override
+    public int compare(int row, Comparable<?> value) {
+        return value instanceof Integer ? Integer.compare(values.get(row), (Integer) value) : get(row).compareTo((String) value);
+    }
+
+    public void addInt(int value) {
+        values.set(size(), value);
+        append(false);
+    }
+
+    @Override
+    void set(int row, String value) {
+        values.set(row, Integer.parseInt(value));
+    }
+
+    @Override
+    void clear(int row) {
+        values.set(row, 0);
+    }
+
+    @Override
+    public void force() throws IOException {
+        values.force();
+        super.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        values.close();
+        super.close();
+    }
+}
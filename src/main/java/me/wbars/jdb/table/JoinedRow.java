@@ -0,0 +1,29 @@
+package me.wbars.jdb.table;
+
+import java.util.AbstractList;
+import java.util.List;
+
+public class JoinedRow extends AbstractList<String> {
+    private final List<Column> columns;
+    private final boolean[] fromLeft;
+    private final int left;
+    private final int right;
+
+    public JoinedRow(List<Column> columns, boolean[] fromLeft, int left, int right) {
+        this.columns = columns;
+        this.fromLeft = fromLeft;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public String get(int index) {
+        int row = fromLeft[index] ? left : right;
+        return row >= 0 ? columns.get(index).get(row) : null;
+    }
+
+    @Override
+    public int size() {
+        return columns.size();
+    }
+}
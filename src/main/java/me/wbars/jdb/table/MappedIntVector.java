@@ -0,0 +1,131 @@
+package me.wbars.jdb.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class MappedIntVector implements IntVector {
+    static final int PAGE_SHIFT = 14;
+    static final int SEGMENT_SHIFT = 20;
+    private static final int PAGE_INTS = 1 << PAGE_SHIFT;
+    private static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final List<IntBuffer> segments = new CopyOnWriteArrayList<>();
+    private final ByteBuffer pageBuffer = ByteBuffer.allocateDirect(PAGE_INTS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private volatile Page page = new Page(-1, new int[PAGE_INTS]);
+    private boolean pageDirty;
+
+    private MappedIntVector(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static MappedIntVector open(Path file) throws IOException {
+        return new MappedIntVector(FileChannel.open(file, CREATE, READ, WRITE));
+    }
+
+    private static class Page {
+        final int index;
+        final int[] values;
+
+        Page(int index, int[] values) {
+            this.index = index;
+            this.values = values;
+        }
+    }
+
+    @Override
+    public int get(int index) {
+        Page current = page;
+        if (index >>> PAGE_SHIFT == current.index) return current.values[index & (PAGE_INTS - 1)];
+        return segment(index >>> SEGMENT_SHIFT).get(index & (SEGMENT_INTS - 1));
+    }
+
+    @Override
+    public void read(int from, int[] target, int length) {
+        for (int i = 0; i < length; ) {
+            int index = from + i;
+            int count = Math.min(length - i, PAGE_INTS - (index & (PAGE_INTS - 1)));
+            Page current = page;
+            if (index >>> PAGE_SHIFT == current.index) System.arraycopy(current.values, index & (PAGE_INTS - 1), target, i, count);
+            else {
+                IntBuffer segment = segment(index >>> SEGMENT_SHIFT).duplicate();
+                segment.position(index & (SEGMENT_INTS - 1));
+                segment.get(target, i, count);
+            }
+            i += count;
+        }
+    }
+
+    @Override
+    public void set(int index, int value) {
+        if (index >>> PAGE_SHIFT != page.index) loadPage(index >>> PAGE_SHIFT);
+        page.values[index & (PAGE_INTS - 1)] = value;
+        pageDirty = true;
+    }
+
+    private void loadPage(int index) {
+        try {
+            flushPage();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        IntBuffer segment = segment((int) ((long) index * PAGE_INTS >>> SEGMENT_SHIFT)).duplicate();
+        segment.position((int) ((long) index * PAGE_INTS & (SEGMENT_INTS - 1)));
+        int[] loaded = new int[PAGE_INTS];
+        segment.get(loaded);
+        page = new Page(index, loaded);
+    }
+
+    private void flushPage() throws IOException {
+        if (!pageDirty) return;
+        pageBuffer.clear();
+        pageBuffer.asIntBuffer().put(page.values);
+        long position = (long) page.index * PAGE_INTS * Integer.BYTES;
+        synchronized (segments) {
+            while (pageBuffer.hasRemaining()) position += channel.write(pageBuffer, position);
+        }
+        pageDirty = false;
+    }
+
+    private IntBuffer segment(int index) {
+        if (index < segments.size()) return segments.get(index);
+        synchronized (segments) {
+            try {
+                while (segments.size() <= index) mapSegment(segments.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return segments.get(index);
+    }
+
+    private void mapSegment(int index) throws IOException {
+        long size = (long) SEGMENT_INTS * Integer.BYTES;
+        long end = (index + 1) * size;
+        if (channel.size() < end) channel.write(ByteBuffer.allocate(1), end - 1);
+        segments.add(channel.map(FileChannel.MapMode.READ_ONLY, index * size, size).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+    }
+
+    @Override
+    public void force() throws IOException {
+        flushPage();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushPage();
+        channel.close();
+    }
+}
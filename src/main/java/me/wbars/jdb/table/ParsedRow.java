@@ -0,0 +1,50 @@
+package me.wbars.jdb.table;
+
+import java.util.AbstractList;
+import java.util.List;
+
+public class ParsedRow extends AbstractList<String> {
+    private final String[] strings;
+    private final int[] ints;
+    private final boolean[] integers;
+
+    public ParsedRow(int size) {
+        this.strings = new String[size];
+        this.ints = new int[size];
+        this.integers = new boolean[size];
+    }
+
+    public void setString(int index, String value) {
+        strings[index] = value;
+    }
+
+    public void setInt(int index, int value) {
+        ints[index] = value;
+        integers[index] = true;
+    }
+
+    public boolean isInt(int index) {
+        return integers[index];
+    }
+
+    public int getInt(int index) {
+        return ints[index];
+    }
+
+    void addTo(List<Column> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (integers[i]) ((IntegerColumn) columns.get(i)).addInt(ints[i]);
+            else columns.get(i).add(strings[i]);
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        return integers[index] ? String.valueOf(ints[index]) : strings[index];
+    }
+
+    @Override
+    public int size() {
+        return strings.length;
+    }
+}
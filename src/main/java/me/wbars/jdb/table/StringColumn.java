@@ -0,0 +1,77 @@
+package me.wbars.jdb.table;
+
+import me.wbars.jdb.scanner.Type;
+
+import java.io.IOException;
+
+public class StringColumn extends Column {
+    private final IntVector codes;
+    private final StringDictionary dictionary;
+
+    StringColumn(IntVector codes, IntVector nulls, StringDictionary dictionary, int size) {
+        super(nulls, size);
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.STRING;
+    }
+
+    public int getCode(int row) {
+        return codes.get(row);
+    }
+
+    public void readCodes(int from, int[] target, int length) {
+        codes.read(from, target, length);
+    }
+
+    public String decode(int code) {
+        return dictionary.decode(code);
+    }
+
+    public int findCode(String value) {
+        Integer code = dictionary.find(value);
+        return code != null ? code : -1;
+    }
+
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    @Override
+    public String get(int row) {
+        return isNull(row) ? null : dictionary.decode(codes.get(row));
+    }
+
+    @Override
+    public int compare(int row, Comparable<?> value) {
+        String s = dictionary.decode(codes.get(row));
+        return value instanceof String ? s.compareTo((String) value) : Integer.compare(Integer.parseInt(s), (Integer) value);
+    }
+
+    @Override
+    void set(int row, String value) {
+        codes.set(row, dictionary.encode(value));
+    }
+
+    @Override
+    void clear(int row) {
+        codes.set(row, 0);
+    }
+
+    @Override
+    public void force() throws IOException {
+        dictionary.force();
+        codes.force();
+        super.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        dictionary.close();
+        codes.close();
+        super.close();
+    }
+}
@@ -0,0 +1,164 @@
+package me.wbars.jdb.table;
+
+import me.wbars.jdb.utils.IntList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class StringDictionary implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int EMPTY = -1;
+
+    private final FileChannel channel;
+    private final ByteBuffer persisted;
+    private final int[] offsets;
+    private final int[] slots;
+    private final String[] decoded;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+    private ByteBuffer pending;
+
+    private StringDictionary(FileChannel channel, ByteBuffer persisted, int[] offsets) {
+        this.channel = channel;
+        this.persisted = persisted;
+        this.offsets = offsets;
+        this.decoded = new String[offsets.length];
+        this.slots = new int[offsets.length == 0 ? 0 : Integer.highestOneBit(offsets.length * 2 - 1) << 1];
+        Arrays.fill(slots, EMPTY);
+        for (int code = 0; code < offsets.length; code++) {
+            int slot = hash(persisted, offsets[code] + Integer.BYTES, persisted.getInt(offsets[code])) & (slots.length - 1);
+            while (slots[slot] != EMPTY) slot = (slot + 1) & (slots.length - 1);
+            slots[slot] = code;
+        }
+        this.size = offsets.length;
+    }
+
+    public static StringDictionary inMemory() {
+        return new StringDictionary(null, null, new int[0]);
+    }
+
+    public static StringDictionary open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE);
+        ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        IntList offsets = new IntList();
+        int end = 0;
+        while (content.limit() - end >= Integer.BYTES) {
+            int length = content.getInt(end);
+            if (length < 0 || content.limit() - end - Integer.BYTES < length) break;
+            offsets.addInt(end);
+            end += Integer.BYTES + length;
+        }
+        channel.truncate(end);
+        channel.position(end);
+        StringDictionary dictionary = new StringDictionary(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, end), offsets.toIntArray());
+        dictionary.pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        return dictionary;
+    }
+
+    public int encode(String value) {
+        Integer code = find(value);
+        if (code != null) return code;
+        if (channel != null) append(value.getBytes(StandardCharsets.UTF_8));
+        return add(value);
+    }
+
+    public Integer find(String value) {
+        if (slots.length > 0) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            for (int slot = hash(wrapped, 0, bytes.length) & (slots.length - 1); slots[slot] != EMPTY; slot = (slot + 1) & (slots.length - 1)) {
+                if (matches(slots[slot], bytes)) return slots[slot];
+            }
+        }
+        return codes.get(value);
+    }
+
+    public String decode(int code) {
+        if (code >= offsets.length) return values[code - offsets.length];
+        String value = decoded[code];
+        if (value == null) {
+            int offset = offsets[code];
+            byte[] bytes = new byte[persisted.getInt(offset)];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = persisted.get(offset + Integer.BYTES + i);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[code] = value;
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean matches(int code, byte[] bytes) {
+        int offset = offsets[code];
+        if (persisted.getInt(offset) != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (persisted.get(offset + Integer.BYTES + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int from, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) hash = 31 * hash + buffer.get(from + i);
+        return hash ^ hash >>> 16;
+    }
+
+    private int add(String value) {
+        String[] current = values;
+        int index = size - offsets.length;
+        if (index == current.length) current = Arrays.copyOf(current, index << 1);
+        current[index] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    private void append(byte[] bytes) {
+        try {
+            if (pending.remaining() < Integer.BYTES + bytes.length) flush();
+            if (pending.remaining() < Integer.BYTES + bytes.length) {
+                ByteBuffer large = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+                large.flip();
+                while (large.hasRemaining()) channel.write(large);
+                return;
+            }
+            pending.putInt(bytes.length).put(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) channel.write(pending);
+        pending.clear();
+    }
+
+    public void force() throws IOException {
+        if (channel == null) return;
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        flush();
+        channel.close();
+    }
+}
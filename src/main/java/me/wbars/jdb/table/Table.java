@@ -1,27 +1,56 @@
 package me.wbars.jdb.table;
 
-import java.util.ArrayList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 
-public class Table {
+public class Table implements Closeable {
     private final TableMeta meta;
-    private final List<TableRow> rows;
+    private final List<Column> columns;
+    private final Path directory;
+    private volatile int size;
 
-    private Table(TableMeta meta, List<TableRow> rows) {
+    private Table(TableMeta meta) {
+        this(meta, meta.getColumns().stream()
+                .map(c -> Column.create(c.getType()))
+                .collect(toList()), 0, null);
+    }
+
+    Table(TableMeta meta, List<Column> columns, int size, Path directory) {
         this.meta = meta;
-        this.rows = rows;
+        this.columns = columns;
+        this.size = size;
+        this.directory = directory;
     }
 
     public List<List<String>> getRows() {
-        return rows.stream()
-                .map(TableRow::getValues)
-                .collect(toList());
+        return new AbstractList<List<String>>() {
+            @Override
+            public List<String> get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public TableRow getRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException(String.valueOf(row));
+        return new TableRow(columns, row);
     }
 
     public static Table create(String name, List<ColumnData> columns, List<List<String>> rows) {
-        return new Table(TableMeta.create(name, columns), new ArrayList<>(rows.stream().map(TableRow::new).collect(toList())));
+        Table table = new Table(TableMeta.create(name, columns));
+        rows.forEach(table::addRow);
+        return table;
     }
 
     public String getName() {
@@ -34,7 +63,56 @@ public class Table {
                 .collect(toList());
     }
 
-    public void addRow(TableRow row) {
-        rows.add(row);
+    public Column getColumn(String name) {
+        List<TableColumn> tableColumns = meta.getColumns();
+        return range(0, tableColumns.size())
+                .filter(i -> tableColumns.get(i).getName().equals(name))
+                .mapToObj(columns::get)
+                .findAny().orElseThrow(IllegalArgumentException::new);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int addRow(List<String> values) {
+        try {
+            for (int i = 0; i < columns.size(); i++) columns.get(i).add(values.get(i));
+        } catch (RuntimeException e) {
+            columns.forEach(c -> c.truncate(size));
+            throw e;
+        }
+        return size++;
+    }
+
+    public int addRows(List<List<String>> rows) {
+        int first = size;
+        try {
+            for (List<String> row : rows) {
+                if (row instanceof ParsedRow) ((ParsedRow) row).addTo(columns);
+                else for (int i = 0; i < columns.size(); i++) columns.get(i).add(row.get(i));
+            }
+        } catch (RuntimeException e) {
+            columns.forEach(c -> c.truncate(first));
+            throw e;
+        }
+        size = first + rows.size();
+        return first;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void force() throws IOException {
+        if (directory == null) return;
+        for (Column column : columns) column.force();
+        TableFiles.writeRowCount(directory, size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        for (Column column : columns) column.close();
     }
 }
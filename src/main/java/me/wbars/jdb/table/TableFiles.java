@@ -0,0 +1,84 @@
+package me.wbars.jdb.table;
+
+import me.wbars.jdb.scanner.Type;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public final class TableFiles {
+    private static final String META_FILE = "meta";
+    private static final String ROWS_FILE = "rows";
+
+    private TableFiles() {
+    }
+
+    public static Table create(Path directory, String name, List<ColumnData> columns) throws IOException {
+        Files.createDirectories(directory);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(directory.resolve(META_FILE)))) {
+            out.writeUTF(name);
+            out.writeInt(columns.size());
+            for (ColumnData column : columns) {
+                out.writeUTF(column.first);
+                out.writeByte(column.second.ordinal());
+            }
+        }
+        writeRowCount(directory, 0);
+        return open(directory);
+    }
+
+    public static Table open(Path directory) throws IOException {
+        List<ColumnData> columnsData = new ArrayList<>();
+        String name;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(directory.resolve(META_FILE)))) {
+            name = in.readUTF();
+            for (int i = in.readInt(); i > 0; i--) columnsData.add(new ColumnData(in.readUTF(), Type.values()[in.readByte()]));
+        }
+        int size = readRowCount(directory);
+
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < columnsData.size(); i++) columns.add(openColumn(directory, i, columnsData.get(i).second, size));
+        return new Table(TableMeta.create(name, columnsData), columns, size, directory);
+    }
+
+    private static Column openColumn(Path directory, int ordinal, Type type, int size) throws IOException {
+        IntVector nulls = MappedIntVector.open(directory.resolve(ordinal + ".nulls"));
+        IntVector values = MappedIntVector.open(directory.resolve(ordinal + ".values"));
+        if (type == Type.INTEGER) return new IntegerColumn(values, nulls, size);
+        return new StringColumn(values, nulls, StringDictionary.open(directory.resolve(ordinal + ".dict")), size);
+    }
+
+    private static int readRowCount(Path directory) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(directory.resolve(ROWS_FILE))).getInt();
+    }
+
+    static void writeRowCount(Path directory, int size) throws IOException {
+        Path temporary = directory.resolve(ROWS_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, size));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(ROWS_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    public static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+}
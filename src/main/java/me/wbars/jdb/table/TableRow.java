@@ -1,15 +1,32 @@
 package me.wbars.jdb.table;
 
+import java.util.AbstractList;
 import java.util.List;
 
-public class TableRow {
-    private final List<String> values;
+public class TableRow extends AbstractList<String> {
+    private final List<Column> columns;
+    private final int row;
 
-    List<String> getValues() {
-        return values;
+    public TableRow(List<Column> columns, int row) {
+        this.columns = columns;
+        this.row = row;
     }
 
-    public TableRow(List<String> values) {
-        this.values = values;
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public int getRowId() {
+        return row;
+    }
+
+    @Override
+    public String get(int index) {
+        return columns.get(index).get(row);
+    }
+
+    @Override
+    public int size() {
+        return columns.size();
     }
 }
@@ -0,0 +1,355 @@
+package me.wbars.jdb.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+public class Bitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public static Bitmap range(int from, int to) {
+        Bitmap result = new Bitmap();
+        for (int start = from; start < to; start = (start & 0xFFFF0000) + 0x10000) {
+            int end = Math.min(to, (start & 0xFFFF0000) + 0x10000);
+            result.append((char) (start >>> 16), Container.range(start & 0xFFFF, end - (start & 0xFFFF0000)));
+        }
+        return result;
+    }
+
+    public static Bitmap concat(List<Bitmap> parts) {
+        Bitmap result = new Bitmap();
+        for (Bitmap part : parts) {
+            if (part.size > 0 && result.size > 0 && part.keys[0] <= result.keys[result.size - 1])
+                throw new IllegalArgumentException("Bitmaps are not ordered");
+            for (int i = 0; i < part.size; i++) result.append(part.keys[i], part.containers[i]);
+        }
+        return result;
+    }
+
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int i = size > 0 && keys[size - 1] == high ? size - 1 : find(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) value);
+    }
+
+    public boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int result = 0;
+        for (int i = 0; i < size; i++) result += containers[i].cardinality();
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Bitmap and(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else result.appendNonEmpty(keys[i], Container.and(containers[i++], other.containers[j++]));
+        }
+        return result;
+    }
+
+    public Bitmap or(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) result.append(keys[i], containers[i++].copy());
+            else if (i == size || keys[i] > other.keys[j]) result.append(other.keys[j], other.containers[j++].copy());
+            else result.append(keys[i], Container.or(containers[i++], other.containers[j++]));
+        }
+        return result;
+    }
+
+    public Bitmap andNot(Bitmap other) {
+        Bitmap result = new Bitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            if (j < other.size && other.keys[j] == keys[i])
+                result.appendNonEmpty(keys[i], Container.andNot(containers[i], other.containers[j]));
+            else result.append(keys[i], containers[i].copy());
+        }
+        return result;
+    }
+
+    public Bitmap limit(int bound) {
+        Bitmap result = new Bitmap();
+        char high = (char) (bound >>> 16);
+        for (int i = 0; i < size && keys[i] <= high; i++) {
+            if (keys[i] < high) result.append(keys[i], containers[i].copy());
+            else result.appendNonEmpty(keys[i], Container.and(containers[i], Container.range(0, bound & 0xFFFF)));
+        }
+        return result;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) containers[i].forEach(keys[i] << 16, consumer);
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+            private IntList values = new IntList(0);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == values.size() && next < size) {
+                    values = new IntList(containers[next].cardinality());
+                    containers[next].forEach(keys[next] << 16, values::addInt);
+                    position = 0;
+                    next++;
+                }
+                return position < values.size();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return values.getInt(position++);
+            }
+        };
+    }
+
+    public IntList toIntList() {
+        IntList result = new IntList(cardinality());
+        forEach(result::addInt);
+        return result;
+    }
+
+    private int find(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void appendNonEmpty(char high, Container container) {
+        if (container.cardinality() > 0) append(high, container);
+    }
+
+    private void append(char high, Container container) {
+        insertContainer(size, high, container);
+    }
+
+    private void insertContainer(int i, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            containers = Arrays.copyOf(containers, size << 1);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = high;
+        containers[i] = container;
+        size++;
+    }
+
+    private static abstract class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container copy();
+
+        abstract long[] toWords();
+
+        abstract void forEach(int high, IntConsumer consumer);
+
+        static Container range(int from, int to) {
+            if (to - from <= ARRAY_LIMIT) {
+                ArrayContainer result = new ArrayContainer(to - from);
+                for (int v = from; v < to; v++) result.values[result.cardinality++] = (char) v;
+                return result;
+            }
+            long[] words = new long[WORDS];
+            for (int v = from; v < to; v++) words[v >>> 6] |= 1L << v;
+            return new BitmapContainer(words, to - from);
+        }
+
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+            if (b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+            long[] words = a.toWords();
+            long[] other = ((BitmapContainer) b).words;
+            for (int i = 0; i < WORDS; i++) words[i] &= other[i];
+            return fromWords(words);
+        }
+
+        static Container or(Container a, Container b) {
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                    && a.cardinality() + b.cardinality() <= ARRAY_LIMIT) {
+                return ((ArrayContainer) a).merge((ArrayContainer) b);
+            }
+            long[] words = a.toWords();
+            if (b instanceof ArrayContainer) b.forEach(0, v -> words[v >>> 6] |= 1L << v);
+            else for (int i = 0; i < WORDS; i++) words[i] |= ((BitmapContainer) b).words[i];
+            return fromWords(words);
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+            long[] words = a.toWords();
+            if (b instanceof ArrayContainer) b.forEach(0, v -> words[v >>> 6] &= ~(1L << v));
+            else for (int i = 0; i < WORDS; i++) words[i] &= ~((BitmapContainer) b).words[i];
+            return fromWords(words);
+        }
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) cardinality += Long.bitCount(word);
+            if (cardinality > ARRAY_LIMIT) return new BitmapContainer(words, cardinality);
+
+            ArrayContainer result = new ArrayContainer(cardinality);
+            new BitmapContainer(words, cardinality).forEach(0, v -> result.values[result.cardinality++] = (char) v);
+            return result;
+        }
+    }
+
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(4);
+        }
+
+        ArrayContainer(int capacity) {
+            values = new char[Math.max(capacity, 1)];
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = cardinality > 0 && values[cardinality - 1] < value ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) return this;
+            if (cardinality == ARRAY_LIMIT) return new BitmapContainer(toWords(), cardinality).add(value);
+
+            i = -i - 1;
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(cardinality << 1, ARRAY_LIMIT));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer result = new ArrayContainer();
+            result.values = Arrays.copyOf(values, Math.max(cardinality, 1));
+            result.cardinality = cardinality;
+            return result;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) words[values[i] >>> 6] |= 1L << values[i];
+            return words;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) consumer.accept(high | values[i]);
+        }
+
+        ArrayContainer filter(Container other, boolean keep) {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == keep) result.values[result.cardinality++] = values[i];
+            }
+            return result;
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer(cardinality + other.cardinality);
+            int i = 0, j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                char next;
+                if (j == other.cardinality || i < cardinality && values[i] < other.values[j]) next = values[i++];
+                else if (i == cardinality || values[i] > other.values[j]) next = other.values[j++];
+                else {
+                    next = values[i++];
+                    j++;
+                }
+                result.values[result.cardinality++] = next;
+            }
+            return result;
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            if (!contains(value)) {
+                words[value >>> 6] |= 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(toWords(), cardinality);
+        }
+
+        @Override
+        long[] toWords() {
+            return Arrays.copyOf(words, WORDS);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+}
@@ -28,6 +28,20 @@ public class CollectionsUtils {
                 .collect(toList());
     }
 
+    public static <T, R> List<R> mapView(List<T> l, Function<T, R> f) {
+        return new AbstractList<R>() {
+            @Override
+            public R get(int index) {
+                return f.apply(l.get(index));
+            }
+
+            @Override
+            public int size() {
+                return l.size();
+            }
+        };
+    }
+
     public static <T> Stream<Integer> indexes(List<T> l) {
         return range(0, l.size()).boxed();
     }
@@ -60,17 +74,4 @@ public class CollectionsUtils {
     public static <T, S> List<T> withoutNulls(List<T> l, Function<T, S> f) {
         return l.stream().filter(a -> f.apply(a) != null).collect(toList());
     }
-
-    public static <T> List<T> intersection(List<T> l1, List<T> l2) {
-        HashSet<T> s2Set = new HashSet<>(l2);
-        return l1.stream()
-                .filter(s2Set::contains)
-                .collect(toList());
-    }
-
-    public static <T> List<T> union(List<T> l1, List<T> l2) {
-        return Stream.concat(l1.stream(), l2.stream())
-                .distinct()
-                .collect(toList());
-    }
 }
@@ -0,0 +1,59 @@
+package me.wbars.jdb.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(4);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    public void addInt(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size << 1);
+        values[size++] = value;
+    }
+
+    public void addInts(IntList other) {
+        addInts(other, 0);
+    }
+
+    public void addInts(IntList other, int from) {
+        int count = other.size - from;
+        if (count <= 0) return;
+        if (size + count > values.length) values = Arrays.copyOf(values, Math.max(size + count, size << 1));
+        System.arraycopy(other.values, from, values, size, count);
+        size += count;
+    }
+
+    public int getInt(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(String.valueOf(index));
+        return values[index];
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public void forEachInt(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) consumer.accept(values[i]);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,81 @@
+package me.wbars.jdb.utils;
+
+import java.util.Arrays;
+
+public class LongIntHashMap {
+    public static final int ABSENT = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+    }
+
+    public int get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == ABSENT || keys[slot] == key) return value;
+        }
+    }
+
+    public int putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        for (; values[slot] != ABSENT; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length >>> 1) grow();
+        return value;
+    }
+
+    public int put(long key, int value) {
+        int slot = slot(key);
+        for (; values[slot] != ABSENT; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length >>> 1) grow();
+        return ABSENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        return (int) HyperLogLog.hash(key) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldValues.length << 1];
+        Arrays.fill(values, ABSENT);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == ABSENT) continue;
+            int slot = slot(oldKeys[i]);
+            while (values[slot] != ABSENT) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
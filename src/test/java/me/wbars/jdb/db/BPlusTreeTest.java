@@ -0,0 +1,93 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.utils.IntList;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class BPlusTreeTest {
+
+    @Test
+    public void ascendingInsertsKeepTreeBalanced() throws Exception {
+        BPlusTree<Integer> tree = new BPlusTree<>(4);
+        for (int i = 0; i < 100000; i++) tree.insert(i, i);
+
+        assertThat(tree.size(), is(100000));
+        assertThat(tree.height() <= 17, is(true));
+        assertThat(tree.find(99999), is(singletonList(99999)));
+        assertThat(tree.find(100000), is(nullValue()));
+    }
+
+    @Test
+    public void duplicateKeysShareEntry() throws Exception {
+        BPlusTree<String> tree = new BPlusTree<>(3);
+        tree.insert("b", 0);
+        tree.insert("a", 1);
+        tree.insert("b", 2);
+
+        assertThat(tree.size(), is(2));
+        assertThat(tree.find("b"), is(asList(0, 2)));
+    }
+
+    @Test
+    public void walkStopsEarlyInBothDirections() throws Exception {
+        BPlusTree<Integer> tree = new BPlusTree<>(3);
+        for (int i = 1; i <= 20; i++) tree.insert(i, i);
+
+        List<Integer> ascending = new ArrayList<>();
+        assertThat(tree.walk(false, (key, rowIds) -> ascending.add(key) && key < 4), is(false));
+        assertThat(ascending, is(asList(1, 2, 3, 4)));
+
+        List<Integer> descending = new ArrayList<>();
+        assertThat(tree.walk(true, (key, rowIds) -> descending.add(key) && key > 17), is(false));
+        assertThat(descending, is(asList(20, 19, 18, 17)));
+
+        List<Integer> all = new ArrayList<>();
+        assertThat(tree.walk(true, (key, rowIds) -> all.add(key)), is(true));
+        assertThat(all.size(), is(20));
+    }
+
+    @Test
+    public void rangeScanFollowsSiblingLinks() throws Exception {
+        BPlusTree<Integer> tree = new BPlusTree<>(3);
+        for (int i = 20; i > 0; i--) tree.insert(i, i);
+
+        assertThat(scan(tree, 5, true, 9, false), is(asList(5, 6, 7, 8)));
+        assertThat(scan(tree, 18, false, null, false), is(asList(19, 20)));
+        assertThat(scan(tree, null, false, 3, true), is(asList(1, 2, 3)));
+        assertThat(scan(tree, 21, true, null, false), is(new ArrayList<Integer>()));
+    }
+
+    @Test
+    public void bulkLoadMatchesInserts() throws Exception {
+        List<Map.Entry<Integer, IntList>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            IntList rowIds = new IntList();
+            rowIds.addInt(i);
+            entries.add(new AbstractMap.SimpleEntry<>(i * 2, rowIds));
+        }
+        BPlusTree<Integer> tree = BPlusTree.bulkLoad(entries, 8);
+
+        assertThat(tree.size(), is(1000));
+        assertThat(tree.find(500), is(singletonList(250)));
+        assertThat(tree.find(501), is(nullValue()));
+
+        tree.insert(501, 1000);
+        assertThat(scan(tree, 498, true, 502, true), is(asList(249, 250, 1000, 251)));
+    }
+
+    private static List<Integer> scan(BPlusTree<Integer> tree, Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+        List<Integer> result = new ArrayList<>();
+        tree.scan(from, fromInclusive, to, toInclusive, result::addAll);
+        return result;
+    }
+}
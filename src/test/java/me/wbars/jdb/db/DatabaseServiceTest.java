@@ -6,10 +6,18 @@ import me.wbars.jdb.table.Table;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
@@ -99,14 +107,33 @@ public class DatabaseServiceTest {
         createTestTable();
         QueryResult result = databaseService.executeQuery("describe table `test`");
         assertThat(result.isOk(), is(true));
-        List<ColumnData> columns = result.getTable().getColumns();
+        List<List<String>> columns = result.getTable().getRows();
         assertThat(columns, hasSize(2));
 
-        assertThat(columns.get(0).first, is("id"));
-        assertThat(columns.get(0).second, is(Type.INTEGER));
+        assertThat(columns.get(0).subList(0, 2), is(asList("id", "INTEGER")));
+        assertThat(columns.get(1).subList(0, 2), is(asList("data", "STRING")));
+    }
+
+    @Test
+    public void describeTableShowsColumnStatistics() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("insert into `test`(`id`) values(3)");
 
-        assertThat(columns.get(1).first, is("data"));
-        assertThat(columns.get(1).second, is(Type.STRING));
+        List<List<String>> columns = databaseService.executeQuery("describe table `test`").getTable().getRows();
+        assertThat(columns.get(0).subList(2, 7), is(asList("10", "0", "9", "1", "9")));
+        assertThat(columns.get(1).subList(2, 7), is(asList("10", "1", "9", "1", "9")));
+    }
+
+    @Test
+    public void analyzeTableRebuildsHistograms() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `a`), (2, `b`), (2, `c`), (4, `d`)");
+
+        QueryResult result = databaseService.executeQuery("analyze table `test`");
+        assertThat(result.isOk(), is(true));
+        assertThat(result.getTable().getRows().get(0).get(7), is("1:1 2:1 2:1 4:1"));
+        assertThat(databaseService.executeQuery("analyze table `missing`").isOk(), is(false));
     }
 
     @Test
@@ -152,6 +179,37 @@ public class DatabaseServiceTest {
         assertTableWithSizeAndValues(2, 1, asList(singletonList("a12"), singletonList("bb")), result.getTable());
     }
 
+    @Test
+    public void selectWithPredicateOnNullableColumn() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `a12`)");
+        databaseService.executeQuery("insert into `test`(`data`) values(`bb`)");
+        databaseService.executeQuery("insert into `test`(`id`) values(3)");
+
+        QueryResult result = databaseService.executeQuery("select (`id`, `data`) from `test` where `id` >= 1");
+        assertThat(result.isOk(), is(true));
+        assertTableWithSizeAndValues(2, 2, asList(asList("1", "a12"), asList("3", null)), result.getTable());
+    }
+
+    @Test
+    public void selectOverTrailingNullsReadsWholeBatches() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `a`)");
+        for (int i = 0; i < 20; i++) databaseService.executeQuery("insert into `test`(`data`) values(`x`)");
+        for (int i = 0; i < 20; i++) databaseService.executeQuery("insert into `test`(`id`) values(2)");
+
+        QueryResult all = databaseService.executeQuery("select (`id`, `data`) from `test`");
+        assertThat(all.isOk(), is(true));
+        assertThat(all.getTable().getRows(), hasSize(41));
+        assertThat(all.getTable().getRows().get(20), is(asList(null, "x")));
+        assertThat(all.getTable().getRows().get(40), is(asList("2", null)));
+
+        QueryResult filtered = databaseService.executeQuery("select (`id`, `data`) from `test` where `id` = 1 or `data` = `x`");
+        assertThat(filtered.isOk(), is(true));
+        assertThat(filtered.getTable().getRows(), hasSize(21));
+        assertThat(filtered.getTable().getRows().get(0), is(asList("1", "a")));
+    }
+
     private void populateDummyData() {
         databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `one`)");
         databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `one_again`)");
@@ -307,6 +365,48 @@ public class DatabaseServiceTest {
         assertTableWithSizeAndValues(1, 1, singletonList(singletonList("4")), result.getTable());
     }
 
+    @Test
+    public void selectWithThreeConjuncts() throws Exception {
+        createTestTable();
+        nineSampleRows();
+
+        QueryResult result = databaseService.executeQuery("select (`id`) from `test` where `id` > 2 and `id` < 8 and `data` != `5`");
+        assertTableWithSizeAndValues(4, 1, asList(singletonList("3"), singletonList("4"), singletonList("6"), singletonList("7")), result.getTable());
+    }
+
+    @Test
+    public void selectWithDisjunctionInParensAndConjunct() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("create index `id` on `test`");
+
+        QueryResult result = databaseService.executeQuery("select (`id`) from `test` where (`id` < 3 or `id` > 7) and `id` < 9");
+        assertTableWithSizeAndValues(3, 1, asList(singletonList("1"), singletonList("2"), singletonList("8")), result.getTable());
+    }
+
+    @Test
+    public void explainShowsChosenAccessPath() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("create index `id` on `test`");
+
+        Table plan = databaseService.executeQuery("explain select (`id`) from `test` where `id` = 5 and `data` != `5`").getTable();
+        assertTableWithSizeAndValues(1, 3, singletonList(asList("IndexScan", "tree index on `id`: `id` = 5; filter: `data` != `5`", "1")), plan);
+
+        plan = databaseService.executeQuery("explain select (`id`) from `test` where `id` < 3 or `id` > 7").getTable();
+        assertTableWithSizeAndValues(1, 3, singletonList(asList("SeqScan", "filter: `id` < 3 or `id` > 7", "4")), plan);
+    }
+
+    @Test
+    public void explainAnalyzeReportsRowsPerNode() throws Exception {
+        createTestTable();
+        nineSampleRows();
+
+        List<String> node = databaseService.executeQuery("explain analyze select (`id`) from `test` where `id` > 6").getTable().getRows().get(0);
+        assertThat(node.subList(0, 5), is(asList("SeqScan", "filter: `id` > 6", "3", "9", "3")));
+        assertThat(Double.parseDouble(node.get(5)) >= 0, is(true));
+    }
+
     @Test
     public void createIndex() throws Exception {
         createTestTable();
@@ -422,4 +522,526 @@ public class DatabaseServiceTest {
         assertThat(result.isOk(), is(true));
         assertTableWithSizeAndValues(1, 1, singletonList(singletonList("one")), result.getTable());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void hashIndexEqualityLookup() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("create hash index `data` on `test`");
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(10, `3`)");
+
+        QueryResult result = databaseService.executeQuery("select (`id`) from `test` where `data` = `3`");
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("3"), singletonList("10")), result.getTable());
+
+        result = databaseService.executeQuery("select (`id`) from `test` where `data` = `42`");
+        assertTableWithSizeAndValues(0, 1, emptyList(), result.getTable());
+    }
+
+    @Test
+    public void hashIndexRangePredicate() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("create hash index `id` on `test`");
+
+        QueryResult result = databaseService.executeQuery("select (`id`) from `test` where `id` > 7 or `id` = 2");
+        assertTableWithSizeAndValues(3, 1, asList(singletonList("2"), singletonList("8"), singletonList("9")), result.getTable());
+    }
+
+    @Test
+    public void hashAndTreeIndexOnSameColumn() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        assertThat(databaseService.executeQuery("create index `id` on `test`").isOk(), is(true));
+        assertThat(databaseService.executeQuery("create hash index `id` on `test`").isOk(), is(true));
+        assertThat(databaseService.executeQuery("create hash index `id` on `test`").isOk(), is(false));
+
+        QueryResult result = databaseService.executeQuery("select (`id`) from `test` where `id` = 4 or `id` >= 9");
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("4"), singletonList("9")), result.getTable());
+    }
+
+    private void createOrdersTable() {
+        databaseService.executeQuery("create table `orders` (`customer` integer, `id` integer, `status` string)");
+        for (int i = 0; i < 40; i++)
+            databaseService.executeQuery(String.format("insert into `orders`(`customer`, `id`, `status`) values(%d, %d, `s%d`)", i % 4, i, i % 3));
+    }
+
+    @Test
+    public void compositeIndexPrefixAndRange() throws Exception {
+        createOrdersTable();
+        assertThat(databaseService.executeQuery("create index (`customer`, `id`) on `orders`").isOk(), is(true));
+        databaseService.executeQuery("insert into `orders`(`customer`, `id`, `status`) values(2, 42, `s0`)");
+
+        QueryResult result = databaseService.executeQuery("select (`id`, `status`) from `orders` where `customer` = 2 and `id` > 25");
+        assertTableWithSizeAndValues(5, 2, asList(asList("26", "s2"), asList("30", "s0"), asList("34", "s1"), asList("38", "s2"), asList("42", "s0")),
+                result.getTable());
+
+        Table plan = databaseService.executeQuery("explain select (`status`) from `orders` where `customer` = 2 and `id` > 25 and `status` = `s0`").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("IndexScan",
+                "tree index on (`customer`, `id`): `customer` = 2 and `id` > 25; filter: `status` = `s0`")));
+    }
+
+    @Test
+    public void coveringIndexAnswersSelectWithoutTable() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("create index (`customer`, `id`) on `orders` include (`status`)");
+
+        QueryResult result = databaseService.executeQuery("select (`id`, `status`) from `orders` where `customer` = 1 and `id` < 14 and `status` != `s1`");
+        assertTableWithSizeAndValues(2, 2, asList(asList("5", "s2"), asList("9", "s0")), result.getTable());
+
+        Table plan = databaseService.executeQuery("explain analyze select (`id`) from `orders` where `customer` = 3 and `id` <= 11").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("IndexOnlyScan",
+                "tree index on (`customer`, `id`) include (`status`): `customer` = 3 and `id` <= 11")));
+        assertThat(plan.getRows().get(0).get(4), is("3"));
+    }
+
+    @Test
+    public void invalidCompositeIndexes() throws Exception {
+        createOrdersTable();
+        assertThat(databaseService.executeQuery("create index (`customer`, `id`) on `orders`").isOk(), is(true));
+        assertThat(databaseService.executeQuery("create index (`customer`, `id`) on `orders`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("create index (`customer`, `id`) on `orders` include (`status`)").isOk(), is(true));
+        assertThat(databaseService.executeQuery("create hash index (`customer`, `id`) on `orders`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("create index (`customer`, `missing`) on `orders`").isOk(), is(false));
+    }
+
+    @Test
+    public void orderByWithLimitAndOffset() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("insert into `orders`(`customer`) values(9)");
+
+        QueryResult top = databaseService.executeQuery("select (`id`, `status`) from `orders` where `customer` = 1 order by `id` desc limit 3");
+        assertTableWithSizeAndValues(3, 2, asList(asList("37", "s1"), asList("33", "s0"), asList("29", "s2")), top.getTable());
+
+        QueryResult page = databaseService.executeQuery("select (`id`) from `orders` order by `id` limit 2 offset 1");
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("0"), singletonList("1")), page.getTable());
+
+        QueryResult ties = databaseService.executeQuery("select (`id`) from `orders` where `id` < 6 order by `status` desc");
+        assertTableWithSizeAndValues(6, 1, asList(singletonList("2"), singletonList("5"), singletonList("1"), singletonList("4"),
+                singletonList("0"), singletonList("3")), ties.getTable());
+
+        Table plan = databaseService.executeQuery("explain select (`id`) from `orders` order by `id` desc limit 5").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("Limit", "limit 5")));
+        assertThat(plan.getRows().get(1).subList(0, 2), is(asList("  TopN", "order by `id` desc; top 5")));
+
+        assertThat(databaseService.executeQuery("select (`id`) from `orders` order by `missing`").isOk(), is(false));
+    }
+
+    @Test
+    public void orderByWalksTreeIndex() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("create index `id` on `orders`");
+        databaseService.executeQuery("insert into `orders`(`customer`) values(9)");
+
+        QueryResult desc = databaseService.executeQuery("select (`id`) from `orders` order by `id` desc limit 2");
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("39"), singletonList("38")), desc.getTable());
+
+        QueryResult asc = databaseService.executeQuery("select (`customer`, `id`) from `orders` where `customer` = 2 order by `id` limit 2 offset 1");
+        assertTableWithSizeAndValues(2, 2, asList(asList("2", "6"), asList("2", "10")), asc.getTable());
+
+        QueryResult nulls = databaseService.executeQuery("select (`customer`, `id`) from `orders` order by `id` limit 1");
+        assertTableWithSizeAndValues(1, 2, singletonList(asList("9", null)), nulls.getTable());
+
+        Table plan = databaseService.executeQuery("explain analyze select (`id`) from `orders` where `customer` = 2 order by `id` limit 2").getTable();
+        assertThat(plan.getRows().get(1).subList(0, 2), is(asList("  IndexOrderScan", "tree index on `id` asc; filter: `customer` = 2; top 2")));
+        assertThat(plan.getRows().get(1).get(4), is("2"));
+    }
+
+    @Test
+    public void groupByAggregates() throws Exception {
+        createOrdersTable();
+
+        QueryResult result = databaseService.executeQuery("select (`customer`, count(*), sum(`id`), min(`status`), max(`id`), avg(`id`)) " +
+                "from `orders` where `id` < 20 group by `customer` order by `customer` desc limit 2");
+        assertThat(result.getTable().getColumns().stream().map(c -> c.first).collect(toList()),
+                is(asList("customer", "count(*)", "sum(id)", "min(status)", "max(id)", "avg(id)")));
+        assertTableWithSizeAndValues(2, 6, asList(asList("3", "5", "55", "s0", "19", "11.0"), asList("2", "5", "50", "s0", "18", "10.0")),
+                result.getTable());
+
+        QueryResult pairs = databaseService.executeQuery("select (`customer`, `status`, count(*)) from `orders` where `id` < 6 " +
+                "group by `customer`, `status` order by `customer`");
+        assertTableWithSizeAndValues(6, 3, asList(asList("0", "s0", "1"), asList("0", "s1", "1"), asList("1", "s1", "1"),
+                asList("1", "s2", "1"), asList("2", "s2", "1"), asList("3", "s0", "1")), pairs.getTable());
+
+        Table plan = databaseService.executeQuery("explain analyze select (`status`, count(*)) from `orders` group by `status`").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("HashAggregate", "group by `status`: count(*)")));
+        assertThat(plan.getRows().get(0).get(4), is("3"));
+        assertThat(plan.getRows().get(1).subList(0, 2), is(asList("  SeqScan", "all rows")));
+    }
+
+    @Test
+    public void aggregatesOverNullsAndEmptyInput() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("insert into `orders`(`customer`) values(9)");
+
+        QueryResult nulls = databaseService.executeQuery("select (count(*), count(`id`), sum(`id`), max(`status`)) from `orders` where `customer` = 9");
+        assertTableWithSizeAndValues(1, 4, singletonList(asList("1", "0", null, null)), nulls.getTable());
+
+        QueryResult empty = databaseService.executeQuery("select (count(*), avg(`id`)) from `orders` where `customer` = 7");
+        assertTableWithSizeAndValues(1, 2, singletonList(asList("0", null)), empty.getTable());
+
+        QueryResult groups = databaseService.executeQuery("select (`status`, count(*)) from `orders` where `customer` > 2 group by `status` order by `status`");
+        assertTableWithSizeAndValues(4, 2, asList(asList(null, "1"), asList("s0", "4"), asList("s1", "3"), asList("s2", "3")),
+                groups.getTable());
+    }
+
+    @Test
+    public void indexAnswersCountAndExtremes() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("create index `id` on `orders`");
+        databaseService.executeQuery("insert into `orders`(`customer`) values(9)");
+
+        QueryResult result = databaseService.executeQuery("select (count(*), min(`id`), max(`id`)) from `orders`");
+        assertTableWithSizeAndValues(1, 3, singletonList(asList("41", "0", "39")), result.getTable());
+
+        Table plan = databaseService.executeQuery("explain select (count(*), max(`id`)) from `orders`").getTable();
+        assertThat(plan.getRows(), hasSize(1));
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("IndexAggregate", "count(*) from table size, max(`id`) from tree index on `id`")));
+
+        Table scan = databaseService.executeQuery("explain select (count(*), max(`status`)) from `orders`").getTable();
+        assertThat(scan.getRows().get(0).get(0), is("HashAggregate"));
+    }
+
+    @Test
+    public void invalidAggregates() throws Exception {
+        createOrdersTable();
+        assertThat(databaseService.executeQuery("select (`status`, count(*)) from `orders`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (sum(`status`)) from `orders`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (count(`missing`)) from `orders`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`status`, count(*)) from `orders` group by `status` order by `id`").isOk(), is(false));
+    }
+
+    @Test
+    public void copyAggregatesToFile() throws Exception {
+        createOrdersTable();
+        Path file = Files.createTempFile("jdb", ".csv");
+        try {
+            databaseService.executeQuery(String.format("copy (select (`status`, count(*), min(`id`)) from `orders` group by `status`) to `%s`", file));
+            assertThat(Files.readAllLines(file), is(asList("s0,14,0", "s1,13,1", "s2,13,2")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private void createCustomersTable() {
+        databaseService.executeQuery("create table `customers` (`id` integer, `name` string)");
+        for (int i = 0; i < 3; i++) databaseService.executeQuery(String.format("insert into `customers`(`id`, `name`) values(%d, `c%d`)", i, i));
+        for (int i = 10; i < 30; i++) databaseService.executeQuery(String.format("insert into `customers`(`id`, `name`) values(%d, `c%d`)", i, i));
+        databaseService.executeQuery("insert into `customers`(`name`) values(`nobody`)");
+    }
+
+    @Test
+    public void innerJoinPushesFiltersAndHashesSmallerSide() throws Exception {
+        createOrdersTable();
+        createCustomersTable();
+
+        QueryResult result = databaseService.executeQuery("select (`orders.id`, `name`) from `orders` join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` < 8 order by `orders.id` desc");
+        assertThat(result.getTable().getColumns().stream().map(c -> c.first).collect(toList()), is(asList("orders.id", "name")));
+        assertTableWithSizeAndValues(6, 2, asList(asList("6", "c2"), asList("5", "c1"), asList("4", "c0"), asList("2", "c2"),
+                asList("1", "c1"), asList("0", "c0")), result.getTable());
+
+        QueryResult mixed = databaseService.executeQuery("select (`orders.id`) from `orders` inner join `customers` " +
+                "on `customers.id` = `customer` where `name` = `c1` and `orders.id` < 10");
+        assertTableWithSizeAndValues(3, 1, asList(singletonList("1"), singletonList("5"), singletonList("9")), mixed.getTable());
+
+        Table plan = databaseService.executeQuery("explain analyze select (`name`) from `orders` join `customers` on `customer` = `customers.id`").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2), is(asList("HashJoin", "inner join on `orders.customer` = `customers.id`; build `customers`")));
+        assertThat(plan.getRows().get(0).get(4), is("30"));
+        assertThat(plan.getRows().get(1).subList(0, 2), is(asList("  SeqScan", "all rows")));
+    }
+
+    @Test
+    public void leftJoinKeepsUnmatchedRows() throws Exception {
+        createOrdersTable();
+        createCustomersTable();
+
+        QueryResult result = databaseService.executeQuery("select (`orders.id`, `name`) from `orders` left join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` < 4");
+        assertTableWithSizeAndValues(4, 2, asList(asList("0", "c0"), asList("1", "c1"), asList("2", "c2"), asList("3", null)),
+                result.getTable());
+
+        QueryResult ordered = databaseService.executeQuery("select (`orders.id`, `name`) from `orders` left join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` < 4 order by `name` desc limit 2 offset 1");
+        assertTableWithSizeAndValues(2, 2, asList(asList("1", "c1"), asList("0", "c0")), ordered.getTable());
+
+        QueryResult unmatched = databaseService.executeQuery("select (`orders.id`) from `orders` left join `customers` " +
+                "on `customer` = `customers.id` where `name` = `c1` or `orders.id` = 3");
+        assertThat(unmatched.getTable().getRows().size(), is(11));
+    }
+
+    @Test
+    public void indexNestedLoopJoinForSelectiveOuterSide() throws Exception {
+        createOrdersTable();
+        createCustomersTable();
+        databaseService.executeQuery("create index `id` on `customers`");
+
+        QueryResult result = databaseService.executeQuery("select (`orders.id`, `name`) from `orders` join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` = 5");
+        assertTableWithSizeAndValues(1, 2, singletonList(asList("5", "c1")), result.getTable());
+
+        Table plan = databaseService.executeQuery("explain analyze select (`name`) from `orders` join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` = 5").getTable();
+        assertThat(plan.getRows().get(0).subList(0, 2),
+                is(asList("IndexNestedLoopJoin", "inner join on `orders.customer` = `customers.id`; lookup tree index on `customers.id`")));
+        assertThat(plan.getRows().get(0).get(4), is("1"));
+
+        QueryResult outer = databaseService.executeQuery("select (`orders.id`, `name`) from `orders` left join `customers` " +
+                "on `customer` = `customers.id` where `orders.id` = 7");
+        assertTableWithSizeAndValues(1, 2, singletonList(asList("7", null)), outer.getTable());
+    }
+
+    @Test
+    public void joinOnStringColumns() throws Exception {
+        createOrdersTable();
+        databaseService.executeQuery("create table `statuses` (`code` string, `label` string)");
+        databaseService.executeQuery("insert into `statuses`(`code`, `label`) values(`s2`, `closed`)");
+        databaseService.executeQuery("insert into `statuses`(`code`, `label`) values(`s9`, `unknown`)");
+        databaseService.executeQuery("insert into `statuses`(`code`, `label`) values(`s0`, `open`)");
+
+        QueryResult result = databaseService.executeQuery("select (`id`, `label`) from `orders` join `statuses` " +
+                "on `status` = `code` where `id` < 4");
+        assertTableWithSizeAndValues(3, 2, asList(asList("0", "open"), asList("2", "closed"), asList("3", "open")), result.getTable());
+    }
+
+    @Test
+    public void invalidJoins() throws Exception {
+        createOrdersTable();
+        createCustomersTable();
+        assertThat(databaseService.executeQuery("select (`id`) from `orders` join `customers` on `customer` = `customers.id`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`name`) from `orders` join `customers` on `customer` = `missing`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`name`) from `orders` join `missing` on `customer` = `id`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`name`) from `orders` join `customers` on `customer` = `orders.id`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`name`) from `orders` join `customers` on `status` = `customers.id`").isOk(), is(false));
+        assertThat(databaseService.executeQuery("select (`id`) from `orders` join `orders` on `customer` = `id`").isOk(), is(false));
+    }
+
+    @Test
+    public void concurrentSelectsDuringInserts() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("create index `id` on `test`");
+        databaseService.executeQuery("create hash index `data` on `test`");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        databaseService.executeQuery(String.format("insert into `test`(`id`, `data`) values(%d, `w%d`)", writer * 1000 + i, writer));
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    while (!writers.stream().allMatch(Future::isDone)) {
+                        List<List<String>> rows = databaseService.executeQuery("select (`id`, `data`) from `test` where `id` >= 1000 and `data` = `w1`").getTable().getRows();
+                        for (int i = 0; i < rows.size(); i++) {
+                            assertThat(rows.get(i), is(asList(String.valueOf(1000 + i), "w1")));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : writers) future.get();
+            for (Future<?> future : readers) future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(storage.selectAllRows("test"), hasSize(1000));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `data` = `w2`").getTable().getRows(), hasSize(250));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `id` < 1000").getTable().getRows(), hasSize(250));
+    }
+
+    @Test
+    public void multiRowInsert() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("create index `id` on `test`");
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(3, `c`), (1, `a`), (2, `b`)");
+
+        QueryResult result = databaseService.executeQuery("select (`data`) from `test` where `id` < 3");
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("a"), singletonList("b")), result.getTable());
+    }
+
+    @Test
+    public void insertBatchUpdatesIndexes() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        databaseService.executeQuery("create index `id` on `test`");
+        databaseService.executeQuery("create hash index `data` on `test`");
+
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 10000; i > 9; i--) rows.add(asList(String.valueOf(i % 100 == 0 ? 5 : i), i % 2 == 0 ? "even" : "odd"));
+        databaseService.insertBatch("test", asList("id", "data"), rows.iterator());
+
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `id` = 5").getTable().getRows(), hasSize(101));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `id` >= 9").getTable().getRows(), hasSize(9892));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `data` = `odd`").getTable().getRows(), hasSize(4995));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `id` > 9 and `id` < 12").getTable().getRows(),
+                is(asList(singletonList("11"), singletonList("10"))));
+    }
+
+    @Test
+    public void failedInsertBatchLeavesTableUnchanged() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("create index `id` on `test`");
+        QueryResult result = databaseService.insertBatch("test", singletonList("id"), asList(singletonList("1"), singletonList("x")).iterator());
+        assertThat(result.isOk(), is(false));
+        assertThat(result.getMessage(), is("Row 2: `x` is not an integer; 0 rows were loaded before the error"));
+        assertThat(storage.selectAllRows("test"), is(empty()));
+        assertThat(databaseService.executeQuery("select (`id`) from `test` where `id` = 1").getTable().getRows(), is(empty()));
+    }
+
+    @Test
+    public void failedInsertBatchReportsRowsLoadedByEarlierChunks() throws Exception {
+        createTestTable();
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) rows.add(asList(String.valueOf(i), "a"));
+        rows.set(4499, singletonList("4499"));
+
+        QueryResult result = databaseService.insertBatch("test", asList("id", "data"), rows.iterator());
+        assertThat(result.isOk(), is(false));
+        assertThat(result.getMessage(), is("Row 4500 has 1 values, expected 2; 4096 rows were loaded before the error"));
+        assertThat(storage.selectAllRows("test"), hasSize(4096));
+    }
+
+    @Test
+    public void copyRoundTrip() throws Exception {
+        for (String extension : asList(".csv", ".tsv")) {
+            Path file = Files.createTempFile("jdb", extension);
+            try {
+                setUp();
+                createTestTable();
+                List<List<String>> rows = asList(
+                        asList("1", "plain"), asList("-2", "comma, \"quote\""), asList(null, "tab\tnew\nline\\"),
+                        asList("2147483647", ""), asList("-2147483648", null), asList("4", "\u00fcn\u00efcode"));
+                databaseService.insertBatch("test", asList("id", "data"), rows.iterator());
+
+                QueryResult exported = databaseService.executeQuery(String.format("copy `test` to `%s`", file));
+                assertThat(exported.getTable().getRows(), is(singletonList(singletonList("6"))));
+
+                setUp();
+                createTestTable();
+                QueryResult imported = databaseService.executeQuery(String.format("copy `test` from `%s`", file));
+                assertThat(imported.getTable().getRows(), is(singletonList(singletonList("6"))));
+                assertThat(storage.selectAllRows("test"), is(rows));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void copySelectResultToFile() throws Exception {
+        Path file = Files.createTempFile("jdb", ".csv");
+        try {
+            createTestTable();
+            nineSampleRows();
+            databaseService.executeQuery(String.format("copy (select (`data`) from `test` where `id` > 7) to `%s`", file));
+            assertThat(Files.readAllLines(file), is(asList("8", "9")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void copyFromReportsLineOfBadValue() throws Exception {
+        Path file = Files.createTempFile("jdb", ".csv");
+        try {
+            Files.write(file, asList("1,a", "2,\"multi", "line\"", "x,c"));
+            createTestTable();
+            QueryResult result = databaseService.executeQuery(String.format("copy `test` (`id`, `data`) from `%s`", file));
+            assertThat(result.isOk(), is(false));
+            assertThat(result.getMessage(), is(String.format(
+                    "Cannot import `%s`: Line 4: `x` is not an integer; 0 rows were loaded before the error", file)));
+            assertThat(storage.selectAllRows("test"), is(empty()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void copyFromReportsRowsImportedBeforeError() throws Exception {
+        Path file = Files.createTempFile("jdb", ".csv");
+        try {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) lines.add(i == 4499 ? "x,a" : i + ",a");
+            Files.write(file, lines);
+            createTestTable();
+            QueryResult result = databaseService.executeQuery(String.format("copy `test` from `%s`", file));
+            assertThat(result.isOk(), is(false));
+            assertThat(result.getMessage(), is(String.format(
+                    "Cannot import `%s`: Line 4500: `x` is not an integer; 4096 rows were loaded before the error", file)));
+            assertThat(storage.selectAllRows("test"), hasSize(4096));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void selectCursorStreamsRowsFromSnapshot() throws Exception {
+        createTestTable();
+        nineSampleRows();
+        assertCursorIgnoresLaterInserts(asList(singletonList("8"), singletonList("9")));
+        databaseService.executeQuery("create index `id` on `test`");
+        assertCursorIgnoresLaterInserts(asList(singletonList("8"), singletonList("9"), singletonList("100")));
+    }
+
+    private void assertCursorIgnoresLaterInserts(List<List<String>> expectedRest) {
+        ResultCursor cursor = databaseService.executeQuery("select (`id`) from `test` where `id` > 6").getCursor();
+        assertThat(cursor.getColumns().get(0).first, is("id"));
+        assertThat(cursor.next(), is(singletonList("7")));
+
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(100, `100`)");
+        List<List<String>> rest = new ArrayList<>();
+        cursor.forEachRemaining(rest::add);
+        assertThat(rest, is(expectedRest));
+    }
+
+    @Test
+    public void preparedQueriesBindParameters() throws Exception {
+        createTestTable();
+        PreparedQuery insert = databaseService.prepare("insert into `test`(`id`, `data`) values(?, ?)");
+        assertThat(insert.getParametersCount(), is(2));
+        insert.execute(1, "a");
+        insert.execute(2, "b");
+        insert.execute(3, "a");
+
+        PreparedQuery select = databaseService.prepare("select (`id`) from `test` where `data` = ? and `id` > ?");
+        assertTableWithSizeAndValues(1, 1, singletonList(singletonList("3")), select.execute("a", 1).getTable());
+        assertTableWithSizeAndValues(2, 1, asList(singletonList("1"), singletonList("3")), select.execute("a", 0).getTable());
+    }
+
+    @Test
+    public void preparedQueryRejectsValuesOfWrongType() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(9, `a`)");
+
+        QueryResult mismatched = databaseService.prepare("select (`id`) from `test` where `id` > ?").execute("10");
+        assertThat(mismatched.isOk(), is(false));
+        assertThat(mismatched.getMessage(), is("Column `id` of type INTEGER cannot be compared with `10`"));
+
+        QueryResult literal = databaseService.executeQuery("select (`id`) from `test` where `data` = 1");
+        assertThat(literal.isOk(), is(false));
+        assertThat(literal.getMessage(), is("Column `data` of type STRING cannot be compared with 1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void preparedQueryRejectsWrongParametersCount() throws Exception {
+        createTestTable();
+        databaseService.prepare("select (`id`) from `test` where `id` = ?").execute();
+    }
+
+    @Test
+    public void queriesDifferingOnlyInLiteralsShareTemplate() throws Exception {
+        createTestTable();
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(1, `a`)");
+        databaseService.executeQuery("insert into `test`(`id`, `data`) values(2, `b`)");
+        databaseService.executeQuery("select (`data`) from `test` where `id` = 1");
+        QueryResult result = databaseService.executeQuery("select (`data`) from `test` where `id` = 2");
+
+        assertTableWithSizeAndValues(1, 1, singletonList(singletonList("b")), result.getTable());
+        assertThat(databaseService.cachedQueriesCount(), is(3));
+    }
+}
@@ -0,0 +1,199 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.query.Aggregate;
+import me.wbars.jdb.query.CompareSign;
+import me.wbars.jdb.query.OrderBy;
+import me.wbars.jdb.query.QueryPredicate;
+import me.wbars.jdb.query.SelectQuery;
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class QueryPlannerTest {
+    private static final int ROWS = 1000;
+
+    private Table table;
+    private Index<? extends Comparable<?>> idIndex;
+    private Index<? extends Comparable<?>> groupIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        table = Table.create("test", asList(new ColumnData("id", Type.INTEGER), new ColumnData("group", Type.INTEGER)), emptyList());
+        for (int i = 0; i < ROWS; i++) table.addRow(asList(String.valueOf(i), String.valueOf(i % 4)));
+        idIndex = Index.create(IndexType.TREE, "id", table.getColumn("id"), BPlusTree.DEFAULT_FAN_OUT);
+        groupIndex = Index.create(IndexType.HASH, "group", table.getColumn("group"), BPlusTree.DEFAULT_FAN_OUT);
+    }
+
+    @Test
+    public void normalizeDistributesConjunctsOverDisjunction() throws Exception {
+        QueryPredicate<?> predicate = QueryPredicate.allOf(
+                new QueryPredicate<>("id", CompareSign.LT, 3).or(new QueryPredicate<>("id", CompareSign.GT, 7)),
+                new QueryPredicate<>("group", CompareSign.EQ, 1));
+
+        List<List<String>> conjunctions = QueryPlanner.normalize(predicate).stream()
+                .map(c -> c.stream().map(p -> p.getColumn() + p.getSign() + p.getValueToCompare()).collect(toList()))
+                .collect(toList());
+        assertThat(conjunctions, is(asList(asList("idLT3", "groupEQ1"), asList("idGT7", "groupEQ1"))));
+    }
+
+    @Test
+    public void picksMostSelectiveIndexAndFiltersTheRest() throws Exception {
+        QueryPredicate<?> predicate = new QueryPredicate<>("group", CompareSign.EQ, 1)
+                .and(new QueryPredicate<>("id", CompareSign.EQ, 5));
+
+        RowIdPlan plan = QueryPlanner.plan(table, asList(groupIndex, idIndex), TableStatistics.analyze(table), predicate, ROWS);
+        assertThat(plan instanceof IndexScan, is(true));
+        IndexScan scan = (IndexScan) plan;
+        assertThat(scan.index, is(idIndex));
+        assertThat(scan.residual.get(0).getColumn(), is("group"));
+        assertThat(rowIds(plan), is(asList(5)));
+    }
+
+    @Test
+    public void unselectiveIndexFallsBackToSeqScan() throws Exception {
+        QueryPredicate<?> predicate = new QueryPredicate<>("group", CompareSign.NE, 1);
+
+        RowIdPlan plan = QueryPlanner.plan(table, asList(groupIndex, idIndex), TableStatistics.analyze(table), predicate, ROWS);
+        assertThat(plan instanceof SeqScan, is(true));
+        assertThat(rowIds(plan).size(), is(750));
+    }
+
+    @Test
+    public void disjunctionOfIndexedBranchesUsesUnion() throws Exception {
+        QueryPredicate<?> predicate = new QueryPredicate<>("id", CompareSign.EQ, 10)
+                .or(new QueryPredicate<>("id", CompareSign.EQ, 3).or(new QueryPredicate<>("id", CompareSign.EQ, 10)));
+
+        RowIdPlan plan = QueryPlanner.plan(table, asList(groupIndex, idIndex), TableStatistics.analyze(table), predicate, ROWS);
+        assertThat(plan instanceof Union, is(true));
+        assertThat(rowIds(plan), is(asList(3, 10)));
+    }
+
+    @Test
+    public void explainAnalyzeListsUnionBranches() throws Exception {
+        QueryPredicate<?> predicate = new QueryPredicate<>("id", CompareSign.EQ, 10).or(new QueryPredicate<>("id", CompareSign.EQ, 3));
+
+        RowIdPlan plan = QueryPlanner.plan(table, asList(groupIndex, idIndex), TableStatistics.analyze(table), predicate, ROWS);
+        plan.analyze((index, leaf) -> index.scan(leaf), ROWS, singletonList("id"));
+        List<List<String>> rows = QueryPlanner.explain(plan, true);
+
+        assertThat(rows.stream().map(r -> r.get(0)).collect(toList()), is(asList("Union", "  IndexScan", "  IndexScan")));
+        assertThat(rows.get(0).subList(1, 5), is(asList("2 branches", "2", "2", "2")));
+        assertThat(rows.get(1).subList(1, 5), is(asList("tree index on `id`: `id` = 10", "1", "1", "1")));
+    }
+
+    @Test
+    public void parallelScanMatchesSequentialScan() throws Exception {
+        int rows = QueryPlanner.PARALLEL_SCAN_THRESHOLD + 12345;
+        Table large = Table.create("large", asList(new ColumnData("id", Type.INTEGER), new ColumnData("group", Type.INTEGER)), emptyList());
+        for (int i = 0; i < rows; i++) large.addRow(asList(String.valueOf(i), String.valueOf(i % 7)));
+        QueryPredicate<?> predicate = new QueryPredicate<>("group", CompareSign.EQ, 3).or(new QueryPredicate<>("id", CompareSign.GT, rows - 5));
+
+        RowIdPlan sequential = QueryPlanner.plan(large, emptyList(), TableStatistics.collect(large), predicate, rows);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RowIdPlan parallel = QueryPlanner.parallelize(sequential, pool, rows);
+            assertThat(parallel instanceof ParallelSeqScan, is(true));
+            assertThat(parallel.describe(), is("filter: `group` = 3 or `id` > " + (rows - 5) + "; workers: 4"));
+            assertThat(parallel.collect(null, rows).toIntList(), is(sequential.collect(null, rows).toIntList()));
+            assertThat(QueryPlanner.parallelize(sequential, pool, QueryPlanner.PARALLEL_SCAN_THRESHOLD - 1), is(sequential));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelAggregationMergesWorkerPartials() throws Exception {
+        int rows = QueryPlanner.PARALLEL_SCAN_THRESHOLD + 12345;
+        Table large = Table.create("large", asList(new ColumnData("id", Type.INTEGER), new ColumnData("group", Type.INTEGER)), emptyList());
+        for (int i = 0; i < rows; i++) large.addRow(asList(String.valueOf(i), i % 10 == 0 ? null : String.valueOf(i % 7)));
+        TableStatistics statistics = TableStatistics.collect(large);
+        RowIdPlan scan = QueryPlanner.plan(large, emptyList(), statistics, null, rows);
+        List<Aggregate> items = asList(Aggregate.value("group"), new Aggregate(Aggregate.Function.COUNT, null),
+                new Aggregate(Aggregate.Function.SUM, "id"), new Aggregate(Aggregate.Function.MIN, "id"));
+        OrderBy orderBy = new OrderBy("group", false);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Plan sequential = QueryPlanner.aggregate(scan, large, emptyList(), statistics, null, items, singletonList("group"), orderBy, single, rows);
+            Plan parallel = QueryPlanner.aggregate(scan, large, emptyList(), statistics, null, items, singletonList("group"), orderBy, pool, rows);
+            assertThat(((HashAggregate) sequential).input instanceof SeqScan, is(true));
+            assertThat(((HashAggregate) parallel).input instanceof ParallelSeqScan, is(true));
+
+            List<List<String>> expected = ((HashAggregate) sequential).results(null, rows);
+            assertThat(expected.size(), is(8));
+            assertThat(expected.get(0).subList(0, 2), is(asList(null, String.valueOf((rows + 9) / 10))));
+            assertThat(((HashAggregate) parallel).results(null, rows), is(expected));
+        } finally {
+            single.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void hashAndIndexJoinsProduceSamePairs() throws Exception {
+        Table dimension = Table.create("dimension", asList(new ColumnData("key", Type.INTEGER), new ColumnData("label", Type.STRING)), emptyList());
+        for (int i = 0; i < 6; i++) dimension.addRow(asList(i % 5 == 4 ? null : String.valueOf(i % 3), "l" + i));
+        Index<? extends Comparable<?>> keyIndex = Index.create(IndexType.HASH, "key", dimension.getColumn("key"), BPlusTree.DEFAULT_FAN_OUT);
+        IndexReader reader = (index, access) -> index.scan(access);
+
+        for (boolean outer : asList(false, true)) {
+            JoinInput facts = new JoinInput("test", table, emptyList(), "group", null,
+                    QueryPlanner.plan(table, emptyList(), TableStatistics.analyze(table), null, ROWS), reader, ROWS);
+            JoinInput labels = new JoinInput("dimension", dimension, singletonList(keyIndex), "key", null,
+                    QueryPlanner.plan(dimension, emptyList(), TableStatistics.analyze(dimension), null, 6), reader, 6);
+            List<String> expected = pairs(new HashJoin(facts, labels, outer, null, null, null, null, false, false, ROWS));
+            assertThat(expected.size(), is(outer ? 1500 : 1250));
+            assertThat(expected.get(0), is("0:0"));
+            if (!outer) assertThat(pairs(new HashJoin(facts, labels, false, null, null, null, null, false, true, ROWS)), is(expected));
+            assertThat(pairs(new IndexNestedLoopJoin(facts, labels, outer, null, null, null, null, false, keyIndex, false, ROWS)),
+                    is(expected));
+        }
+    }
+
+    private static List<String> pairs(JoinPlan join) {
+        List<String> pairs = new ArrayList<>();
+        JoinCursor cursor = join.pairs();
+        while (cursor.next()) pairs.add(cursor.left + ":" + cursor.right);
+        pairs.sort(null);
+        return pairs;
+    }
+
+    @Test
+    public void topNMatchesFullSort() throws Exception {
+        RowIdPlan scan = QueryPlanner.plan(table, emptyList(), TableStatistics.analyze(table), null, ROWS);
+        OrderBy orderBy = new OrderBy("group", true);
+        List<Integer> sorted = rowIds(QueryPlanner.order(scan, table, emptyList(), null, orderBy, SelectQuery.NO_LIMIT, ROWS));
+        assertThat(sorted.subList(0, 3), is(asList(3, 7, 11)));
+        assertThat(sorted.get(ROWS - 1), is(ROWS - 4));
+
+        RowIdPlan top = QueryPlanner.order(scan, table, emptyList(), null, orderBy, 10, ROWS);
+        assertThat(top instanceof TopN, is(true));
+        assertThat(rowIds(top), is(sorted.subList(0, 10)));
+
+        RowIdPlan walk = QueryPlanner.order(scan, table, asList(groupIndex, idIndex), null, new OrderBy("id", true), 10, ROWS);
+        assertThat(walk instanceof IndexOrderScan, is(true));
+        List<List<String>> page = new ArrayList<>();
+        QueryPlanner.limit(walk, 2, 3).rows((index, predicate) -> index.scan(predicate), ROWS, singletonList("id")).forEachRemaining(page::add);
+        assertThat(page, is(asList(singletonList(String.valueOf(ROWS - 3)), singletonList(String.valueOf(ROWS - 4)), singletonList(String.valueOf(ROWS - 5)))));
+    }
+
+    private List<Integer> rowIds(RowIdPlan plan) {
+        List<Integer> result = new ArrayList<>();
+        plan.rowIds((index, predicate) -> index.scan(predicate), ROWS).forEachRemaining((int rowId) -> result.add(rowId));
+        return result;
+    }
+}
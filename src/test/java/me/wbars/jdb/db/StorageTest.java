@@ -0,0 +1,291 @@
+package me.wbars.jdb.db;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.ColumnData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StorageTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("jdb");
+    }
+
+    private void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private List<Path> logSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("wal-")).sorted().collect(toList());
+        }
+    }
+
+    private void createTestTable(DatabaseService service) {
+        service.executeQuery("create table `test` (`id` integer, `data` string)");
+    }
+
+    @Test
+    public void recoversTablesRowsAndIndexesFromLog() throws Exception {
+        try (Storage storage = Storage.open(directory)) {
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            createTestTable(service);
+            service.executeQuery("create table `dropped`");
+            service.executeQuery("insert into `test`(`id`, `data`) values(1, `one`)");
+            service.executeQuery("create index `id` on `test`");
+            service.executeQuery("insert into `test`(`data`) values(`two`)");
+            service.executeQuery("insert into `test`(`id`, `data`) values(3, `three`)");
+            service.executeQuery("drop table `dropped`");
+        }
+
+        try (Storage storage = Storage.open(directory)) {
+            assertThat(storage.getTablesNames(), is(singletonList("test")));
+            assertThat(storage.indexExists("test", "id", IndexType.TREE), is(true));
+            assertThat(storage.selectAllRows("test"), is(asList(asList("1", "one"), asList(null, "two"), asList("3", "three"))));
+
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            service.executeQuery("insert into `test`(`id`, `data`) values(4, `four`)");
+            assertThat(service.executeQuery("select (`data`) from `test` where `id` > 2").getTable().getRows(),
+                    is(asList(singletonList("three"), singletonList("four"))));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void ignoresTornTailOfLog() throws Exception {
+        try (Storage storage = Storage.open(directory)) {
+            storage.createTable("test", asList(new ColumnData("id", Type.INTEGER), new ColumnData("data", Type.STRING)));
+        }
+        List<Path> segments = logSegments();
+        Files.write(segments.get(segments.size() - 1), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (Storage storage = Storage.open(directory)) {
+            assertThat(storage.getTablesNames(), is(singletonList("test")));
+            new DatabaseService(new QueryParser(), storage).executeQuery("insert into `test`(`id`) values(1)");
+        }
+        try (Storage storage = Storage.open(directory)) {
+            assertThat(storage.selectAllRows("test"), is(singletonList(asList("1", null))));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void stopsReplayAtCorruptRecordInEarlierSegment() throws Exception {
+        WriteAheadLog log = WriteAheadLog.open(directory, 0, record -> {
+        });
+        log.commit(log.append(new byte[]{1}));
+        log.commit(log.append(new byte[]{2}));
+        log.rotate();
+        log.commit(log.append(new byte[]{3}));
+        log.close();
+        List<Path> segments = logSegments();
+        assertThat(segments.size(), is(2));
+        byte[] first = Files.readAllBytes(segments.get(0));
+        first[first.length - 1] ^= 1;
+        Files.write(segments.get(0), first);
+
+        List<Integer> replayed = new ArrayList<>();
+        log = WriteAheadLog.open(directory, 0, record -> replayed.add(record.read()));
+        log.commit(log.append(new byte[]{4}));
+        log.close();
+        assertThat(replayed, is(singletonList(1)));
+        assertThat(logSegments(), is(singletonList(segments.get(0))));
+
+        replayed.clear();
+        try {
+            WriteAheadLog.open(directory, 0, record -> replayed.add(record.read())).close();
+            assertThat(replayed, is(asList(1, 4)));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void reopensTableSegmentsWithoutDuplicatingRows() throws Exception {
+        try (Storage storage = Storage.open(directory)) {
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            createTestTable(service);
+            service.executeQuery("insert into `test`(`id`, `data`) values(1, `one`)");
+            service.executeQuery("create hash index `data` on `test`");
+        }
+        try (Storage storage = Storage.open(directory)) {
+            new DatabaseService(new QueryParser(), storage).executeQuery("insert into `test`(`id`, `data`) values(2, `one`)");
+        }
+
+        try (Storage storage = Storage.open(directory)) {
+            assertThat(storage.selectAllRows("test"), is(asList(asList("1", "one"), asList("2", "one"))));
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            assertThat(service.executeQuery("select (`id`) from `test` where `data` = `one`").getTable().getRows(),
+                    is(asList(singletonList("1"), singletonList("2"))));
+            assertThat(Files.list(directory.resolve("tables")).count(), is(1L));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void recoversBatchInsertsFromLog() throws Exception {
+        Storage crashed = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0);
+        DatabaseService service = new DatabaseService(new QueryParser(), crashed);
+        createTestTable(service);
+        service.executeQuery("create index `id` on `test`");
+        crashed.checkpoint();
+        service.executeQuery("insert into `test`(`id`, `data`) values(2, `two`), (1, `one`)");
+        crashed.insertRows("test", singletonList("data"), singletonList(singletonList("three")).iterator());
+
+        try (Storage storage = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0)) {
+            assertThat(storage.selectAllRows("test"), is(asList(asList("2", "two"), asList("1", "one"), asList(null, "three"))));
+            service = new DatabaseService(new QueryParser(), storage);
+            assertThat(service.executeQuery("select (`data`) from `test` where `id` > 0").getTable().getRows(),
+                    is(asList(singletonList("two"), singletonList("one"))));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void smallBatchesAppendToExistingIndexKeys() throws Exception {
+        try (Storage storage = Storage.open(directory)) {
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            createTestTable(service);
+            service.executeQuery("create index `id` on `test`");
+            for (int batch = 0; batch < 100; batch++) {
+                List<List<String>> rows = new ArrayList<>();
+                for (int i = batch * 10; i < batch * 10 + 10; i++) rows.add(asList(String.valueOf(i % 10), String.valueOf(i)));
+                storage.insertRows("test", asList("id", "data"), rows.iterator());
+            }
+
+            List<List<String>> expected = new ArrayList<>();
+            for (int i = 3; i < 1000; i += 10) expected.add(singletonList(String.valueOf(i)));
+            assertThat(service.executeQuery("select (`data`) from `test` where `id` = 3").getTable().getRows(), is(expected));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void batchBecomesVisibleOnlyOnceLoaded() throws Exception {
+        try (Storage storage = Storage.open(directory)) {
+            DatabaseService service = new DatabaseService(new QueryParser(), storage);
+            createTestTable(service);
+            service.executeQuery("create index `id` on `test`");
+            List<Integer> visibleDuringLoad = new ArrayList<>();
+            Iterator<List<String>> rows = new Iterator<List<String>>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < 10000;
+                }
+
+                @Override
+                public List<String> next() {
+                    if (next == 5000) visibleDuringLoad.add(storage.selectAllRows("test").size());
+                    int i = next++;
+                    return asList(String.valueOf(i % 100), String.valueOf(i));
+                }
+            };
+
+            assertThat(storage.insertRows("test", asList("id", "data"), rows), is(10000));
+            assertThat(visibleDuringLoad, is(singletonList(0)));
+            assertThat(storage.selectAllRows("test").size(), is(10000));
+            assertThat(service.executeQuery("select (`data`) from `test` where `id` = 42").getTable().getRows().size(), is(100));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void recoversFromCheckpointAndLogTail() throws Exception {
+        Storage crashed = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0);
+        DatabaseService service = new DatabaseService(new QueryParser(), crashed);
+        createTestTable(service);
+        service.executeQuery("insert into `test`(`id`, `data`) values(1, `one`)");
+        service.executeQuery("insert into `test`(`id`, `data`) values(2, `two`)");
+        service.executeQuery("create index `id` on `test`");
+        service.executeQuery("create hash index `data` on `test`");
+        crashed.checkpoint();
+        service.executeQuery("insert into `test`(`id`, `data`) values(3, `one`)");
+
+        try (Storage storage = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0)) {
+            assertThat(logSegments().size(), is(1));
+            assertThat(storage.selectAllRows("test"), is(asList(asList("1", "one"), asList("2", "two"), asList("3", "one"))));
+            service = new DatabaseService(new QueryParser(), storage);
+            assertThat(service.executeQuery("select (`id`) from `test` where `data` = `one`").getTable().getRows(),
+                    is(asList(singletonList("1"), singletonList("3"))));
+            assertThat(service.executeQuery("select (`data`) from `test` where `id` >= 2").getTable().getRows(),
+                    is(asList(singletonList("two"), singletonList("one"))));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void recoversImportedIntegersFromLog() throws Exception {
+        Path file = Files.createTempFile("jdb", ".csv");
+        try {
+            Files.write(file, asList("a,0", ",-2147483648", "c,2147483647", "d,", "e,-15"));
+            Storage crashed = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0);
+            createTestTable(new DatabaseService(new QueryParser(), crashed));
+            assertThat(crashed.importRows("test", asList("data", "id"), file), is(5L));
+
+            List<List<String>> expected = asList(asList("0", "a"), asList("-2147483648", null), asList("2147483647", "c"),
+                    asList(null, "d"), asList("-15", "e"));
+            assertThat(crashed.selectAllRows("test"), is(expected));
+            try (Storage storage = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0)) {
+                assertThat(storage.selectAllRows("test"), is(expected));
+            }
+        } finally {
+            Files.delete(file);
+            cleanUp();
+        }
+    }
+
+    @Test
+    public void recoversCompositeIndexesFromCheckpointAndLog() throws Exception {
+        Storage crashed = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0);
+        DatabaseService service = new DatabaseService(new QueryParser(), crashed);
+        createTestTable(service);
+        service.executeQuery("insert into `test`(`id`, `data`) values(2, `b`), (1, `a`), (1, `c`)");
+        service.executeQuery("insert into `test`(`data`) values(`d`)");
+        service.executeQuery("create index (`data`, `id`) on `test`");
+        crashed.checkpoint();
+        service.executeQuery("create index (`id`) on `test` include (`data`)");
+        service.executeQuery("insert into `test`(`id`, `data`) values(1, `b`)");
+
+        try (Storage storage = Storage.open(directory, BPlusTree.DEFAULT_FAN_OUT, 0)) {
+            assertThat(storage.indexExists("test", asList("data", "id"), emptyList(), IndexType.TREE), is(true));
+            assertThat(storage.indexExists("test", singletonList("id"), singletonList("data"), IndexType.TREE), is(true));
+            service = new DatabaseService(new QueryParser(), storage);
+            assertThat(service.executeQuery("select (`id`, `data`) from `test` where `id` = 1").getTable().getRows(),
+                    is(asList(asList("1", "a"), asList("1", "b"), asList("1", "c"))));
+            assertThat(service.executeQuery("select (`id`) from `test` where `data` = `b` and `id` > 0").getTable().getRows(),
+                    is(asList(singletonList("1"), singletonList("2"))));
+        } finally {
+            cleanUp();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PredicateCompilerTest {
+    @Test
+    public void compiledPredicatesMatchInterpretedOnes() throws Exception {
+        Random random = new Random(7);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(asList(
+                    random.nextInt(10) == 0 ? null : String.valueOf(random.nextInt(50) - 25),
+                    random.nextInt(10) == 0 ? null : "v" + random.nextInt(20)));
+        }
+        Table table = Table.create("test", asList(new ColumnData("id", Type.INTEGER), new ColumnData("data", Type.STRING)), rows);
+
+        for (CompareSign sign : CompareSign.values()) {
+            for (Object value : asList(0, -25, 24, 1000, "v3", "v10", "missing", "")) {
+                String column = value instanceof Integer ? "id" : "data";
+                QueryPredicate<?> predicate = QueryPredicate.create(column, sign, value);
+                assertSameRows(table, predicate);
+                assertSameRows(table, QueryPredicate.create("id", sign, 3).and(predicate).or(QueryPredicate.create("data", CompareSign.EQ, "v1")));
+            }
+        }
+    }
+
+    private void assertSameRows(Table table, QueryPredicate<?> predicate) {
+        IntPredicate compiled = PredicateCompiler.compile(predicate, table::getColumn);
+        for (int row = 0; row < table.size(); row++) assertThat(compiled.test(row), is(interpret(table, predicate, row)));
+    }
+
+    private boolean interpret(Table table, QueryPredicate<?> predicate, int row) {
+        boolean result = predicate.test(table.getColumn(predicate.getColumn()), row);
+        if (predicate.and() != null) result = result && interpret(table, predicate.and(), row);
+        if (predicate.or() != null) result = result || interpret(table, predicate.or(), row);
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package me.wbars.jdb.query;
 
+import me.wbars.jdb.db.IndexType;
 import me.wbars.jdb.db.QueryParser;
 import me.wbars.jdb.scanner.Type;
 import me.wbars.jdb.table.ColumnData;
@@ -8,6 +9,8 @@ import org.junit.Test;
 
 import java.util.List;
 
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.assertThat;
@@ -51,6 +54,24 @@ public class QueryParserTest {
         assertThat(((DescribeTableQuery) query).getTableName(), is("test"));
     }
 
+    @Test
+    public void analyzeTable() throws Exception {
+        Query query = parser.parse("analyze table `test`");
+        assertThat(query, is(instanceOf(AnalyzeTableQuery.class)));
+        assertThat(((AnalyzeTableQuery) query).getTableName(), is("test"));
+    }
+
+    @Test
+    public void explainSelect() throws Exception {
+        Query query = parser.parse("explain analyze select (`data`) from `test` where `id` = 1");
+        assertThat(query, is(instanceOf(ExplainQuery.class)));
+        assertThat(((ExplainQuery) query).isAnalyze(), is(true));
+        assertThat(((ExplainQuery) query).getSelect().getTableName(), is("test"));
+        assertThat(((ExplainQuery) query).getSelect().getPredicate().getColumn(), is("id"));
+
+        assertThat(((ExplainQuery) parser.parse("explain select (`data`) from `test`")).isAnalyze(), is(false));
+    }
+
     @Test
     public void parseCreateTableWithData() throws Exception {
         Query query = parser.parse("create table `test` (" +
@@ -102,4 +123,145 @@ public class QueryParserTest {
         assertThat(((CreateIndexQuery) query).getTableName(), is("test"));
         assertThat(((CreateIndexQuery) query).getColumn(), is("id"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createHashIndexParser() throws Exception {
+        Query query = parser.parse("create hash index `id` on `test`");
+        assertThat(query, is(instanceOf(CreateIndexQuery.class)));
+        assertThat(((CreateIndexQuery) query).getTableName(), is("test"));
+        assertThat(((CreateIndexQuery) query).getColumn(), is("id"));
+        assertThat(((CreateIndexQuery) query).getType(), is(IndexType.HASH));
+    }
+
+    @Test
+    public void createCompositeIndexParser() throws Exception {
+        CreateIndexQuery query = (CreateIndexQuery) parser.parse("create index (`group`, `id`) on `test` include (`data`)");
+        assertThat(query.getTableName(), is("test"));
+        assertThat(query.getColumns(), is(asList("group", "id")));
+        assertThat(query.getIncludedColumns(), is(asList("data")));
+        assertThat(query.getType(), is(IndexType.TREE));
+    }
+
+    @Test
+    public void selectOrderByLimitParser() throws Exception {
+        SelectQuery query = (SelectQuery) parser.parse("select (`id`) from `test` where `id` > 3 order by `data` desc limit 5 offset 2");
+        assertThat(query.getPredicate().getColumn(), is("id"));
+        assertThat(query.getOrderBy().getColumn(), is("data"));
+        assertThat(query.getOrderBy().isDescending(), is(true));
+        assertThat(query.getLimit(), is(5));
+        assertThat(query.getOffset(), is(2));
+
+        SelectQuery ordered = (SelectQuery) parser.parse("select (`id`) from `test` order by `id`");
+        assertThat(ordered.getPredicate() == null, is(true));
+        assertThat(ordered.getOrderBy().isDescending(), is(false));
+        assertThat(ordered.getLimit(), is(SelectQuery.NO_LIMIT));
+
+        SelectQuery limited = (SelectQuery) parser.parse("select (`id`) from `test` limit 10");
+        assertThat(limited.getOrderBy() == null, is(true));
+        assertThat(limited.getLimit(), is(10));
+        assertThat(limited.getOffset(), is(0));
+    }
+
+    @Test
+    public void aggregateParser() throws Exception {
+        SelectQuery query = (SelectQuery) parser.parse("select (`group`, count(*), sum(`id`), max(`data`)) from `test` where `id` > 3 group by `group`, `data` order by `group` limit 5");
+        assertThat(query.isAggregate(), is(true));
+        assertThat(query.getAggregates().stream().map(Aggregate::toString).collect(toList()),
+                is(asList("`group`", "count(*)", "sum(`id`)", "max(`data`)")));
+        assertThat(query.getColumns(), is(asList("group")));
+        assertThat(query.getGroupBy(), is(asList("group", "data")));
+        assertThat(query.getPredicate().getColumn(), is("id"));
+        assertThat(query.getOrderBy().getColumn(), is("group"));
+        assertThat(query.getLimit(), is(5));
+
+        SelectQuery plain = (SelectQuery) parser.parse("select (`id`) from `test` where `id` > 3");
+        assertThat(plain.isAggregate(), is(false));
+    }
+
+    @Test
+    public void joinParser() throws Exception {
+        SelectQuery query = (SelectQuery) parser.parse("select (`orders.id`, `name`) from `orders` left join `customers` " +
+                "on `orders.customer` = `customers.id` where `orders.id` > 3 order by `name` limit 5");
+        assertThat(query.getTableName(), is("orders"));
+        assertThat(query.getColumns(), is(asList("orders.id", "name")));
+        assertThat(query.getJoin().getType(), is(JoinClause.Type.LEFT));
+        assertThat(query.getJoin().getTableName(), is("customers"));
+        assertThat(query.getJoin().getLeftColumn(), is("orders.customer"));
+        assertThat(query.getJoin().getRightColumn(), is("customers.id"));
+        assertThat(query.getPredicate().getColumn(), is("orders.id"));
+        assertThat(query.getOrderBy().getColumn(), is("name"));
+        assertThat(query.getLimit(), is(5));
+
+        SelectQuery inner = (SelectQuery) parser.parse("select (`id`) from `orders` inner join `customers` on `customer` = `customers.id`");
+        assertThat(inner.getJoin().getType(), is(JoinClause.Type.INNER));
+        assertThat(inner.getPredicate() == null, is(true));
+        assertThat(((SelectQuery) parser.parse("select (`id`) from `orders`")).getJoin() == null, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void joinRequiresEquality() throws Exception {
+        parser.parse("select (`id`) from `orders` join `customers` on `customer` > `customers.id`");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void joinRejectsAggregates() throws Exception {
+        parser.parse("select (count(*)) from `orders` join `customers` on `customer` = `customers.id`");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyCountAcceptsStar() throws Exception {
+        parser.parse("select (sum(*)) from `test`");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitRequiresCount() throws Exception {
+        parser.parse("select (`id`) from `test` limit `a`");
+    }
+
+    @Test
+    public void multiRowInsertParser() throws Exception {
+        Query query = parser.parse("insert into `test`(`id`, `data`) values(1, `a`), (2, ?), (3, `c`)");
+        assertThat(((InsertQuery) query).getRows(), is(asList(asList("1", "a"), asList("2", null), asList("3", "c"))));
+        assertThat(((InsertQuery) query.bind(asList("b"))).getRows(), is(asList(asList("1", "a"), asList("2", "b"), asList("3", "c"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiRowInsertRequiresCommaBetweenRows() throws Exception {
+        parser.parse("insert into `test`(`id`) values(1) (2)");
+    }
+
+    @Test
+    public void copyParser() throws Exception {
+        CopyFromQuery from = (CopyFromQuery) parser.parse("copy `test` (`id`, `data`) from `/tmp/test.csv`");
+        assertThat(from.getTableName(), is("test"));
+        assertThat(from.getColumns(), is(asList("id", "data")));
+        assertThat(from.getFile(), is("/tmp/test.csv"));
+
+        CopyToQuery table = (CopyToQuery) parser.parse("copy `test` to `/tmp/test.tsv`");
+        assertThat(table.getSelect().getTableName(), is("test"));
+        assertThat(table.getSelect().getColumns(), hasSize(0));
+        assertThat(table.getFile(), is("/tmp/test.tsv"));
+
+        CopyToQuery select = (CopyToQuery) parser.parse("copy (select (`id`) from `test` where `id` > 5) to `out.csv`");
+        assertThat(select.getSelect().getColumns(), is(asList("id")));
+        assertThat(select.getSelect().getPredicate().getValueToCompare(), is(5));
+        assertThat(select.getFile(), is("out.csv"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void copyRequiresSingleFile() throws Exception {
+        parser.parse("copy `test` from `a.csv` `b.csv`");
+    }
+
+    @Test
+    public void selectWithPlaceholdersParser() throws Exception {
+        Query query = parser.parse("select (`data`) from `test` where `id` > ? and `data` = ?");
+        QueryPredicate<?> predicate = ((SelectQuery) query).getPredicate();
+        assertThat(((Parameter) predicate.getValueToCompare()).getIndex(), is(0));
+        assertThat(((Parameter) predicate.and().getValueToCompare()).getIndex(), is(1));
+
+        QueryPredicate<?> bound = ((SelectQuery) query.bind(asList(5, "x"))).getPredicate();
+        assertThat(bound.getValueToCompare(), is(5));
+        assertThat(bound.and().getValueToCompare(), is("x"));
+    }
+}
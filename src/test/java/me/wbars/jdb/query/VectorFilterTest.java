@@ -0,0 +1,74 @@
+package me.wbars.jdb.query;
+
+import me.wbars.jdb.scanner.Type;
+import me.wbars.jdb.table.Column;
+import me.wbars.jdb.table.ColumnData;
+import me.wbars.jdb.table.Table;
+import me.wbars.jdb.table.TableRow;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class VectorFilterTest {
+    private static final int ROWS = 2 * VectorFilter.BATCH_SIZE + 300;
+
+    private Table randomTable() {
+        Random random = new Random(11);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(asList(
+                    random.nextInt(10) == 0 ? null : String.valueOf(random.nextInt(50) - 25),
+                    random.nextInt(10) == 0 ? null : "v" + random.nextInt(20)));
+        }
+        return Table.create("test", asList(new ColumnData("id", Type.INTEGER), new ColumnData("data", Type.STRING)), rows);
+    }
+
+    @Test
+    public void vectorFilterMatchesCompiledPredicates() throws Exception {
+        Table table = randomTable();
+        for (CompareSign sign : CompareSign.values()) {
+            for (Object value : asList(0, -25, 24, 1000, "v3", "v10", "missing", "")) {
+                String column = value instanceof Integer ? "id" : "data";
+                QueryPredicate<?> predicate = QueryPredicate.create(column, sign, value);
+                assertSameRows(table, predicate);
+                assertSameRows(table, QueryPredicate.create("id", sign, 3).and(predicate).or(QueryPredicate.create("data", CompareSign.EQ, "v1")));
+                assertSameRows(table, QueryPredicate.anyOf(predicate,
+                        QueryPredicate.anyOf(QueryPredicate.create("id", CompareSign.LT, -20), QueryPredicate.create("id", sign, "7"))));
+            }
+        }
+    }
+
+    private void assertSameRows(Table table, QueryPredicate<?> predicate) {
+        IntPredicate compiled = PredicateCompiler.compile(predicate, table::getColumn);
+        VectorFilter filter = VectorFilter.compile(predicate, table::getColumn);
+        VectorFilter.Batch batch = filter.newBatch();
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 0; row < table.size(); row++) if (compiled.test(row)) expected.add(row);
+
+        List<Integer> actual = new ArrayList<>();
+        for (int start = 0; start < table.size(); start += VectorFilter.BATCH_SIZE) {
+            filter.filter(batch, start, Math.min(VectorFilter.BATCH_SIZE, table.size() - start));
+            for (int i = 0; i < batch.size(); i++) actual.add(batch.rowId(i));
+        }
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void projectionMaterializesSelectedRows() throws Exception {
+        Table table = randomTable();
+        List<Column> columns = asList(table.getColumn("data"), table.getColumn("id"));
+        int start = VectorFilter.BATCH_SIZE;
+        int[] selection = {0, 5, 31, 32, 1023};
+
+        List<List<String>> rows = new ArrayList<>();
+        new VectorProjection(columns).project(start, VectorFilter.BATCH_SIZE, selection, selection.length, rows);
+        for (int i = 0; i < selection.length; i++) assertThat(rows.get(i), is(new TableRow(columns, start + selection[i])));
+    }
+}
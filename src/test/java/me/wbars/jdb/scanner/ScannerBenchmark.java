@@ -0,0 +1,121 @@
+package me.wbars.jdb.scanner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+public class ScannerBenchmark {
+    private static final List<String> QUERIES = asList(
+            "select (`id`, `data`) from `test` where `id` >= 42 and `data` != `abc`",
+            "insert into `test`(`id`, `data`) values(1234567, `some_text_value`)",
+            "create table `test` (`id` integer, `data` string, `other` integer)",
+            "create index `data` on `test`",
+            "show tables"
+    );
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        Scanner scanner = new Scanner();
+        RegexScanner legacy = new RegexScanner();
+        for (String query : QUERIES) {
+            if (!describe(legacy.scan(query)).equals(describe(scanner.scan(query)))) throw new IllegalStateException(query);
+        }
+        for (int round = 0; round < 5; round++) {
+            long regex = measure(legacy::scan);
+            long lexer = measure(scanner::scan);
+            System.out.printf("round %d: regex %d ns/query, lexer %d ns/query, speedup %.1fx%n",
+                    round, regex, lexer, (double) regex / lexer);
+        }
+    }
+
+    private static long measure(Function<String, List<Token>> scan) {
+        long tokens = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String query : QUERIES) tokens += scan.apply(query).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (tokens == 0) throw new IllegalStateException();
+        return elapsed / ((long) ITERATIONS * QUERIES.size());
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        List<String> result = new ArrayList<>();
+        for (Token token : tokens) result.add(token.type + ":" + token.value);
+        return result;
+    }
+
+    private static final class RegexScanner {
+        private final Map<TokenType, Pattern> patterns = new LinkedHashMap<>();
+
+        RegexScanner() {
+            patterns.put(TokenType.SHOW, Pattern.compile("^show$"));
+            patterns.put(TokenType.TABLE, Pattern.compile("^table$"));
+            patterns.put(TokenType.TABLES, Pattern.compile("^tables$"));
+            patterns.put(TokenType.INSERT, Pattern.compile("^insert$"));
+            patterns.put(TokenType.INTO, Pattern.compile("^into$"));
+            patterns.put(TokenType.INTEGER, Pattern.compile("^integer$"));
+            patterns.put(TokenType.STRING, Pattern.compile("^string$"));
+            patterns.put(TokenType.CREATE, Pattern.compile("^create$"));
+            patterns.put(TokenType.DROP, Pattern.compile("^drop$"));
+            patterns.put(TokenType.DESCRIBE, Pattern.compile("^describe$"));
+            patterns.put(TokenType.SEMICOLON, Pattern.compile("^;$"));
+            patterns.put(TokenType.COMMA, Pattern.compile("^,$"));
+            patterns.put(TokenType.OPEN_PAREN, Pattern.compile("^\\($"));
+            patterns.put(TokenType.CLOSE_PAREN, Pattern.compile("^\\)$"));
+            patterns.put(TokenType.UNSIGNED_INTEGER, Pattern.compile("^\\d+$"));
+            patterns.put(TokenType.STRING_VAR, Pattern.compile("^`.+`$"));
+            patterns.put(TokenType.VALUES, Pattern.compile("^values$"));
+            patterns.put(TokenType.SELECT, Pattern.compile("^select$"));
+            patterns.put(TokenType.FROM, Pattern.compile("^from$"));
+            patterns.put(TokenType.WHERE, Pattern.compile("^where$"));
+            patterns.put(TokenType.RELOP, Pattern.compile("^>|<|<=|>=|=|!=$"));
+            patterns.put(TokenType.BOOLEAN_RELOP, Pattern.compile("^and|or$"));
+            patterns.put(TokenType.INDEX, Pattern.compile("^index$"));
+            patterns.put(TokenType.ON, Pattern.compile("^on$"));
+        }
+
+        List<Token> scan(String query) {
+            List<Token> result = new ArrayList<>();
+            int start = -1;
+            for (int i = 0; i < query.length(); i++) {
+                char ch = query.charAt(i);
+
+                if (isWhitespace(ch)) continue;
+                if (start == -1) start = i;
+
+                if (i == query.length() - 1 || isWhitespace(query.charAt(i + 1)) || isDelimiter(String.valueOf(query.charAt(i + 1)))) {
+                    result.add(token(query.substring(start, i + 1)));
+                    start = -1;
+                    continue;
+                }
+                if (isDelimiter(String.valueOf(ch))) {
+                    result.add(token(String.valueOf(ch)));
+                    start = -1;
+                }
+            }
+            return result;
+        }
+
+        private Token token(String word) {
+            TokenType type = patterns.keySet().stream()
+                    .filter(t -> patterns.get(t).asPredicate().test(word))
+                    .findFirst().orElseThrow(() -> new IllegalArgumentException(word));
+            return new Token(type, type == TokenType.STRING_VAR ? word.substring(1, word.length() - 1) : word);
+        }
+
+        private boolean isDelimiter(String word) {
+            return asList(TokenType.SEMICOLON, TokenType.COMMA, TokenType.OPEN_PAREN, TokenType.CLOSE_PAREN).stream()
+                    .anyMatch(t -> patterns.get(t).asPredicate().test(word));
+        }
+
+        private static boolean isWhitespace(char ch) {
+            return ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r';
+        }
+    }
+}
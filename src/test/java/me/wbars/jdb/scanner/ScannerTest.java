@@ -5,6 +5,9 @@ import org.junit.Test;
 
 import java.util.List;
 
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.assertThat;
@@ -44,4 +47,95 @@ public class ScannerTest {
         assertThat(tokens.get(8).type, is(TokenType.STRING));
         assertThat(tokens.get(9).type, is(TokenType.CLOSE_PAREN));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSelectWithOperatorsWithoutSpaces() throws Exception {
+        List<Token> tokens = scanner.scan("select (`id`) from `test` where `id`>=10 or `id`!=3 and `data`<`b c`");
+        assertThat(tokens.stream().map(t -> t.type).collect(toList()), is(asList(
+                TokenType.SELECT, TokenType.OPEN_PAREN, TokenType.STRING_VAR, TokenType.CLOSE_PAREN, TokenType.FROM,
+                TokenType.STRING_VAR, TokenType.WHERE, TokenType.STRING_VAR, TokenType.RELOP, TokenType.UNSIGNED_INTEGER,
+                TokenType.BOOLEAN_RELOP, TokenType.STRING_VAR, TokenType.RELOP, TokenType.UNSIGNED_INTEGER,
+                TokenType.BOOLEAN_RELOP, TokenType.STRING_VAR, TokenType.RELOP, TokenType.STRING_VAR)));
+        assertThat(tokens.stream().map(t -> t.value).collect(toList()), is(asList(
+                "select", "(", "id", ")", "from", "test", "where", "id", ">=", "10", "or", "id", "!=", "3",
+                "and", "data", "<", "b c")));
+    }
+
+    @Test
+    public void testInsert() throws Exception {
+        assertThat(scan("insert into `test`(`id`, `data`) values(1234, `x`);"), is(asList(
+                "INSERT:insert", "INTO:into", "STRING_VAR:test", "OPEN_PAREN:(", "STRING_VAR:id", "COMMA:,",
+                "STRING_VAR:data", "CLOSE_PAREN:)", "VALUES:values", "OPEN_PAREN:(", "UNSIGNED_INTEGER:1234",
+                "COMMA:,", "STRING_VAR:x", "CLOSE_PAREN:)", "SEMICOLON:;")));
+    }
+
+    @Test
+    public void testCreateIndex() throws Exception {
+        assertThat(scan("create hash index `data` on `test` include (`id`)"), is(asList(
+                "CREATE:create", "HASH:hash", "INDEX:index", "STRING_VAR:data", "ON:on", "STRING_VAR:test",
+                "INCLUDE:include", "OPEN_PAREN:(", "STRING_VAR:id", "CLOSE_PAREN:)")));
+    }
+
+    @Test
+    public void testDdl() throws Exception {
+        assertThat(scan("describe `test`"), is(asList("DESCRIBE:describe", "STRING_VAR:test")));
+        assertThat(scan("drop table `test`"), is(asList("DROP:drop", "TABLE:table", "STRING_VAR:test")));
+        assertThat(scan("show tables"), is(asList("SHOW:show", "TABLES:tables")));
+        assertThat(scan("analyze `test`"), is(asList("ANALYZE:analyze", "STRING_VAR:test")));
+    }
+
+    @Test
+    public void testSelectWithOrderAndLimit() throws Exception {
+        assertThat(scan("explain select (`id`) from `test` where `id` <= ? order by `id` desc limit 5 offset 2"), is(asList(
+                "EXPLAIN:explain", "SELECT:select", "OPEN_PAREN:(", "STRING_VAR:id", "CLOSE_PAREN:)", "FROM:from",
+                "STRING_VAR:test", "WHERE:where", "STRING_VAR:id", "RELOP:<=", "PLACEHOLDER:?", "ORDER:order",
+                "BY:by", "STRING_VAR:id", "DESC:desc", "LIMIT:limit", "UNSIGNED_INTEGER:5", "OFFSET:offset",
+                "UNSIGNED_INTEGER:2")));
+    }
+
+    @Test
+    public void testSelectWithAggregates() throws Exception {
+        assertThat(scan("select (`g`, count(*), min(`id`), avg(`id`)) from `test` group by `g`"), is(asList(
+                "SELECT:select", "OPEN_PAREN:(", "STRING_VAR:g", "COMMA:,", "AGGREGATE:count", "OPEN_PAREN:(",
+                "STAR:*", "CLOSE_PAREN:)", "COMMA:,", "AGGREGATE:min", "OPEN_PAREN:(", "STRING_VAR:id",
+                "CLOSE_PAREN:)", "COMMA:,", "AGGREGATE:avg", "OPEN_PAREN:(", "STRING_VAR:id", "CLOSE_PAREN:)",
+                "CLOSE_PAREN:)", "FROM:from", "STRING_VAR:test", "GROUP:group", "BY:by", "STRING_VAR:g")));
+    }
+
+    @Test
+    public void testSelectWithJoin() throws Exception {
+        assertThat(scan("select (`a`) from `l` left join `r` on `id` = `rid`"), is(asList(
+                "SELECT:select", "OPEN_PAREN:(", "STRING_VAR:a", "CLOSE_PAREN:)", "FROM:from", "STRING_VAR:l",
+                "LEFT:left", "JOIN:join", "STRING_VAR:r", "ON:on", "STRING_VAR:id", "RELOP:=", "STRING_VAR:rid")));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        assertThat(scan("copy `test` to `out.csv`"), is(asList(
+                "COPY:copy", "STRING_VAR:test", "TO:to", "STRING_VAR:out.csv")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownWord() throws Exception {
+        scanner.scan("selectt (`id`) from `test`");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedString() throws Exception {
+        scanner.scan("describe `test");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedKeywordStartingWithI() throws Exception {
+        scanner.scan("select * from `t` i");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortKeywordStartingWithI() throws Exception {
+        scanner.scan("drop table `t` in");
+    }
+
+    private List<String> scan(String query) {
+        return scanner.scan(query).stream().map(t -> t.type + ":" + t.value).collect(toList());
+    }
+}
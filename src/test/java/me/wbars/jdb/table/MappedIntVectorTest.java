@@ -0,0 +1,57 @@
+package me.wbars.jdb.table;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MappedIntVectorTest {
+
+    @Test
+    public void valuesSurviveReopenAcrossPagesAndSegments() throws Exception {
+        Path file = Files.createTempFile("jdb", ".values");
+        int count = (1 << MappedIntVector.SEGMENT_SHIFT) + (1 << MappedIntVector.PAGE_SHIFT) + 7;
+        try {
+            try (MappedIntVector vector = MappedIntVector.open(file)) {
+                for (int i = 0; i < count; i++) vector.set(i, i * 3);
+                assertThat(vector.get(5), is(15));
+                assertThat(vector.get(count - 1), is((count - 1) * 3));
+            }
+
+            try (MappedIntVector vector = MappedIntVector.open(file)) {
+                assertThat(vector.get(0), is(0));
+                assertThat(vector.get(1 << MappedIntVector.PAGE_SHIFT), is(3 << MappedIntVector.PAGE_SHIFT));
+                assertThat(vector.get(count - 1), is((count - 1) * 3));
+
+                vector.set(10, -1);
+                assertThat(vector.get(10), is(-1));
+                assertThat(vector.get(count - 1), is((count - 1) * 3));
+            }
+
+            try (MappedIntVector vector = MappedIntVector.open(file)) {
+                assertThat(vector.get(10), is(-1));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void bulkReadSpansDirtyPageAndSegments() throws Exception {
+        Path file = Files.createTempFile("jdb", ".values");
+        int segment = 1 << MappedIntVector.SEGMENT_SHIFT;
+        try (MappedIntVector vector = MappedIntVector.open(file)) {
+            for (int i = 0; i < segment + 1024; i++) vector.set(i, i);
+            vector.set(segment - 1, -7);
+
+            int[] values = new int[2048];
+            vector.read(segment - 1024, values, values.length);
+            for (int i = 0; i < values.length; i++) assertThat(values[i], is(i == 1023 ? -7 : segment - 1024 + i));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
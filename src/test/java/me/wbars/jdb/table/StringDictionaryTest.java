@@ -0,0 +1,45 @@
+package me.wbars.jdb.table;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void reopenedDictionaryFindsAndDecodesPersistedCodes() throws Exception {
+        Path file = Files.createTempFile("jdb", ".dict");
+        try {
+            try (StringDictionary dictionary = StringDictionary.open(file)) {
+                for (int i = 0; i < 1000; i++) assertThat(dictionary.encode("value_" + i), is(i));
+                assertThat(dictionary.encode(""), is(1000));
+                assertThat(dictionary.encode("\u00e9t\u00e9"), is(1001));
+            }
+            Files.write(file, new byte[]{0, 0, 0, 9, 'x'}, StandardOpenOption.APPEND);
+
+            try (StringDictionary dictionary = StringDictionary.open(file)) {
+                assertThat(dictionary.size(), is(1002));
+                assertThat(dictionary.find("value_999"), is(999));
+                assertThat(dictionary.find("\u00e9t\u00e9"), is(1001));
+                assertThat(dictionary.find("missing") == null, is(true));
+                assertThat(dictionary.decode(7), is("value_7"));
+                assertThat(dictionary.decode(1000), is(""));
+                assertThat(dictionary.encode("value_3"), is(3));
+                assertThat(dictionary.encode("new"), is(1002));
+                assertThat(dictionary.decode(1002), is("new"));
+            }
+
+            try (StringDictionary dictionary = StringDictionary.open(file)) {
+                assertThat(dictionary.find("new"), is(1002));
+                assertThat(dictionary.encode("newer"), is(1003));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package me.wbars.jdb.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class BitmapTest {
+
+    @Test
+    public void addKeepsValuesSorted() throws Exception {
+        Bitmap bitmap = new Bitmap();
+        asList(70000, 3, 1, 3, 65536).forEach(bitmap::add);
+
+        assertThat(bitmap.cardinality(), is(4));
+        assertThat(bitmap.toIntList(), is(asList(1, 3, 65536, 70000)));
+        assertThat(bitmap.contains(65536), is(true));
+        assertThat(bitmap.contains(2), is(false));
+    }
+
+    @Test
+    public void concatJoinsOrderedParts() throws Exception {
+        Bitmap first = Bitmap.range(0, 10);
+        Bitmap second = new Bitmap();
+        asList(65536, 70000).forEach(second::add);
+
+        Bitmap joined = Bitmap.concat(asList(first, new Bitmap(), second));
+        assertThat(joined.cardinality(), is(12));
+        assertThat(joined.contains(70000), is(true));
+        try {
+            Bitmap.concat(asList(second, first));
+            fail("Expected unordered parts to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void rangeSpansContainers() throws Exception {
+        Bitmap bitmap = Bitmap.range(65530, 140000);
+
+        assertThat(bitmap.cardinality(), is(140000 - 65530));
+        assertThat(bitmap.contains(65529), is(false));
+        assertThat(bitmap.contains(131072), is(true));
+        assertThat(bitmap.contains(140000), is(false));
+    }
+
+    @Test
+    public void limitDropsValuesAtOrAboveBound() throws Exception {
+        Bitmap bitmap = Bitmap.range(65530, 140000);
+        bitmap.add(3);
+
+        assertThat(bitmap.limit(65533).toIntList(), is(asList(3, 65530, 65531, 65532)));
+        assertThat(bitmap.limit(131072).cardinality(), is(131072 - 65530 + 1));
+        assertThat(bitmap.limit(0).isEmpty(), is(true));
+        assertThat(bitmap.limit(1 << 20).cardinality(), is(bitmap.cardinality()));
+    }
+
+    @Test
+    public void iteratorVisitsValuesInOrder() throws Exception {
+        Bitmap bitmap = Bitmap.range(65530, 65540);
+        bitmap.add(3);
+        bitmap.add(1 << 20);
+
+        List<Integer> values = new ArrayList<>();
+        bitmap.iterator().forEachRemaining((IntConsumer) values::add);
+        assertThat(values, is(bitmap.toIntList()));
+        assertThat(new Bitmap().iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void setOperationsMatchTreeSet() throws Exception {
+        Random random = new Random(42);
+        for (int bound : asList(1000, 200000)) {
+            TreeSet<Integer> first = new TreeSet<>();
+            TreeSet<Integer> second = new TreeSet<>();
+            Bitmap a = new Bitmap();
+            Bitmap b = new Bitmap();
+            for (int i = 0; i < 50000; i++) {
+                int x = random.nextInt(bound);
+                int y = random.nextInt(bound);
+                first.add(x);
+                a.add(x);
+                second.add(y);
+                b.add(y);
+            }
+
+            TreeSet<Integer> and = new TreeSet<>(first);
+            and.retainAll(second);
+            TreeSet<Integer> or = new TreeSet<>(first);
+            or.addAll(second);
+            TreeSet<Integer> andNot = new TreeSet<>(first);
+            andNot.removeAll(second);
+
+            assertThat(a.and(b).toIntList(), is((List<Integer>) new ArrayList<>(and)));
+            assertThat(a.or(b).toIntList(), is((List<Integer>) new ArrayList<>(or)));
+            assertThat(a.andNot(b).toIntList(), is((List<Integer>) new ArrayList<>(andNot)));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package me.wbars.jdb.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void smallCardinalitiesAreNearlyExact() throws Exception {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 300; i++) sketch.add(HyperLogLog.hash(i % 100));
+
+        assertThat(Math.abs(sketch.cardinality() - 100) <= 2, is(true));
+    }
+
+    @Test
+    public void largeCardinalitiesStayWithinFewPercent() throws Exception {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000_000; i++) sketch.add(HyperLogLog.hash(i));
+
+        assertThat(Math.abs(sketch.cardinality() - 1_000_000) < 50_000, is(true));
+    }
+}
@@ -0,0 +1,30 @@
+package me.wbars.jdb.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void keepsFirstValueAcrossGrowth() throws Exception {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 10000; i++) assertThat(map.putIfAbsent(i * 0x100000001L - 5000, i), is(i));
+        for (int i = 0; i < 10000; i++) assertThat(map.putIfAbsent(i * 0x100000001L - 5000, -i), is(i));
+
+        assertThat(map.size(), is(10000));
+        assertThat(map.get(-5000), is(0));
+        assertThat(map.get(9999 * 0x100000001L - 5000), is(9999));
+        assertThat(map.get(Long.MAX_VALUE), is(LongIntHashMap.ABSENT));
+    }
+
+    @Test
+    public void putReplacesAndReturnsPreviousValue() throws Exception {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 1000; i++) assertThat(map.put(i % 100, i), is(i < 100 ? LongIntHashMap.ABSENT : i - 100));
+
+        assertThat(map.size(), is(100));
+        assertThat(map.get(7), is(907));
+    }
+}